@@ -6,22 +6,32 @@ import berlin.yuna.nano.core.model.NanoThread;
 import berlin.yuna.nano.core.model.Service;
 import berlin.yuna.nano.helper.NanoUtils;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.event.model.EventMetrics;
 import berlin.yuna.nano.helper.event.model.EventType;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
+import berlin.yuna.nano.helper.jfr.model.JfrEventDispatch;
 import berlin.yuna.nano.helper.logger.logic.LogQueue;
 import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.services.http.HttpService;
+import berlin.yuna.nano.services.http.model.HttpMethod;
+import berlin.yuna.nano.services.http.model.HttpObject;
 import berlin.yuna.nano.services.metric.model.MetricType;
 import berlin.yuna.nano.services.metric.model.MetricUpdate;
 import berlin.yuna.typemap.model.FunctionOrNull;
+import com.sun.management.HotSpotDiagnosticMXBean;
 
 import java.lang.management.ManagementFactory;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.logging.Handler;
 import java.util.stream.Collectors;
 
 import static berlin.yuna.nano.helper.NanoUtils.generateNanoName;
 import static java.lang.System.lineSeparator;
+import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.joining;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
@@ -77,11 +87,12 @@ public class Nano extends NanoServices<Nano> {
             final List<Service> services = startupServices.apply(context);
             if (services != null) {
                 logger.debug(() -> "PreStartupServices count [{}] services [{}]", services.size(), services.stream().map(Service::name).distinct().collect(joining(", ")));
-                final Map<Boolean, List<Service>> partitionedServices = services.stream().collect(Collectors.partitioningBy(LogQueue.class::isInstance));
+                services.stream().filter(Service::lazy).forEach(this::registerLazyService);
+                final Map<Boolean, List<Service>> partitionedServices = services.stream().filter(service -> !service.lazy()).collect(Collectors.partitioningBy(LogQueue.class::isInstance));
                 // INIT ASYNC LOGGING
                 partitionedServices.getOrDefault(true, Collections.emptyList()).stream().findFirst().ifPresent(context::run);
                 // INIT SERVICES
-                context.runAwait(partitionedServices.getOrDefault(false, Collections.emptyList()).toArray(Service[]::new));
+                startServices(context, partitionedServices.getOrDefault(false, Collections.emptyList()));
             }
         }
         run(() -> sendEvent(EventType.EVENT_APP_HEARTBEAT, context, this, result -> {}, true), 256, 256, TimeUnit.MILLISECONDS, () -> false);
@@ -94,12 +105,102 @@ public class Nano extends NanoServices<Nano> {
             );
         }
         logger.info(() -> "Started [{}] in [{}]", generateNanoName("%s%.0s%.0s%.0s"), NanoUtils.formatDuration(readyTime));
+        logStartupTrace();
         printSystemInfo();
         sendEvent(EventType.EVENT_METRIC_UPDATE, context, new MetricUpdate(MetricType.GAUGE, "application.started.time", initTime, null), result -> {}, false);
         sendEvent(EventType.EVENT_METRIC_UPDATE, context, new MetricUpdate(MetricType.GAUGE, "application.ready.time", readyTime, null), result -> {}, false);
         subscribeEvent(EventType.EVENT_APP_SHUTDOWN, event -> event.acknowledge(() -> CompletableFuture.runAsync(() -> shutdown(newContext(this.getClass())))));
         // INIT CLEANUP TASK - just for safety
-        subscribeEvent(EventType.EVENT_APP_HEARTBEAT, event -> new HashSet<>(schedulers).stream().filter(scheduler -> scheduler.isShutdown() || scheduler.isTerminated()).forEach(schedulers::remove));
+        subscribeEvent(EventType.EVENT_APP_HEARTBEAT, event -> {
+            new HashSet<>(schedulers).stream().filter(scheduler -> scheduler.isShutdown() || scheduler.isTerminated()).forEach(schedulers::remove);
+            logRateLimiter.report(logger);
+        });
+        if (this.config.getOpt(Boolean.class, Config.CONFIG_CDS_TRAINING).orElse(false))
+            trainClassDataSharing(context);
+    }
+
+    /**
+     * Starts the {@link Service}s in dependency waves, see {@link Service#wavesOf(Collection)}.
+     * Services of the same wave start in parallel, the next wave starts when the previous one is done.
+     * Services whose dependencies failed or didn't get ready in time are not started and reported as error.
+     *
+     * @param context  The {@link Context} in which the services are started.
+     * @param services The {@link Service}s to start.
+     */
+    protected void startServices(final Context context, final List<Service> services) {
+        final List<List<Service>> waves = Service.wavesOf(services);
+        for (int i = 0; i < waves.size(); i++) {
+            final List<Service> wave = waves.get(i);
+            final List<Service> cycle = wave.stream().filter(service -> wave.stream().anyMatch(service::dependsOn)).toList();
+            if (!cycle.isEmpty())
+                logger.warn(() -> "Dependency cycle between services [{}], starting them together", cycle.stream().map(Service::name).collect(joining(", ")));
+            final Service[] startable = wave.stream().filter(service -> dependenciesReady(context, service, services, wave)).toArray(Service[]::new);
+            final long waveStartNs = System.nanoTime();
+            context.runAwait(startable);
+            startupTrace.record("services wave " + (i + 1), waveStartNs);
+            stream(startable).distinct().forEach(service -> startupTrace.record("service " + service.name(), waveStartNs, TimeUnit.MILLISECONDS.toNanos(Math.max(0, service.readyTimeMs()))));
+        }
+    }
+
+    /**
+     * Checks the dependencies of previous waves, which failed or didn't get ready within {@link NanoThread#awaitTimeoutMs()}.
+     *
+     * @param context  The {@link Context} for the error event.
+     * @param service  The {@link Service} to start.
+     * @param services All {@link Service}s which are started.
+     * @param wave     The wave of the service, its services are started together.
+     * @return <code>true</code> if the service can start, else an error event is sent
+     */
+    protected boolean dependenciesReady(final Context context, final Service service, final List<Service> services, final List<Service> wave) {
+        final List<Service> notReady = services.stream().filter(other -> !wave.contains(other) && service.dependsOn(other) && !other.isReady()).toList();
+        if (!notReady.isEmpty())
+            context.sendEventError(service, new IllegalStateException("Dependencies of [" + service.name() + "] are not ready"),
+                () -> "Skipped service [{}], dependencies are not ready [{}]", service.name(), notReady.stream().map(Service::name).collect(joining(", ")));
+        return notReady.isEmpty();
+    }
+
+    /**
+     * Finishes the {@link Nano#startupTrace()} and logs the phases, on INFO if {@link Config#CONFIG_STARTUP_TRACE} is enabled.
+     */
+    protected void logStartupTrace() {
+        startupTrace.finish();
+        if (config.getOpt(Boolean.class, Config.CONFIG_STARTUP_TRACE).orElse(false))
+            logger.info(startupTrace::report);
+        else
+            logger.debug(startupTrace::report);
+    }
+
+    /**
+     * Training run for an AppCDS archive, see {@link Config#CONFIG_CDS_TRAINING}. Starts the lazy {@link Service}s, calls the
+     * {@link Config#CONFIG_CDS_TRAINING_PATHS} on every {@link HttpService} and stops {@link Nano}, so the JVM exits after the main method
+     * and writes the archive with all classes which were loaded on the way.
+     *
+     * @param context The {@link Context} of the training run.
+     */
+    protected void trainClassDataSharing(final Context context) {
+        final long startTimeMs = System.currentTimeMillis();
+        final String archive = vmOption("ArchiveClassesAtExit").or(() -> vmOption("SharedArchiveFile").filter(file -> vmOption("AutoCreateSharedArchive").filter("true"::equals).isPresent())).orElse(null);
+        if (archive == null)
+            logger.warn(() -> "CDS training without archive, start the JVM with [-XX:ArchiveClassesAtExit=app.jsa] to create one");
+        final List<Service> lazy = lazyServices();
+        lazyServices.clear();
+        context.runAwait(lazy.toArray(Service[]::new));
+        final List<String> paths = context.configOpt(String.class, Config.CONFIG_CDS_TRAINING_PATHS).map(value -> stream(value.split(",")).map(String::trim).filter(NanoUtils::hasText).toList()).orElse(List.of("/"));
+        services(HttpService.class).stream().filter(HttpService::isReady).forEach(http -> paths.forEach(path -> Context.tryExecute(() -> new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path("http://localhost:" + http.port() + (path.startsWith("/") ? path : "/" + path))
+            .send(context)
+        )));
+        logger.info(() -> "CDS training for archive [{}] done in [{}], stopping", archive, NanoUtils.formatDuration(System.currentTimeMillis() - startTimeMs));
+        shutdown(context);
+    }
+
+    protected static Optional<String> vmOption(final String name) {
+        try {
+            return Optional.ofNullable(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption(name).getValue()).filter(NanoUtils::hasText);
+        } catch (final Exception ignored) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -161,7 +262,7 @@ public class Nano extends NanoServices<Nano> {
      * Prints the configurations that have been loaded into the {@link Nano} instance.
      */
     public void printParameters() {
-        if (rootContext.getOpt(Boolean.class, Config.APP_PARAMS.id()).filter(helpCalled -> helpCalled).isPresent()) {
+        if (config.getOpt(Boolean.class, Config.APP_PARAMS).filter(helpCalled -> helpCalled).isPresent()) {
             final List<String> secrets = List.of("secret", "token", "pass", "pwd", "bearer", "auth", "private", "ssn");
             final int keyLength = rootContext.keySet().stream().map(String::valueOf).mapToInt(String::length).max().orElse(0);
             logger.info(() -> "Configs: " + lineSeparator() + rootContext.entrySet().stream().map(config -> String.format("%-" + keyLength + "s  %s", config.getKey(), secrets.stream().anyMatch(s -> String.valueOf(config.getKey()).toLowerCase().contains(s)) ? "****" : config.getValue())).collect(joining(lineSeparator())));
@@ -200,7 +301,11 @@ public class Nano extends NanoServices<Nano> {
             sendEventSameThread(event, broadCast);
         } else {
             //FIXME: batch processing to avoid too many threads?
-            context.run(() -> sendEventSameThread(event, broadCast));
+            final long queuedAtNs = System.nanoTime();
+            context.run(() -> {
+                eventMetrics.queueWait(type, System.nanoTime() - queuedAtNs);
+                sendEventSameThread(event, broadCast);
+            });
         }
         return event;
     }
@@ -215,21 +320,44 @@ public class Nano extends NanoServices<Nano> {
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void sendEventSameThread(final Event event, final boolean broadcast) {
         eventCount.incrementAndGet();
+        final EventMetrics.TypeMetrics metrics = eventMetrics.type(event.id());
+        final JfrEventDispatch jfr = NanoJfr.begin(JfrEventDispatch::new);
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         Context.tryExecute(() -> {
+            final List<Service> deferred = activateLazyServices(event, broadcast);
             final boolean match = listeners.getOrDefault(event.id(), Collections.emptySet()).stream().anyMatch(listener -> {
+                final long listenerStartNs = metrics != null ? System.nanoTime() : 0;
                 Context.tryExecute(() -> listener.accept(event), throwable -> event.context().logger().error(throwable, () -> "Error processing {} [{}] payload [{}]", Event.class.getSimpleName(), event.name(), event.payload()));
+                if (metrics != null)
+                    metrics.listener(listener, System.nanoTime() - listenerStartNs);
+                if (jfr != null && jfr.handler == null && event.isAcknowledged())
+                    jfr.handler = listener.getClass().getName();
                 return !broadcast && event.isAcknowledged();
             });
             if (!match) {
-                services.stream().filter(Service::isReady).anyMatch(service -> {
+                services.stream().filter(service -> service.isReady() && !isActivating(service) && !deferred.contains(service)).anyMatch(service -> {
+                    final long serviceStartNs = metrics != null ? System.nanoTime() : 0;
                     Context.tryExecute(() -> service.onEvent(event), throwable -> handleEventServiceException(event, service, throwable));
+                    if (metrics != null)
+                        metrics.service(service.name(), System.nanoTime() - serviceStartNs);
+                    if (jfr != null && jfr.handler == null && event.isAcknowledged())
+                        jfr.handler = service.name();
                     return !broadcast && event.isAcknowledged();
                 });
             }
         });
+        if (metrics != null)
+            metrics.dispatched(System.nanoTime() - startNs, event.isAcknowledged());
+        if (NanoJfr.shouldCommit(jfr)) {
+            jfr.type = event.name();
+            jfr.broadcast = broadcast;
+            jfr.acknowledged = event.isAcknowledged();
+            jfr.commit();
+        }
         eventCount.decrementAndGet();
     }
 
+    @Override
     protected void handleEventServiceException(final Event event, final Service service, final Throwable throwable) {
         if (event.id() != EventType.EVENT_APP_UNHANDLED) {
             service.handleServiceException(event.context(), throwable);
@@ -269,6 +397,10 @@ public class Nano extends NanoServices<Nano> {
             logger.info(() -> "Stopped [{}] in [{}] with uptime [{}]", generateNanoName("%s%.0s%.0s%.0s"), NanoUtils.formatDuration(System.currentTimeMillis() - startTimeMs), NanoUtils.formatDuration(System.currentTimeMillis() - createdAtMs));
             threadPool.shutdown();
             schedulers.clear();
+            for (final Handler handler : logger.logger().getHandlers()) {
+                handler.flush();
+            }
+            closeLogFile();
         }), Nano.class.getSimpleName() + " Shutdown-Thread");
         thread.setDaemon(false); // JVM should wait until the thread is done
         thread.start();
@@ -288,6 +420,9 @@ public class Nano extends NanoServices<Nano> {
      * @return Self for chaining
      */
     public Nano printSystemInfo() {
+        // the arguments are resolved eagerly, the thread MX bean is expensive on a cold start
+        if (!logger.isLoggable(LogLevel.DEBUG))
+            return this;
         final long activeThreads = NanoThread.activeCarrierThreads();
         logger.debug(() -> "pid [{}] schedulers [{}] services [{}] listeners [{}] cores [{}] usedMemory [{}mb] threadsNano [{}], threadsActive [{}] threadsOther [{}] java [{}] arch [{}] os [{}]",
             pid(),
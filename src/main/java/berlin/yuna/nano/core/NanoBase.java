@@ -1,30 +1,47 @@
 package berlin.yuna.nano.core;
 
 import berlin.yuna.nano.core.model.Config;
+import berlin.yuna.nano.core.model.ConfigSnapshot;
 import berlin.yuna.nano.core.model.Context;
+import berlin.yuna.nano.core.model.NanoThread;
 import berlin.yuna.nano.helper.LockedBoolean;
+import berlin.yuna.nano.helper.NanoUtils;
+import berlin.yuna.nano.helper.StartupTrace;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.event.model.EventMetrics;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
 import berlin.yuna.nano.helper.logger.LogFormatRegister;
+import berlin.yuna.nano.helper.logger.LogLevelRegister;
+import berlin.yuna.nano.helper.logger.LogHandlerRegister;
 import berlin.yuna.nano.helper.logger.logic.LogQueue;
+import berlin.yuna.nano.helper.logger.logic.LogRateLimiter;
 import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import berlin.yuna.nano.helper.logger.model.LogBinaryFileHandler;
+import berlin.yuna.nano.helper.logger.model.LogFileHandler;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.LoggerLevel;
+import berlin.yuna.nano.helper.logger.model.LogRateLimit;
 import berlin.yuna.typemap.logic.ArgsDecoder;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 import static berlin.yuna.nano.helper.NanoUtils.*;
+import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOGGER_LEVEL;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOG_LEVEL;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOG_QUEUE;
+import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOG_RATE_LIMIT;
 import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
 import static java.lang.System.lineSeparator;
 import static java.util.Arrays.stream;
@@ -41,9 +58,16 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     protected final Context rootContext;
     protected final long createdAtMs;
     protected final NanoLogger logger;
+    // per instance, so the limits and call sites of another Nano in the same JVM stay untouched
+    protected final LogRateLimiter logRateLimiter = new LogRateLimiter();
     protected final Map<Integer, Set<Consumer<Event>>> listeners = new ConcurrentHashMap<>();
     protected final LockedBoolean isReady = new LockedBoolean(true);
     protected final AtomicInteger eventCount = new AtomicInteger(0);
+    protected final EventMetrics eventMetrics = new EventMetrics();
+    protected final StartupTrace startupTrace = new StartupTrace();
+    protected volatile ConfigSnapshot config;
+    // owned by this instance - null if no log file is configured or another instance writes the same file
+    protected final LogFileHandler logFile;
     @SuppressWarnings("java:S2386")
     public static final Map<Integer, String> EVENT_TYPES = new ConcurrentHashMap<>();
     public static final AtomicInteger EVENT_ID_COUNTER = new AtomicInteger(0);
@@ -59,12 +83,92 @@ public abstract class NanoBase<T extends NanoBase<T>> {
         this.rootContext = readConfigs(args);
         if (configs != null)
             configs.forEach((key, value) -> rootContext.computeIfAbsent(convertObj(key, String.class), add -> ofNullable(convertObj(value, String.class)).orElse("")));
+        this.config = ConfigSnapshot.of(rootContext);
+        final long initStartNs = System.nanoTime();
+        this.logFile = registerLogFile();
+        LogLevelRegister.registerLogLevels(rootContext);
         this.logger = new NanoLogger(this)
-            .level(rootContext.getOpt(LogLevel.class, Config.CONFIG_LOG_LEVEL.id()).orElse(LogLevel.DEBUG))
-            .formatter(rootContext.getOpt(Formatter.class, Config.CONFIG_LOG_FORMATTER.id()).orElseGet(() -> LogFormatRegister.getLogFormatter("console")));
+            .level(config.getOpt(LogLevel.class, Config.CONFIG_LOG_LEVEL).orElse(LogLevel.DEBUG))
+            .formatter(config.getOpt(Formatter.class, Config.CONFIG_LOG_FORMATTER).orElseGet(() -> LogFormatRegister.getLogFormatter("console")))
+            .rateLimiter(logRateLimiter.limit(logRateLimitOf(config)));
+        eventMetrics.enabled(config.getOpt(Boolean.class, Config.CONFIG_EVENT_METRICS).orElse(true));
+        NanoJfr.configure(config.getOpt(Boolean.class, Config.CONFIG_JFR_EVENTS).orElse(true), config.getOpt(Long.class, Config.CONFIG_JFR_THRESHOLD_MS).orElse(0L));
+        NanoUtils.callerInfoEnabled(config.getOpt(Boolean.class, Config.CONFIG_CALLER_INFO).orElse(true));
+        NanoThread.awaitTimeoutMs(config.getOpt(Long.class, Config.CONFIG_THREAD_AWAIT_TIMEOUT_MS).orElse(10_000L));
+        if (logFile == null)
+            config.getOpt(String.class, Config.CONFIG_LOG_FILE).filter(NanoUtils::hasText).ifPresent(path -> logger.warn(() -> "Log file [{}] is already written by another {}, its settings are used", path, Nano.class.getSimpleName()));
+        startupTrace.record("logger init", initStartNs);
         displayHelpMenu();
         subscribeEvent(EVENT_APP_LOG_LEVEL, event -> event.payloadOpt(LogLevel.class).or(() -> event.payloadOpt(Level.class).map(LogLevel::nanoLogLevelOf)).map(this::setLogLevel).ifPresent(nano -> event.acknowledge()));
+        subscribeEvent(EVENT_APP_LOGGER_LEVEL, event -> event.payloadOpt(LoggerLevel.class).ifPresent(level -> {
+            LogLevelRegister.registerLogLevel(level.name(), level.level());
+            event.acknowledge();
+        }));
         subscribeEvent(EVENT_APP_LOG_QUEUE, event -> event.payloadOpt(LogQueue.class).map(logger::logQueue).ifPresent(nano -> event.acknowledge()));
+        subscribeEvent(EVENT_APP_LOG_RATE_LIMIT, event -> event.payloadOpt(LogRateLimit.class).map(logRateLimiter::limit).ifPresent(limiter -> event.acknowledge()));
+    }
+
+    /**
+     * Reads the log rate limits from the configuration (see {@link Config#CONFIG_LOG_RATE_LIMIT}).
+     *
+     * @param config configuration snapshot
+     * @return the configured {@link LogRateLimit}
+     */
+    public static LogRateLimit logRateLimitOf(final ConfigSnapshot config) {
+        final double rate = config.getOpt(Double.class, Config.CONFIG_LOG_RATE_LIMIT).orElse(0d);
+        final double loggerRate = config.getOpt(Double.class, Config.CONFIG_LOG_RATE_LIMIT_LOGGER).orElse(0d);
+        return new LogRateLimit(
+            rate,
+            config.getOpt(Integer.class, Config.CONFIG_LOG_RATE_BURST).orElse((int) Math.ceil(Math.max(rate, loggerRate))),
+            loggerRate,
+            config.getOpt(Long.class, Config.CONFIG_LOG_SAMPLE_FIRST).orElse(0L),
+            config.getOpt(Long.class, Config.CONFIG_LOG_SAMPLE_EVERY).orElse(0L),
+            config.getOpt(Long.class, Config.CONFIG_LOG_RATE_SUMMARY_MS).orElse(LogRateLimit.DISABLED.summaryIntervalMs())
+        );
+    }
+
+    /**
+     * Registers the buffered {@link LogFileHandler} if a log file is configured (see {@link Config#CONFIG_LOG_FILE}).
+     * The first instance which configures a file owns its handler and closes it on shutdown, see {@link NanoBase#closeLogFile()}.
+     *
+     * @return the owned handler or null if no log file is configured or the file is already written by another instance
+     */
+    protected LogFileHandler registerLogFile() {
+        final String format = config.getOpt(String.class, Config.CONFIG_LOG_FILE_FORMAT).map(String::toLowerCase).orElse("console");
+        final Path path = config.getOpt(String.class, Config.CONFIG_LOG_FILE).filter(NanoUtils::hasText).map(Path::of).map(file -> file.toAbsolutePath().normalize()).orElse(null);
+        if (path == null)
+            return null;
+        final AtomicReference<LogFileHandler> owned = new AtomicReference<>();
+        LogHandlerRegister.getLogHandler("file:" + path, () -> {
+            final LogFileHandler handler = ("binary".equals(format) ? new LogBinaryFileHandler(path) : new LogFileHandler(path, LogFormatRegister.getLogFormatter(format)))
+                .bufferSize(config.getOpt(Integer.class, Config.CONFIG_LOG_FILE_BUFFER_SIZE).orElse(LogFileHandler.DEFAULT_BUFFER_SIZE))
+                .flushIntervalMs(config.getOpt(Long.class, Config.CONFIG_LOG_FILE_FLUSH_MS).orElse(LogFileHandler.DEFAULT_FLUSH_INTERVAL_MS))
+                .force(config.getOpt(String.class, Config.CONFIG_LOG_FILE_FORCE).map(LogFileHandler.ForcePolicy::forcePolicyOf).orElse(LogFileHandler.ForcePolicy.NEVER))
+                .maxSize(config.getOpt(Long.class, Config.CONFIG_LOG_FILE_MAX_SIZE).orElse(LogFileHandler.DEFAULT_MAX_SIZE))
+                .rotateIntervalMs(config.getOpt(Long.class, Config.CONFIG_LOG_FILE_ROTATE_MS).orElse(0L))
+                .maxHistory(config.getOpt(Integer.class, Config.CONFIG_LOG_FILE_MAX_HISTORY).orElse(LogFileHandler.DEFAULT_MAX_HISTORY));
+            owned.set(handler);
+            return handler;
+        });
+        return owned.get();
+    }
+
+    /**
+     * Unregisters, detaches and closes the owned {@link LogFileHandler}, which writes the remaining buffer.
+     */
+    protected void closeLogFile() {
+        if (logFile != null) {
+            LogHandlerRegister.LOG_HANDLERS.values().remove(logFile);
+            NanoLogger.removeHandler(logFile);
+            logFile.close();
+        }
+    }
+
+    /**
+     * @return the {@link LogFileHandler} owned by this instance or null
+     */
+    public LogFileHandler logFile() {
+        return logFile;
     }
 
     /**
@@ -126,6 +230,15 @@ public abstract class NanoBase<T extends NanoBase<T>> {
         return logger;
     }
 
+    /**
+     * Retrieves the log rate limiter of this instance, which all loggers of its contexts share.
+     *
+     * @return The {@link LogRateLimiter} for this instance.
+     */
+    public LogRateLimiter logRateLimiter() {
+        return logRateLimiter;
+    }
+
     /**
      * Retrieves the registered event listeners.
      *
@@ -202,11 +315,39 @@ public abstract class NanoBase<T extends NanoBase<T>> {
         return eventCount.get();
     }
 
+    /**
+     * Retrieves the per event type statistics of the event bus.
+     *
+     * @return The {@link EventMetrics} of this instance.
+     */
+    public EventMetrics eventMetrics() {
+        return eventMetrics;
+    }
+
+    /**
+     * Retrieves the recorded startup phases, see {@link Config#CONFIG_STARTUP_TRACE}.
+     *
+     * @return The {@link StartupTrace} of this instance.
+     */
+    public StartupTrace startupTrace() {
+        return startupTrace;
+    }
+
+    /**
+     * Retrieves the immutable configuration with memoized conversions, which is rebuilt when {@link NanoBase#setLogLevel(LogLevel)} changes the root context.
+     * Other changes of the root context are not part of the snapshot, a {@link Context} reads its own overrides with {@link Context#configOpt(Class, Config)}.
+     *
+     * @return The current {@link ConfigSnapshot}.
+     */
+    public ConfigSnapshot config() {
+        return config;
+    }
+
     /**
      * Displays a help menu with available configuration keys and their descriptions and exits.
      */
     protected void displayHelpMenu() {
-        if (rootContext.getOpt(Boolean.class, Config.APP_HELP.id()).filter(helpCalled -> helpCalled).isPresent()) {
+        if (config.getOpt(Boolean.class, Config.APP_HELP).filter(helpCalled -> helpCalled).isPresent()) {
             logger.info(() -> "Available configs keys: " + lineSeparator() + stream(Config.values()).map(config -> String.format("%-" + stream(Config.values()).map(Config::id).mapToInt(String::length).max().orElse(0) + "s  %s", config, config.description())).collect(Collectors.joining(lineSeparator())));
             System.exit(0);
         }
@@ -219,11 +360,16 @@ public abstract class NanoBase<T extends NanoBase<T>> {
      * @return The {@link Context} initialized with the configurations.
      */
     protected Context readConfigs(final String... args) {
-        final Context result = readConfigFiles(null, "");
-        System.getenv().forEach((key, value) -> addConfig(result, key, value));
-        System.getProperties().forEach((key, value) -> addConfig(result, key, value));
-        ArgsDecoder.argsOf(String.join(" ", args)).forEach((key, value) -> addConfig(result, key, value));
-        return resolvePlaceHolders(result);
+        clearConfigDirectories();
+        final Context result = startupTrace.trace("config files", () -> readConfigDirectories(Context.createRootContext(), ""));
+        startupTrace.trace("config profiles", () -> readProfiles(result));
+        startupTrace.trace("config environment", () -> {
+            System.getenv().forEach((key, value) -> addConfig(result, key, value));
+            System.getProperties().forEach((key, value) -> addConfig(result, key, value));
+            ArgsDecoder.argsOf(String.join(" ", args)).forEach((key, value) -> addConfig(result, key, value));
+            return resolvePlaceHolders(result);
+        });
+        return result;
     }
 
     /**
@@ -236,6 +382,7 @@ public abstract class NanoBase<T extends NanoBase<T>> {
     protected T setLogLevel(final LogLevel level) {
         logger.level(level);
         rootContext.put(Config.CONFIG_LOG_LEVEL.id(), level);
+        config = ConfigSnapshot.of(rootContext);
         logger.trace(() -> "New {} [{}]", LogLevel.class.getSimpleName(), level);
         return (T) this;
     }
@@ -1,16 +1,28 @@
 package berlin.yuna.nano.core;
 
 import berlin.yuna.nano.core.model.Context;
+import berlin.yuna.nano.core.model.NanoThread;
 import berlin.yuna.nano.core.model.Service;
-import berlin.yuna.nano.helper.ExRunnable;
+import berlin.yuna.nano.helper.NanoUtils;
+import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.logger.logic.LogQueue;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static berlin.yuna.nano.core.model.Config.CONFIG_PARALLEL_SHUTDOWN;
+import static berlin.yuna.nano.core.model.Config.CONFIG_SERVICE_STOP_TIMEOUT_MS;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_SERVICE_REGISTER;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_SERVICE_UNREGISTER;
 import static java.util.Collections.emptyList;
@@ -25,6 +37,8 @@ import static java.util.Collections.unmodifiableList;
 public abstract class NanoServices<T extends NanoServices<T>> extends NanoThreads<T> {
 
     protected final List<Service> services;
+    protected final Map<Integer, Set<Service>> lazyServices = new ConcurrentHashMap<>();
+    protected final Map<Service, Activation> activations = new ConcurrentHashMap<>();
 
     /**
      * Initializes {@link NanoServices} with configurations and command-line arguments.
@@ -82,22 +96,49 @@ public abstract class NanoServices<T extends NanoServices<T>> extends NanoThread
     }
 
     /**
-     * Shuts down all registered {@link Service} gracefully.
+     * Shuts down all registered {@link Service} gracefully in reverse dependency order, see {@link Service#wavesOf(java.util.Collection)}.
+     * Services of the same wave stop in parallel if {@link berlin.yuna.nano.core.model.Config#CONFIG_PARALLEL_SHUTDOWN} is enabled.
+     * The {@link LogQueue} stops last.
      *
      * @param context The {@link Context} in which the services are shut down.
      */
     protected void shutdownServices(final Context context) {
-        if (context.getOpt(Boolean.class, CONFIG_PARALLEL_SHUTDOWN.id()).orElse(false)) {
-            try {
-                context.runAwait(services.stream().map(service -> (ExRunnable) () -> unregisterService(context, service)).toArray(ExRunnable[]::new));
-            } catch (final Exception err) {
-                logger.fatal(err, () -> "[{}] shutdown error", Service.class.getSimpleName());
-                Thread.currentThread().interrupt();
+        final boolean parallel = context.configOpt(Boolean.class, CONFIG_PARALLEL_SHUTDOWN).orElse(false);
+        final long timeoutMs = context.configOpt(Long.class, CONFIG_SERVICE_STOP_TIMEOUT_MS).filter(timeout -> timeout > 0).orElse(10000L);
+        final Map<Boolean, List<Service>> partitionedServices = services.stream().collect(Collectors.partitioningBy(LogQueue.class::isInstance));
+        final List<List<Service>> waves = new ArrayList<>(Service.wavesOf(partitionedServices.get(false)));
+        Collections.reverse(waves);
+        waves.add(partitionedServices.get(true));
+        for (final List<Service> wave : waves) {
+            final List<Service> reversed = new ArrayList<>(wave);
+            Collections.reverse(reversed);
+            if (parallel) {
+                final long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                final List<NanoThread<Void>> threads = reversed.stream().map(service -> stopAsync(context, service)).toList();
+                for (int i = 0; i < threads.size(); i++)
+                    awaitStop(reversed.get(i), threads.get(i), deadlineNs, timeoutMs);
+            } else {
+                reversed.forEach(service -> awaitStop(service, stopAsync(context, service), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs), timeoutMs));
             }
-        } else {
-            final List<Service> servicesList = new ArrayList<>(services);
-            Collections.reverse(servicesList);
-            servicesList.forEach(service -> unregisterService(context, service));
+        }
+        activations.clear();
+    }
+
+    protected NanoThread<Void> stopAsync(final Context context, final Service service) {
+        return new NanoThread<Void>(context).run(threadPool, () -> context, () -> unregisterService(context, service));
+    }
+
+    protected void awaitStop(final Service service, final NanoThread<Void> thread, final long deadlineNs, final long timeoutMs) {
+        try {
+            thread.get(Math.max(0, deadlineNs - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            thread.cancel();
+            logger.warn(() -> "Stop [{}] timed out after [{}]", service.name(), NanoUtils.formatDuration(timeoutMs));
+        } catch (final ExecutionException | CancellationException e) {
+            logger.fatal(e, () -> "[{}] shutdown error", service.name());
+        } catch (final InterruptedException e) {
+            logger.fatal(e, () -> "[{}] shutdown error", Service.class.getSimpleName());
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -115,6 +156,145 @@ public abstract class NanoServices<T extends NanoServices<T>> extends NanoThread
         return (T) this;
     }
 
+    /**
+     * Registers a {@link Service#lazy()} {@link Service} which starts on the first of its {@link Service#activationEvents()}.
+     *
+     * @param service The {@link Service} to start on demand.
+     * @return Self for chaining
+     */
+    @SuppressWarnings("unchecked")
+    protected T registerLazyService(final Service service) {
+        if (service != null && service.activationEvents().isEmpty())
+            logger.warn(() -> "Lazy [{}] has no activation events and will never start", service.name());
+        else if (service != null)
+            service.activationEvents().forEach(id -> lazyServices.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(service));
+        return (T) this;
+    }
+
+    /**
+     * Provides the {@link Service}s which are waiting for their first activation event.
+     *
+     * @return An unmodifiable list of lazy {@link Service} instances.
+     */
+    public List<Service> lazyServices() {
+        return lazyServices.values().stream().flatMap(Set::stream).distinct().toList();
+    }
+
+    /**
+     * Starts the lazy {@link Service}s which wait for the event, exactly once and without blocking the dispatching thread.
+     * The activation events which arrive until the start is done are kept and sent to the service when it's ready, also the ones it sends itself while starting.
+     * A service stays lazy until it's ready, so it gets no events before and a failed start is retried on the next activation event.
+     *
+     * @param event     The {@link Event} which is sent to the service after the start.
+     * @param broadcast Whether the event is sent to all listeners, else it's only sent if it's not acknowledged yet.
+     * @return the {@link Service}s which got the event after their start and are skipped by the dispatch
+     */
+    protected List<Service> activateLazyServices(final Event event, final boolean broadcast) {
+        final Set<Service> candidates = lazyServices.isEmpty() ? null : lazyServices.get(event.id());
+        if (candidates == null)
+            return Collections.emptyList();
+        final List<Service> deferred = new ArrayList<>(candidates.size());
+        for (final Service service : candidates) {
+            final Activation activation = activationOf(service, event, broadcast);
+            if (activation == null)
+                continue;
+            deferred.add(service);
+            if (!activation.started.compareAndSet(false, true))
+                continue;
+            logger.debug(() -> "Activate lazy [{}] on [{}]", service.name(), event.name());
+            service.nanoThread(event.context().nano() != null ? event.context().nano().newContext(service.getClass()) : event.context())
+                .onComplete((thread, error) -> activated(service, activation));
+        }
+        return deferred;
+    }
+
+    /**
+     * Adds the event to the pending activation of the {@link Service} or to a new one.
+     *
+     * @param service   The lazy {@link Service}.
+     * @param event     The activation {@link Event}.
+     * @param broadcast Whether the event is sent to all listeners.
+     * @return the {@link Activation} which took the event, null if the service is ready and gets the event from the dispatch
+     */
+    protected Activation activationOf(final Service service, final Event event, final boolean broadcast) {
+        while (true) {
+            final Activation activation = activations.computeIfAbsent(service, key -> new Activation());
+            if (activation.add(event, broadcast))
+                return activation;
+            if (service.isReady())
+                return null;
+            // the start failed, the next activation starts again
+            activations.remove(service, activation);
+        }
+    }
+
+    /**
+     * Completes the start of a lazy {@link Service}: a ready service is no longer lazy and gets the kept activation events,
+     * a failed one is activated again on its next activation event.
+     *
+     * @param service    The lazy {@link Service}.
+     * @param activation The finished {@link Activation}.
+     */
+    protected void activated(final Service service, final Activation activation) {
+        final boolean ready = service.isReady();
+        if (ready) {
+            service.activationEvents().forEach(id -> lazyServices.computeIfPresent(id, (key, waiting) -> {
+                waiting.remove(service);
+                return waiting.isEmpty() ? null : waiting;
+            }));
+        }
+        final List<Activation.Pending> pending = activation.finish();
+        activations.remove(service, activation);
+        if (ready) {
+            pending.stream().filter(entry -> entry.broadcast() || !entry.event().isAcknowledged()).forEach(entry ->
+                Context.tryExecute(() -> service.onEvent(entry.event()), throwable -> handleEventServiceException(entry.event(), service, throwable))
+            );
+        }
+    }
+
+    /**
+     * Checks if a lazy {@link Service} is starting, it gets the events which arrive meanwhile after the start.
+     *
+     * @param service The {@link Service} to check.
+     * @return <code>true</code> while the lazy service starts
+     */
+    public boolean isActivating(final Service service) {
+        if (activations.isEmpty())
+            return false;
+        final Activation activation = activations.get(service);
+        return activation != null && !activation.isDone();
+    }
+
+    protected abstract void handleEventServiceException(final Event event, final Service service, final Throwable throwable);
+
+    /**
+     * Start of a lazy {@link Service} with the activation events which arrived until the start was done.
+     */
+    protected static class Activation {
+        protected final AtomicBoolean started = new AtomicBoolean();
+        protected final List<Pending> pending = new ArrayList<>();
+        protected boolean done;
+
+        protected synchronized boolean add(final Event event, final boolean broadcast) {
+            if (done)
+                return false;
+            pending.add(new Pending(event, broadcast));
+            return true;
+        }
+
+        protected synchronized List<Pending> finish() {
+            done = true;
+            return List.copyOf(pending);
+        }
+
+        protected synchronized boolean isDone() {
+            return done;
+        }
+
+        protected record Pending(Event event, boolean broadcast) {
+        }
+    }
+
     /**
      * Unregisters a {@link Service} from the {@link Nano} framework and stops it.
      *
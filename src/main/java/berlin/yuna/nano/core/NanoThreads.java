@@ -1,15 +1,23 @@
 package berlin.yuna.nano.core;
 
+import berlin.yuna.nano.core.model.Bulkhead;
+import berlin.yuna.nano.core.model.OrderedExecutor;
 import berlin.yuna.nano.core.model.Scheduler;
 import berlin.yuna.nano.helper.ExRunnable;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
+import berlin.yuna.nano.helper.jfr.model.JfrSchedulerRun;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.function.BooleanSupplier;
 
+import static berlin.yuna.nano.core.model.Config.CONFIG_CPU_POOL_PARALLELISM;
+import static berlin.yuna.nano.core.model.Config.CONFIG_EXECUTOR_MAX_QUEUE;
+import static berlin.yuna.nano.core.model.Config.CONFIG_ORDERED_MAX_DEPTH;
 import static berlin.yuna.nano.core.model.Config.CONFIG_THREAD_POOL_TIMEOUT_MS;
 import static berlin.yuna.nano.core.model.NanoThread.activeNanoThreads;
 import static berlin.yuna.nano.helper.NanoUtils.callerInfoStr;
@@ -26,6 +34,9 @@ import static java.util.Collections.unmodifiableSet;
 public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T> {
 
     protected final Set<ScheduledExecutorService> schedulers;
+    protected final Map<String, Bulkhead> executors = new ConcurrentHashMap<>();
+    protected final ForkJoinPool cpuPool;
+    protected final OrderedExecutor ordered;
     protected final ExecutorService threadPool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("nano-thread-", 0).factory());
 
     /**
@@ -37,6 +48,8 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
     protected NanoThreads(final Map<Object, Object> config, final String... args) {
         super(config, args);
         this.schedulers = ConcurrentHashMap.newKeySet();
+        this.ordered = new OrderedExecutor(threadPool, this.config.getOpt(Integer.class, CONFIG_ORDERED_MAX_DEPTH).orElse(1024));
+        this.cpuPool = new ForkJoinPool(this.config.getOpt(Integer.class, CONFIG_CPU_POOL_PARALLELISM).filter(parallelism -> parallelism > 0).orElse(Runtime.getRuntime().availableProcessors()), NanoThreads::cpuWorker, null, false);
         subscribeEvent(EVENT_APP_SCHEDULER_REGISTER, event -> event.payloadOpt(ScheduledExecutorService.class).map(schedulers::add).ifPresent(nano -> event.acknowledge()));
         subscribeEvent(EVENT_APP_SCHEDULER_UNREGISTER, event -> event.payloadOpt(ScheduledExecutorService.class).map(scheduler -> {
             scheduler.shutdown();
@@ -54,6 +67,56 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
         return !threadPool.isTerminated() && !threadPool.isShutdown() ? threadPool : null;
     }
 
+    /**
+     * Gets the work stealing pool for CPU bound tasks, which would block the carrier threads of the virtual threads.
+     *
+     * @return The {@link ForkJoinPool} sized to the available processors.
+     */
+    public ForkJoinPool cpuPool() {
+        return cpuPool;
+    }
+
+    /**
+     * Gets the executor which runs the tasks of the same key in order, see {@link berlin.yuna.nano.core.model.Context#runOrdered(Object, ExRunnable)}.
+     *
+     * @return The {@link OrderedExecutor} on the {@link NanoThreads#threadPool()}.
+     */
+    public OrderedExecutor ordered() {
+        return ordered;
+    }
+
+    /**
+     * Provides a named {@link Bulkhead} which limits the concurrent tasks, see {@link NanoThreads#executor(String, int, int, Bulkhead.RejectionPolicy)}.
+     *
+     * @param name          name of the executor e.g. "db"
+     * @param maxConcurrent maximum of concurrent running tasks
+     * @return the {@link Bulkhead} of the name
+     */
+    public Bulkhead executor(final String name, final int maxConcurrent) {
+        return executor(name, maxConcurrent, config.getOpt(Integer.class, CONFIG_EXECUTOR_MAX_QUEUE).orElse(1024), Bulkhead.RejectionPolicy.ABORT);
+    }
+
+    /**
+     * Provides a named {@link Bulkhead} which runs its tasks on the {@link NanoThreads#threadPool()}.
+     * The first call of a name defines the limits, later calls return the same {@link Bulkhead}.
+     *
+     * @param name          name of the executor e.g. "db"
+     * @param maxConcurrent maximum of concurrent running tasks
+     * @param maxQueue      maximum of waiting tasks
+     * @param policy        handling of tasks when the queue is full
+     * @return the {@link Bulkhead} of the name
+     */
+    public Bulkhead executor(final String name, final int maxConcurrent, final int maxQueue, final Bulkhead.RejectionPolicy policy) {
+        return executors.computeIfAbsent(name, key -> new Bulkhead(key, maxConcurrent, maxQueue, policy, threadPool));
+    }
+
+    /**
+     * @return an unmodifiable map of the {@link Bulkhead}s by name
+     */
+    public Map<String, Bulkhead> executors() {
+        return Collections.unmodifiableMap(executors);
+    }
+
     /**
      * Provides an unmodifiable set of {@link ScheduledExecutorService}.
      *
@@ -130,9 +193,13 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
      * Shuts down all threads and scheduled executors gracefully.
      */
     protected void shutdownThreads() {
-        final long timeoutMs = rootContext.getOpt(Long.class, CONFIG_THREAD_POOL_TIMEOUT_MS.id()).filter(l -> l > 0).orElse(500L);
+        final long timeoutMs = config.getOpt(Long.class, CONFIG_THREAD_POOL_TIMEOUT_MS).filter(l -> l > 0).orElse(500L);
         logger.debug(() -> "Shutdown schedulers [{}]", schedulers.size());
         shutdownExecutors(timeoutMs, schedulers.toArray(ScheduledExecutorService[]::new));
+        logger.debug(() -> "Shutdown executors [{}]", executors.size());
+        shutdownExecutors(timeoutMs, executors.values().toArray(ExecutorService[]::new));
+        executors.clear();
+        shutdownExecutors(timeoutMs, cpuPool);
         logger.debug(() -> "Shutdown {} [{}]", threadPool.getClass().getSimpleName(), activeNanoThreads());
         shutdownExecutors(timeoutMs, threadPool);
     }
@@ -186,14 +253,30 @@ public abstract class NanoThreads<T extends NanoThreads<T>> extends NanoBase<T>
         }
     }
 
+    protected static ForkJoinWorkerThread cpuWorker(final ForkJoinPool pool) {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("nano-cpu-" + thread.getPoolIndex());
+        return thread;
+    }
+
     protected void executeScheduler(final ExRunnable task, final Scheduler scheduler, final boolean periodically) {
+        final JfrSchedulerRun jfr = NanoJfr.begin(JfrSchedulerRun::new);
+        boolean success = false;
         try {
             task.run();
+            success = true;
             if (!periodically)
                 sendEvent(EVENT_APP_SCHEDULER_UNREGISTER, newContext(this.getClass()), scheduler, result -> {}, true);
         } catch (final Exception e) {
             sendEvent(EVENT_APP_SCHEDULER_UNREGISTER, newContext(this.getClass()), scheduler, result -> {}, true);
             newContext(this.getClass()).sendEventError(scheduler, e, () -> "Execution error scheduler [{}]");
+        } finally {
+            if (NanoJfr.shouldCommit(jfr)) {
+                jfr.scheduler = scheduler.id();
+                jfr.periodic = periodically;
+                jfr.success = success;
+                jfr.commit();
+            }
         }
     }
 
@@ -0,0 +1,247 @@
+package berlin.yuna.nano.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link ExecutorService} which limits the concurrent tasks of a name e.g. "db", so one service can't exhaust the memory or
+ * downstream connection pools of the others. Tasks run on the delegate executor (virtual threads by default) while a permit is free,
+ * wait in a bounded queue otherwise and are handled by the {@link RejectionPolicy} when the queue is full.
+ * <p>
+ * Queue and permits are lock-free. {@link Bulkhead#shutdownNow()} returns the queued tasks but can't interrupt running ones.
+ * Discarded and dropped {@link Future}s are cancelled, so nobody waits for them.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class Bulkhead extends AbstractExecutorService {
+
+    public enum RejectionPolicy {
+        // throws a RejectedExecutionException
+        ABORT,
+        // runs the task on the calling thread, throws like ABORT after shutdown
+        CALLER_RUNS,
+        // drops the task silently, futures are cancelled
+        DISCARD
+    }
+
+    protected final String name;
+    protected final int maxConcurrent;
+    protected final int maxQueue;
+    protected final RejectionPolicy policy;
+    protected final ExecutorService delegate;
+    protected final Semaphore permits;
+    protected final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    protected final AtomicInteger queued = new AtomicInteger();
+    protected final AtomicInteger maxActive = new AtomicInteger();
+    protected final LongAdder completed = new LongAdder();
+    protected final LongAdder rejected = new LongAdder();
+    protected final CompletableFuture<Void> terminated = new CompletableFuture<>();
+    protected volatile boolean shutdown;
+
+    /**
+     * @param name          name of the bulkhead e.g. "db"
+     * @param maxConcurrent maximum of concurrent running tasks
+     * @param maxQueue      maximum of waiting tasks, 0 = no waiting
+     * @param policy        handling of tasks when all permits are used and the queue is full
+     * @param delegate      executor which runs the tasks, null = {@link NanoThread#VIRTUAL_THREAD_POOL}
+     */
+    public Bulkhead(final String name, final int maxConcurrent, final int maxQueue, final RejectionPolicy policy, final ExecutorService delegate) {
+        if (maxConcurrent < 1)
+            throw new IllegalArgumentException("Bulkhead [" + name + "] requires at least one concurrent task");
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.policy = policy == null ? RejectionPolicy.ABORT : policy;
+        this.delegate = delegate == null ? NanoThread.VIRTUAL_THREAD_POOL : delegate;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int maxQueue() {
+        return maxQueue;
+    }
+
+    public RejectionPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @return number of running tasks
+     */
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return highest number of concurrent running tasks
+     */
+    public int maxActive() {
+        return maxActive.get();
+    }
+
+    /**
+     * @return number of waiting tasks
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    public long completed() {
+        return completed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return used permits and queue slots between 0 and 1, 1 = new tasks are rejected
+     */
+    public double saturation() {
+        return (double) (active() + queued()) / (maxConcurrent + maxQueue);
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        if (shutdown) {
+            reject(task);
+        } else if (permits.tryAcquire()) {
+            dispatch(task);
+        } else if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            reject(task);
+        } else {
+            queue.offer(task);
+            // a permit could have been released before the task was queued
+            drain();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        tryTerminate();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final List<Runnable> result = new ArrayList<>();
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            queued.decrementAndGet();
+            result.add(task);
+        }
+        tryTerminate();
+        return result;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.isDone();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        try {
+            terminated.get(timeout, unit);
+            return true;
+        } catch (final ExecutionException | TimeoutException ignored) {
+            return false;
+        }
+    }
+
+    protected void dispatch(final Runnable task) {
+        maxActive.accumulateAndGet(active(), Math::max);
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    completed.increment();
+                    permits.release();
+                    drain();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            permits.release();
+            reject(task);
+        }
+    }
+
+    protected void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            final Runnable next = queue.poll();
+            if (next == null) {
+                permits.release();
+            } else {
+                queued.decrementAndGet();
+                try {
+                    dispatch(next);
+                } catch (final RejectedExecutionException ignored) {
+                    // runs on a finishing worker without a caller to throw to, already counted by reject
+                    cancel(next);
+                }
+            }
+        }
+        tryTerminate();
+    }
+
+    protected void reject(final Runnable task) {
+        rejected.increment();
+        switch (policy) {
+            case CALLER_RUNS -> {
+                // a shut down bulkhead doesn't run tasks anymore, so the caller has to know
+                if (shutdown)
+                    throw rejectedException();
+                task.run();
+            }
+            // a dropped future would never complete otherwise
+            case DISCARD -> cancel(task);
+            default -> throw rejectedException();
+        }
+    }
+
+    protected RejectedExecutionException rejectedException() {
+        return new RejectedExecutionException("Bulkhead [" + name + "] is " + (shutdown ? "shut down" : "saturated") + " active [" + active() + "] queued [" + queued() + "]");
+    }
+
+    protected static void cancel(final Runnable task) {
+        if (task instanceof final Future<?> future)
+            future.cancel(false);
+    }
+
+    protected void tryTerminate() {
+        if (shutdown && queue.isEmpty() && permits.availablePermits() == maxConcurrent)
+            terminated.complete(null);
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" +
+            "name='" + name + '\'' +
+            ", active=" + active() +
+            ", maxConcurrent=" + maxConcurrent +
+            ", queued=" + queued() +
+            ", maxQueue=" + maxQueue +
+            ", rejected=" + rejected() +
+            ", policy=" + policy +
+            '}';
+    }
+}
@@ -1,12 +1,23 @@
 package berlin.yuna.nano.core.model;
 
+import berlin.yuna.nano.core.Nano;
 import berlin.yuna.nano.core.NanoServices;
 import berlin.yuna.nano.core.NanoThreads;
+import berlin.yuna.nano.helper.NanoUtils;
+import berlin.yuna.nano.helper.StartupTrace;
+import berlin.yuna.nano.helper.event.model.EventMetrics;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
+import berlin.yuna.nano.helper.jfr.VirtualThreadEvents;
 import berlin.yuna.nano.helper.logger.LogFormatRegister;
+import berlin.yuna.nano.helper.logger.logic.LogBinaryDecoder;
 import berlin.yuna.nano.helper.logger.logic.LogQueue;
+import berlin.yuna.nano.helper.logger.logic.LogRateLimiter;
+import berlin.yuna.nano.helper.logger.model.LogBinaryFileHandler;
+import berlin.yuna.nano.helper.logger.model.LogFileHandler;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 import berlin.yuna.nano.services.http.HttpService;
 import berlin.yuna.nano.services.http.logic.HttpClient;
+import berlin.yuna.nano.services.metric.model.MetricCache;
 
 /**
  * Configuration keys enumeration to control various aspects of the NanoThreads framework.
@@ -18,11 +29,39 @@ public enum Config {
     APP_PARAMS("app_params_print", "Pints all config values"),
     CONFIG_APP_NAME("app_name", "Changes the name in the log output"), // TODO: implement this
     CONFIG_PROFILES("app_profiles", "Active config profiles for the application"),
-    CONFIG_LOG_LEVEL("app_log_level", "Log level for the application (see " + LogLevel.class.getSimpleName() + ")"),
+    CONFIG_LOG_LEVEL("app_log_level", "Log level for the application, use app_log_level_<package or class> for specific loggers (see " + LogLevel.class.getSimpleName() + ")"),
     CONFIG_LOG_FORMATTER("app_log_formatter", "Log formatter (see " + LogFormatRegister.class.getSimpleName() + ")"),
     CONFIG_LOG_QUEUE_SIZE("app_log_queue_size", "Log queue size. A full queue means that log messages will start to wait to be executed (see " + LogQueue.class.getSimpleName() + ")"),
+    CONFIG_LOG_QUEUE_POLICY("app_log_queue_policy", "Policy for a full log queue [block, drop_newest, drop_below_level, caller_runs]. Default `block` (see " + LogQueue.class.getSimpleName() + ")"),
+    CONFIG_LOG_QUEUE_DROP_LEVEL("app_log_queue_drop_level", "Messages below this level are dropped on a full log queue with the policy `drop_below_level`. Default `warn` (see " + LogQueue.class.getSimpleName() + ")"),
+    CONFIG_LOG_RATE_LIMIT("app_log_rate_limit", "Maximum log messages per second per call site. Default 0 = unlimited (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_RATE_BURST("app_log_rate_burst", "Maximum burst of log messages per call site and logger. Default = rate limit (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_RATE_LIMIT_LOGGER("app_log_rate_limit_logger", "Maximum log messages per second per logger. Default 0 = unlimited (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_SAMPLE_FIRST("app_log_sample_first", "Logs only the first N messages per call site and summary interval. Default 0 = disabled (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_SAMPLE_EVERY("app_log_sample_every", "Logs every Mth message per call site after the first N messages. Default 0 = none (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_RATE_SUMMARY_MS("app_log_rate_summary_ms", "Interval in milliseconds to log the number of suppressed messages. Default `10000` (see " + LogRateLimiter.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE("app_log_file", "Path of a log file, enables the buffered file appender next to the console (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_FORMAT("app_log_file_format", "Format of the log file [console, json, binary]. `binary` is decoded with " + LogBinaryDecoder.class.getSimpleName() + ". Default `console` (see " + LogBinaryFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_BUFFER_SIZE("app_log_file_buffer_size", "Write buffer size of the log file in bytes. Default `262144` (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_FLUSH_MS("app_log_file_flush_ms", "Interval in milliseconds to write the buffer to the log file. Default `1000` (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_FORCE("app_log_file_force", "Forces the log file to the storage device [never, flush, rotate]. Default `never` (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_MAX_SIZE("app_log_file_max_size", "Rotates the log file when it exceeds the size in bytes. Default `104857600`, 0 = disabled (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_ROTATE_MS("app_log_file_rotate_ms", "Rotates the log file after the given milliseconds. Default 0 = disabled (see " + LogFileHandler.class.getSimpleName() + ")"),
+    CONFIG_LOG_FILE_MAX_HISTORY("app_log_file_max_history", "Number of rotated and compressed log files to keep. Default `10` (see " + LogFileHandler.class.getSimpleName() + ")"),
     CONFIG_THREAD_POOL_TIMEOUT_MS("app_thread_pool_shutdown_timeout_ms", "Timeout for thread pool shutdown in milliseconds (see " + NanoThreads.class.getSimpleName() + ")"),
+    CONFIG_THREAD_AWAIT_TIMEOUT_MS("app_thread_await_timeout_ms", "Timeout in milliseconds to wait for threads before the pending threads are reported, limited by the deadline of an enclosing scope. Default `10000` (see " + NanoThread.class.getSimpleName() + ")"),
+    CONFIG_CPU_POOL_PARALLELISM("app_cpu_pool_parallelism", "Number of worker threads of the work stealing pool for CPU bound tasks. Default = available processors (see " + NanoThreads.class.getSimpleName() + ")"),
+    CONFIG_EXECUTOR_MAX_QUEUE("app_executor_max_queue", "Default maximum of waiting tasks of a named executor before tasks are rejected. Default `1024` (see " + Bulkhead.class.getSimpleName() + ")"),
+    CONFIG_ORDERED_MAX_DEPTH("app_ordered_max_depth", "Maximum of pending tasks per key of Context.runOrdered before tasks are rejected. Default `1024` (see " + OrderedExecutor.class.getSimpleName() + ")"),
+    CONFIG_EVENT_METRICS("app_event_metrics", "Enable or disable the per event type statistics (see " + EventMetrics.class.getSimpleName() + "). Default `true`"),
+    CONFIG_JFR_EVENTS("app_jfr_events", "Enable or disable the JDK Flight Recorder events of Nano (see " + NanoJfr.class.getSimpleName() + "). Events are only recorded while a recording is running. Default `true`"),
+    CONFIG_JFR_THRESHOLD_MS("app_jfr_threshold_ms", "Minimum duration in milliseconds of a JDK Flight Recorder event to be recorded (see " + NanoJfr.class.getSimpleName() + "). Default `0`"),
+    CONFIG_CALLER_INFO("app_caller_info", "Resolves the calling class and line for scheduler ids and thread names (see " + NanoUtils.class.getSimpleName() + "). Default `true`"),
     CONFIG_PARALLEL_SHUTDOWN("app_service_shutdown_parallel", "Enable or disable parallel service shutdown (see " + NanoServices.class.getSimpleName() + "). Enabled = Can increase the shutdown performance on`true`"),
+    CONFIG_SERVICE_STOP_TIMEOUT_MS("app_service_stop_timeout_ms", "Timeout in milliseconds to wait for a service to stop before the shutdown continues. Default `10000` (see " + NanoServices.class.getSimpleName() + ")"),
+    CONFIG_STARTUP_TRACE("app_startup_trace", "Log the time of every startup phase on INFO instead of DEBUG. Default `false` (see " + StartupTrace.class.getSimpleName() + ")"),
+    CONFIG_CDS_TRAINING("app_cds_training", "Training run for a class data sharing archive: starts, calls the services and http paths once and stops. Run with `-XX:ArchiveClassesAtExit=app.jsa`, start later with `-XX:SharedArchiveFile=app.jsa`. Default `false` (see " + Nano.class.getSimpleName() + ")"),
+    CONFIG_CDS_TRAINING_PATHS("app_cds_training_paths", "Comma separated paths which are called on the own http service in the training run. Default `/` (see " + Nano.class.getSimpleName() + ")"),
 
     // ########## DEFAULT SERVICES ##########
     CONFIG_SERVICE_HTTP_PORT("app_service_http_port", "Default port for the HTTP service (see " + HttpService.class.getSimpleName() + ")"),
@@ -37,7 +76,12 @@ public enum Config {
     CONFIG_METRIC_SERVICE_PROMETHEUS_PATH("app_service_prometheus_metrics_url", "Prometheus path for the metric service"),
     CONFIG_METRIC_SERVICE_INFLUX_PATH("app_service_influx_metrics_url", "Influx path for the metric service"),
     CONFIG_METRIC_SERVICE_WAVEFRONT_PATH("app_service_wavefront_metrics_url", "Wavefront path for the metric service"),
-    CONFIG_METRIC_SERVICE_DYNAMO_PATH("app_service_dynamo_metrics_url", "Dynamo path for the metric service");
+    CONFIG_METRIC_SERVICE_DYNAMO_PATH("app_service_dynamo_metrics_url", "Dynamo path for the metric service"),
+    CONFIG_METRIC_SERVICE_MAX_SERIES("app_service_metrics_max_series", "Maximum series (tag combinations) per metric name, further series are collected in an overflow series. Default 1000, 0 = unlimited (see " + MetricCache.class.getSimpleName() + ")"),
+    CONFIG_METRIC_SERVICE_SERIES_TTL_MS("app_service_metrics_series_ttl_ms", "Removes series which were not updated within the given milliseconds. Default 0 = disabled (see " + MetricCache.class.getSimpleName() + ")"),
+    CONFIG_METRIC_SERVICE_VIRTUAL_THREAD_EVENTS("app_service_metrics_virtual_thread_events", "Streams the JDK Flight Recorder events of pinned virtual threads and failed virtual thread submits into the metrics. Default `false` (see " + VirtualThreadEvents.class.getSimpleName() + ")"),
+    CONFIG_METRIC_SERVICE_PINNED_THRESHOLD_MS("app_service_metrics_pinned_threshold_ms", "Minimum duration in milliseconds of a pinned virtual thread to be recorded. Default `20` (see " + VirtualThreadEvents.class.getSimpleName() + ")"),
+    CONFIG_METRIC_SERVICE_PINNED_SUMMARY_MS("app_service_metrics_pinned_summary_ms", "Interval in milliseconds of the WARN summary of the sites which pinned virtual threads. Default `60000`, 0 = disabled (see " + VirtualThreadEvents.class.getSimpleName() + ")");
 
     private final String id;
     private final String description;
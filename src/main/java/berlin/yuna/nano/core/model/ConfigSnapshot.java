@@ -0,0 +1,145 @@
+package berlin.yuna.nano.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static berlin.yuna.nano.core.NanoBase.standardiseKey;
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+
+/**
+ * An immutable copy of the configuration, built once after the configs are read and the placeholders are resolved.
+ * <p>
+ * A {@link Context} converts the stored string on every read. The snapshot converts a value once per type and serves it from a memo,
+ * so repeated reads e.g. in constructors of clients or while the shutdown are map lookups. Values of {@link Config} keys are indexed by
+ * their ordinal, other keys are standardised (see {@link berlin.yuna.nano.core.NanoBase#standardiseKey(Object)}) and interned.
+ * Only present keys are memoized, so the memo is bounded by the configured keys and the requested types.
+ * </p>
+ */
+public class ConfigSnapshot {
+
+    protected static final Config[] CONFIGS = Config.values();
+    protected final Map<String, Object> values;
+    protected final Object[] raw = new Object[CONFIGS.length];
+    // converted values per type and ordinal, null if the config is missing
+    protected final List<Map<Class<?>, Optional<?>>> typed = new ArrayList<>(Collections.nCopies(CONFIGS.length, null));
+    // converted values per type and key, only keys of the values
+    protected final Map<String, Map<Class<?>, Optional<?>>> memo;
+
+    /**
+     * @param configs configuration e.g. the root {@link Context}
+     * @return a new snapshot of the current values
+     */
+    public static ConfigSnapshot of(final Map<?, ?> configs) {
+        return new ConfigSnapshot(configs);
+    }
+
+    protected ConfigSnapshot(final Map<?, ?> configs) {
+        final Map<String, Object> result = new HashMap<>();
+        if (configs != null) {
+            configs.forEach((key, value) -> {
+                final String id = standardiseKey(key);
+                if (id != null && value != null)
+                    result.putIfAbsent(id.intern(), value);
+            });
+            // contexts store the config under its id, the same instance allows to reuse the memo for their reads
+            for (final Config config : CONFIGS) {
+                raw[config.ordinal()] = configs.get(config.id());
+                if (raw[config.ordinal()] != null)
+                    typed.set(config.ordinal(), new ConcurrentHashMap<>(4));
+            }
+        }
+        final Map<String, Map<Class<?>, Optional<?>>> memoByKey = new HashMap<>();
+        result.keySet().forEach(id -> memoByKey.put(id, new ConcurrentHashMap<>(4)));
+        this.values = Collections.unmodifiableMap(result);
+        this.memo = Collections.unmodifiableMap(memoByKey);
+    }
+
+    /**
+     * @param type   target type
+     * @param config config key
+     * @param <T>    target type
+     * @return the converted value
+     */
+    public <T> Optional<T> getOpt(final Class<T> type, final Config config) {
+        return getOpt(type, config, raw[config.ordinal()]);
+    }
+
+    /**
+     * Converts the value of a caller e.g. a {@link Context} which can overwrite configs.
+     * The memo is only used while the value is the same instance as in the snapshot.
+     *
+     * @param type   target type
+     * @param config config key
+     * @param value  current value of the caller
+     * @param <T>    target type
+     * @return the converted value
+     */
+    public <T> Optional<T> getOpt(final Class<T> type, final Config config, final Object value) {
+        if (value != raw[config.ordinal()])
+            return Optional.ofNullable(convertObj(value, type));
+        return convert(typed.get(config.ordinal()), type, value);
+    }
+
+    /**
+     * @param type target type
+     * @param key  config key, which is standardised e.g. <code>app.log.level</code> = <code>app_log_level</code>
+     * @param <T>  target type
+     * @return the converted value
+     */
+    public <T> Optional<T> getOpt(final Class<T> type, final String key) {
+        final String id = values.containsKey(key) ? key : standardiseKey(key);
+        return id == null ? Optional.empty() : convert(memo.get(id), type, values.get(id));
+    }
+
+    /**
+     * @param type   target type
+     * @param config config key
+     * @param <T>    target type
+     * @return the converted value or null
+     */
+    public <T> T get(final Class<T> type, final Config config) {
+        return getOpt(type, config).orElse(null);
+    }
+
+    /**
+     * @param config config key
+     * @return true if the config has a value
+     */
+    public boolean has(final Config config) {
+        return raw[config.ordinal()] != null;
+    }
+
+    /**
+     * @return unmodifiable raw values with standardised keys
+     */
+    public Map<String, Object> values() {
+        return values;
+    }
+
+    /**
+     * @return number of configured keys
+     */
+    public int size() {
+        return values.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T> Optional<T> convert(final Map<Class<?>, Optional<?>> cache, final Class<T> type, final Object value) {
+        if (cache == null)
+            return Optional.empty();
+        final Optional<?> cached = cache.get(type);
+        return (Optional<T>) (cached != null ? cached : cache.computeIfAbsent(type, key -> Optional.ofNullable(convertObj(value, type))));
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigSnapshot{" +
+            "size=" + values.size() +
+            '}';
+    }
+}
@@ -6,17 +6,22 @@ import berlin.yuna.nano.helper.event.EventTypeRegister;
 import berlin.yuna.nano.helper.event.model.Event;
 import berlin.yuna.nano.helper.logger.LogFormatRegister;
 import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 import berlin.yuna.nano.services.http.model.ContentType;
 import berlin.yuna.nano.services.http.model.HttpMethod;
 import berlin.yuna.typemap.model.ConcurrentTypeMap;
 import berlin.yuna.typemap.model.TypeList;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Formatter;
 import java.util.stream.Collectors;
@@ -24,6 +29,7 @@ import java.util.stream.Collectors;
 import static berlin.yuna.nano.core.model.Service.threadsOf;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_UNHANDLED;
 import static berlin.yuna.typemap.config.TypeConversionRegister.registerTypeConvert;
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
 import static java.net.http.HttpClient.Version.HTTP_1_1;
 import static java.net.http.HttpClient.Version.HTTP_2;
 import static java.util.Arrays.stream;
@@ -34,6 +40,8 @@ public class Context extends ConcurrentTypeMap {
 
     public static final String CONTEXT_TRACE_ID_KEY = "app_core_context_trace_id";
     public static final String CONTEXT_LOGGER_KEY = "app_core_context_logger";
+    // runOrdered without Nano
+    protected static final OrderedExecutor DEFAULT_ORDERED = new OrderedExecutor(null, 1024);
 
     static {
         registerTypeConvert(String.class, Formatter.class, LogFormatRegister::getLogFormatter);
@@ -55,6 +63,8 @@ public class Context extends ConcurrentTypeMap {
     }
 
     private final transient Nano nano;
+    // diagnostic context of the last created logger, the trace id doesn't change after construction
+    private transient volatile LogContext logContext;
 
     /**
      * Creates a new root context with a unique trace ID.
@@ -86,6 +96,20 @@ public class Context extends ConcurrentTypeMap {
         return nano;
     }
 
+    /**
+     * Retrieves a config with the memoized conversion of {@link Nano#config()}.
+     * Configs which were overwritten in this context are converted like {@link Context#getOpt(Class, Object...)}.
+     *
+     * @param type   The target type of the config value.
+     * @param config The config key.
+     * @param <T>    The target type of the config value.
+     * @return The converted config value of this context.
+     */
+    public <T> Optional<T> configOpt(final Class<T> type, final Config config) {
+        final Object value = get(config.id());
+        return nano != null && nano.config() != null ? nano.config().getOpt(type, config, value) : ofNullable(convertObj(value, type));
+    }
+
     /**
      * Retrieves the last created trace ID of the context.
      *
@@ -257,7 +281,7 @@ public class Context extends ConcurrentTypeMap {
     public Context logger(final Class<?> clazz) {
         final NanoLogger logger = new NanoLogger(clazz);
         final NanoLogger coreLogger = nano == null ? logger : nano.logger();
-        logger.level(coreLogger.level()).logQueue(coreLogger.logQueue()).formatter(coreLogger.formatter());
+        logger.level(coreLogger.level()).logQueue(coreLogger.logQueue()).rateLimiter(coreLogger.rateLimiter()).formatter(coreLogger.formatter()).logContext(logContextOf(clazz));
         put(CONTEXT_LOGGER_KEY, logger);
         return this;
     }
@@ -271,11 +295,97 @@ public class Context extends ConcurrentTypeMap {
     public NanoLogger loggerReturn(final Class<?> clazz) {
         final NanoLogger coreLogger = nano().logger();
         final NanoLogger logger = new NanoLogger(clazz);
-        logger.level(coreLogger.level()).logQueue(coreLogger.logQueue()).formatter(coreLogger.formatter());
+        logger.level(coreLogger.level()).logQueue(coreLogger.logQueue()).rateLimiter(coreLogger.rateLimiter()).formatter(coreLogger.formatter()).logContext(logContextOf(clazz));
         put(CONTEXT_LOGGER_KEY, logger);
         return logger;
     }
 
+    /**
+     * Provides the diagnostic context for a new logger of this context.
+     * The service is inherited from the previous logger. The context is built once per {@link Context} and only replaced when a {@link Service} logger changes the service.
+     *
+     * @param clazz The class of the new logger.
+     * @return The {@link LogContext} for the new logger.
+     */
+    protected LogContext logContextOf(final Class<?> clazz) {
+        LogContext result = logContext;
+        if (result == null)
+            result = new LogContext(traceId(), getOpt(NanoLogger.class, CONTEXT_LOGGER_KEY).map(NanoLogger::logContext).map(LogContext::service).orElse(null));
+        if (clazz != null && Service.class.isAssignableFrom(clazz) && !clazz.getSimpleName().equals(result.service()))
+            result = result.service(clazz.getSimpleName());
+        logContext = result;
+        return result;
+    }
+
+    /**
+     * Provides a named executor which limits the concurrent tasks e.g. <code>context.executor("db", 64)</code>.
+     * Tasks beyond the limit wait in a bounded queue, which size is configured by {@link Config#CONFIG_EXECUTOR_MAX_QUEUE}.
+     * Without {@link Nano} every call creates a new unregistered {@link Bulkhead}.
+     *
+     * @param name          name of the executor
+     * @param maxConcurrent maximum of concurrent running tasks
+     * @return the {@link Bulkhead} of the name
+     */
+    public Bulkhead executor(final String name, final int maxConcurrent) {
+        return nano == null ? new Bulkhead(name, maxConcurrent, configOpt(Integer.class, Config.CONFIG_EXECUTOR_MAX_QUEUE).orElse(1024), Bulkhead.RejectionPolicy.ABORT, null) : nano.executor(name, maxConcurrent);
+    }
+
+    /**
+     * Provides a named executor which limits the concurrent tasks, see {@link Nano#executor(String, int, int, Bulkhead.RejectionPolicy)}.
+     *
+     * @param name          name of the executor
+     * @param maxConcurrent maximum of concurrent running tasks
+     * @param maxQueue      maximum of waiting tasks
+     * @param policy        handling of tasks when the queue is full
+     * @return the {@link Bulkhead} of the name
+     */
+    public Bulkhead executor(final String name, final int maxConcurrent, final int maxQueue, final Bulkhead.RejectionPolicy policy) {
+        return nano == null ? new Bulkhead(name, maxConcurrent, maxQueue, policy, null) : nano.executor(name, maxConcurrent, maxQueue, policy);
+    }
+
+    /**
+     * Transforms the items in parallel on the CPU pool of {@link Nano} or the common {@link ForkJoinPool} without {@link Nano}.
+     * Meant for CPU bound work, which would block the carrier threads of virtual threads. The results keep the order of the items.
+     *
+     * @param items    items to transform
+     * @param function transformation
+     * @param <I>      item type
+     * @param <R>      result type
+     * @return results in the order of the items
+     */
+    public <I, R> List<R> parallel(final Collection<I> items, final Function<? super I, ? extends R> function) {
+        return parallel(items, function, 0, true);
+    }
+
+    /**
+     * Transforms the items in parallel, see {@link Context#parallel(Collection, Function)}.
+     *
+     * @param items       items to transform
+     * @param function    transformation
+     * @param parallelism maximum of concurrent workers, 0 = all workers of the pool
+     * @param <I>         item type
+     * @param <R>         result type
+     * @return results in the order of the items
+     */
+    public <I, R> List<R> parallel(final Collection<I> items, final Function<? super I, ? extends R> function, final int parallelism) {
+        return parallel(items, function, parallelism, true);
+    }
+
+    /**
+     * Transforms the items in parallel, see {@link NanoThread#parallel(ForkJoinPool, Collection, Function, int, boolean)}.
+     *
+     * @param items       items to transform
+     * @param function    transformation
+     * @param parallelism maximum of concurrent workers, 0 = all workers of the pool
+     * @param ordered     <code>false</code> collects the results in completion order
+     * @param <I>         item type
+     * @param <R>         result type
+     * @return results
+     */
+    public <I, R> List<R> parallel(final Collection<I> items, final Function<? super I, ? extends R> function, final int parallelism, final boolean ordered) {
+        return NanoThread.parallel(nano == null ? ForkJoinPool.commonPool() : nano.cpuPool(), items, function, parallelism, ordered);
+    }
+
     //########## ASYNC HELPERS ##########
 
     /**
@@ -320,12 +430,50 @@ public class Context extends ConcurrentTypeMap {
      * @param runnable function to execute.
      * @return {@link NanoThread}s
      */
-    public final NanoThread[] runReturn(final ExRunnable... runnable) {
-        return stream(runnable).map(task -> new NanoThread(this).run(
+    public final NanoThread<?>[] runReturn(final ExRunnable... runnable) {
+        return stream(runnable).map(task -> new NanoThread<Void>(this).run(
             this.nano == null ? null : nano.threadPool(),
             () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()),
             task
-        )).toArray(NanoThread[]::new);
+        )).toArray(NanoThread<?>[]::new);
+    }
+
+    /**
+     * Executes one or multiple callable asynchronously. The results can be composed with e.g. {@link NanoThread#thenApply} or {@link NanoThread#allOf}.
+     *
+     * @param callable function to execute.
+     * @param <T>      result type
+     * @return {@link NanoThread}s with the results
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public final <T> NanoThread<T>[] runReturn(final Callable<T>... callable) {
+        // indexed copy instead of a stream, so the generic varargs array never escapes this method
+        final NanoThread<T>[] result = (NanoThread<T>[]) new NanoThread<?>[callable.length];
+        for (int i = 0; i < callable.length; i++)
+            result[i] = new NanoThread<T>(this).run(
+                this.nano == null ? null : nano.threadPool(),
+                () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()),
+                callable[i]
+            );
+        return result;
+    }
+
+    /**
+     * Executes the runnable after all pending runnable of the same key, while different keys run in parallel.
+     * Without {@link Nano} the keys are shared with all other contexts without {@link Nano}.
+     *
+     * @param key      key which defines the order e.g. an account id
+     * @param runnable function to execute.
+     * @return {@link NanoThread} of the runnable
+     * @throws java.util.concurrent.RejectedExecutionException if the key has reached {@link Config#CONFIG_ORDERED_MAX_DEPTH}
+     */
+    public final NanoThread<Void> runOrdered(final Object key, final ExRunnable runnable) {
+        return new NanoThread<Void>(this).run(
+            (nano == null ? DEFAULT_ORDERED : nano.ordered()).executorOf(key),
+            () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()),
+            runnable
+        );
     }
 
     /**
@@ -335,8 +483,8 @@ public class Context extends ConcurrentTypeMap {
      * @param runnable  function to execute.
      * @return {@link NanoThread}s
      */
-    public final NanoThread[] runReturnHandled(final Consumer<Unhandled> onFailure, final ExRunnable... runnable) {
-        return stream(runnable).map(task -> new NanoThread(this)
+    public final NanoThread<?>[] runReturnHandled(final Consumer<Unhandled> onFailure, final ExRunnable... runnable) {
+        return stream(runnable).map(task -> new NanoThread<Void>(this)
             .onComplete((thread, error) -> {
                 if (error != null)
                     onFailure.accept(new Unhandled(this, thread, error));
@@ -345,7 +493,7 @@ public class Context extends ConcurrentTypeMap {
                 () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()),
                 task
             )
-        ).toArray(NanoThread[]::new);
+        ).toArray(NanoThread<?>[]::new);
     }
 
     /**
@@ -354,13 +502,13 @@ public class Context extends ConcurrentTypeMap {
      * @param services The {@link Service} to be appended.
      * @return {@link NanoThread}s
      */
-    public NanoThread[] runReturn(final Service... services) {
+    public NanoThread<?>[] runReturn(final Service... services) {
         try {
             return threadsOf(this, services);
         } catch (final Exception exception) {
             handleExecutionExceptions(this, new Unhandled(this, services.length == 1 ? services[0] : services, exception), () -> "Error while executing [" + stream(services).map(Service::name).distinct().collect(Collectors.joining()) + "]");
             Thread.currentThread().interrupt();
-            return new NanoThread[0];
+            return new NanoThread<?>[0];
         }
     }
 
@@ -389,6 +537,35 @@ public class Context extends ConcurrentTypeMap {
         return this;
     }
 
+    /**
+     * Executes the runnable in a structured scope and waits until all of them are done.
+     * The first failure cancels the other runnable and is thrown. Runnable which are still running at the deadline are cancelled.
+     * Nested scopes of the runnable inherit the deadline.
+     *
+     * @param deadline maximum duration, null = only the deadline of an enclosing scope
+     * @param runnable function to execute.
+     * @return The {@link Context} object for chaining further operations.
+     * @throws java.util.concurrent.CompletionException with a {@link java.util.concurrent.TimeoutException} on deadline or with the first checked error
+     */
+    public final Context runAwait(final Duration deadline, final ExRunnable... runnable) {
+        runAwaitReturn(deadline, runnable);
+        return this;
+    }
+
+    /**
+     * Executes the runnable in a structured scope and waits for the first successful one. The other runnable are cancelled.
+     * The first failure is thrown if all runnable failed.
+     *
+     * @param deadline maximum duration, null = only the deadline of an enclosing scope
+     * @param runnable function to execute.
+     * @return The {@link Context} object for chaining further operations.
+     * @throws java.util.concurrent.CompletionException with a {@link java.util.concurrent.TimeoutException} on deadline or with the first checked error
+     */
+    public final Context runAwaitAny(final Duration deadline, final ExRunnable... runnable) {
+        runAwaitAnyReturn(deadline, runnable);
+        return this;
+    }
+
     /**
      * Executes asynchronously and waits for all {@link Service} to be ready
      *
@@ -407,7 +584,7 @@ public class Context extends ConcurrentTypeMap {
      * @param runnable function to execute.
      * @return {@link NanoThread}s
      */
-    public final NanoThread[] runAwaitReturn(final ExRunnable... runnable) {
+    public final NanoThread<?>[] runAwaitReturn(final ExRunnable... runnable) {
         return NanoThread.waitFor(runReturn(runnable));
     }
 
@@ -418,16 +595,38 @@ public class Context extends ConcurrentTypeMap {
      * @param runnable  function to execute.
      * @return {@link NanoThread}s
      */
-    public final NanoThread[] runAwaitReturnHandled(final Consumer<Unhandled> onFailure, final ExRunnable... runnable) {
+    public final NanoThread<?>[] runAwaitReturnHandled(final Consumer<Unhandled> onFailure, final ExRunnable... runnable) {
         return NanoThread.waitFor(runReturnHandled(onFailure, runnable));
     }
 
+    /**
+     * Executes the runnable in a structured scope, see {@link Context#runAwait(Duration, ExRunnable...)}.
+     *
+     * @param deadline maximum duration, null = only the deadline of an enclosing scope
+     * @param runnable function to execute.
+     * @return {@link NanoThread}s
+     */
+    public final NanoThread<?>[] runAwaitReturn(final Duration deadline, final ExRunnable... runnable) {
+        return NanoThread.runScope(this.nano == null ? null : nano.threadPool(), this, () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()), deadline, false, runnable);
+    }
+
+    /**
+     * Executes the runnable in a structured scope until the first success, see {@link Context#runAwaitAny(Duration, ExRunnable...)}.
+     *
+     * @param deadline maximum duration, null = only the deadline of an enclosing scope
+     * @param runnable function to execute.
+     * @return {@link NanoThread}s
+     */
+    public final NanoThread<?>[] runAwaitAnyReturn(final Duration deadline, final ExRunnable... runnable) {
+        return NanoThread.runScope(this.nano == null ? null : nano.threadPool(), this, () -> this.nano == null ? null : nano.newEmptyContext(this.getClass()), deadline, true, runnable);
+    }
+
     /**
      * Executes and waits for all {@link Service} to be ready
      *
      * @return {@link NanoThread}s
      */
-    public NanoThread[] runAwaitReturn(final Service... services) {
+    public NanoThread<?>[] runAwaitReturn(final Service... services) {
         return NanoThread.waitFor(runReturn(services));
     }
 
@@ -1,29 +1,57 @@
 package berlin.yuna.nano.core.model;
 
 import berlin.yuna.nano.helper.ExRunnable;
-import berlin.yuna.nano.helper.LockedBoolean;
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static java.util.Arrays.stream;
 import static java.util.Optional.ofNullable;
 
-public class NanoThread {
+/**
+ * A task which runs on the {@link NanoThread#VIRTUAL_THREAD_POOL} or a given executor and carries its result.
+ * <p>
+ * Completion is lock-free as {@link NanoThread} is a {@link CompletableFuture}, so results can be composed with
+ * {@link NanoThread#thenApply(Function)}, {@link NanoThread#thenCompose(Function)}, {@link NanoThread#allOf(NanoThread[])}
+ * and {@link NanoThread#anyOf(NanoThread[])} without latches or wrapper threads. Dependent stages are {@link NanoThread}s as well
+ * and async stages run on virtual threads by default.
+ * </p>
+ *
+ * @param <T> result type, {@link Void} for {@link ExRunnable} tasks
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NanoThread<T> extends CompletableFuture<T> {
 
-    protected final List<BiConsumer<NanoThread, Throwable>> onCompleteCallbacks = new CopyOnWriteArrayList<>();
     protected final Context context;
-    protected final LockedBoolean isComplete = new LockedBoolean();
+    protected volatile Future<?> future;
+    protected long deadlineNs;
 
     public static final ExecutorService VIRTUAL_THREAD_POOL = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("nano-thread-", 0).factory());
     protected static final AtomicLong activeNanoThreadCount = new AtomicLong(0);
+    protected static final AtomicLong activeVirtualThreadCount = new AtomicLong(0);
+    // Virtual threads are mounted on the carrier threads of the default scheduler which is limited by its parallelism
+    protected static final int CARRIER_PARALLELISM = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    // Deadline of the scope which runs the current task, inherited by nested scopes
+    protected static final ThreadLocal<Long> SCOPE_DEADLINE_NS = new ThreadLocal<>();
+    protected static volatile long awaitTimeoutMs = 10_000;
+    // reports timeouts of threads without context
+    protected static final NanoLogger LOGGER = new NanoLogger(NanoThread.class);
 
     public NanoThread() {
         this.context = null;
@@ -40,62 +68,237 @@ public class NanoThread {
     }
 
     public boolean isComplete() {
-        return isComplete.get();
+        return isDone();
     }
 
-    public NanoThread onComplete(final BiConsumer<NanoThread, Throwable> onComplete) {
-        isComplete.run(state -> {
-            if (Boolean.TRUE.equals(state)) {
-                onComplete.accept(this, null);
-            } else {
-                onCompleteCallbacks.add(onComplete);
-            }
-        });
+    /**
+     * @return the error of the task, a {@link CancellationException} if it was cancelled or null
+     */
+    public Throwable error() {
+        return switch (state()) {
+            case FAILED -> exceptionNow();
+            case CANCELLED -> new CancellationException("Cancelled " + this.getClass().getSimpleName());
+            default -> null;
+        };
+    }
+
+    /**
+     * @return deadline of the task in {@link System#nanoTime()} or 0 if the task has no deadline
+     */
+    public long deadlineNs() {
+        return deadlineNs;
+    }
+
+    /**
+     * Sets the deadline, which nested {@link NanoThread#runScope} calls of the task inherit. Must be set before {@link NanoThread#run}.
+     *
+     * @param deadlineNs deadline in {@link System#nanoTime()}, 0 = none
+     * @return self for chaining
+     */
+    public NanoThread<T> deadlineNs(final long deadlineNs) {
+        this.deadlineNs = deadlineNs;
         return this;
     }
 
-    public NanoThread await() {
+    /**
+     * Cancels the task and interrupts it if it's running. The task completes immediately with a {@link CancellationException}.
+     *
+     * @return <code>false</code> if the task was already complete
+     */
+    public boolean cancel() {
+        return cancelTask(true);
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        return cancelTask(mayInterruptIfRunning) || isCancelled();
+    }
+
+    protected boolean cancelTask(final boolean mayInterruptIfRunning) {
+        final boolean result = completeExceptionally(new CancellationException("Cancelled " + this.getClass().getSimpleName()));
+        final Future<?> running = future;
+        if (result && running != null)
+            running.cancel(mayInterruptIfRunning);
+        return result;
+    }
+
+    public NanoThread<T> onComplete(final BiConsumer<NanoThread<T>, Throwable> onComplete) {
+        super.whenComplete((result, error) -> onComplete.accept(this, error));
+        return this;
+    }
+
+    public NanoThread<T> await() {
         return await(null);
     }
 
-    public NanoThread await(final Runnable onDone) {
-        return waitFor(onDone, this)[0];
+    public NanoThread<T> await(final Runnable onDone) {
+        waitFor(onDone, this);
+        return this;
+    }
+
+    public NanoThread<T> run(final ExecutorService executor, final Supplier<Context> context, final ExRunnable task) {
+        return execute(executor, context, task, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public NanoThread<T> run(final ExecutorService executor, final Supplier<Context> context, final Callable<T> task) {
+        return execute(executor, context, task, task);
     }
 
     @SuppressWarnings("java:S1181") // Throwable is caught
-    public NanoThread run(final ExecutorService executor, final Supplier<Context> context, final ExRunnable task) {
-        (executor != null ? executor : VIRTUAL_THREAD_POOL).submit(() -> {
+    protected NanoThread<T> execute(final ExecutorService executor, final Supplier<Context> context, final Object source, final Callable<T> task) {
+        final FutureTask<Void> futureTask = new FutureTask<>(() -> {
+            final boolean isVirtual = Thread.currentThread().isVirtual();
             try {
                 activeNanoThreadCount.incrementAndGet();
-                task.run();
-                isComplete.set(true, state -> onCompleteCallbacks.forEach(onComplete -> onComplete.accept(this, null)));
+                if (isVirtual)
+                    activeVirtualThreadCount.incrementAndGet();
+                if (deadlineNs != 0)
+                    SCOPE_DEADLINE_NS.set(deadlineNs);
+                if (!isDone())
+                    complete(task.call());
             } catch (final Throwable error) {
                 //TODO: handle OutOfMemory
                 //TODO: handle InternalError
-                isComplete.set(true, state -> onCompleteCallbacks.forEach(onComplete -> onComplete.accept(this, error)));
-                ofNullable(context).filter(ctx -> onCompleteCallbacks.isEmpty()).map(Supplier::get).ifPresent(ctx -> ctx
-                    .sendEventError(task, error, () -> "Unhandled Exception [{}]", error.getClass().getSimpleName()));
+                final boolean handled = getNumberOfDependents() > 0;
+                if (completeExceptionally(error) && !handled)
+                    ofNullable(context).map(Supplier::get).ifPresent(ctx -> ctx
+                        .sendEventError(source, error, () -> "Unhandled Exception [{}]", error.getClass().getSimpleName()));
             } finally {
+                SCOPE_DEADLINE_NS.remove();
+                if (isVirtual)
+                    activeVirtualThreadCount.decrementAndGet();
                 activeNanoThreadCount.decrementAndGet();
             }
-        });
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                // e.g. discarded by a Bulkhead - the task won't run, so this thread has to complete as well
+                if (isCancelled())
+                    cancelTask(false);
+            }
+        };
+        future = futureTask;
+        (executor != null ? executor : VIRTUAL_THREAD_POOL).execute(futureTask);
+        // cancelled before the future was known
+        if (isCancelled())
+            future.cancel(true);
         return this;
     }
 
+    //########## COMPOSITION ##########
+
+    @Override
+    @SuppressWarnings("unchecked") // the future is created by newIncompleteFuture
+    public <U> NanoThread<U> thenApply(final Function<? super T, ? extends U> fn) {
+        return (NanoThread<U>) super.thenApply(fn);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // the future is created by newIncompleteFuture
+    public <U> NanoThread<U> thenApplyAsync(final Function<? super T, ? extends U> fn) {
+        return (NanoThread<U>) super.thenApplyAsync(fn);
+    }
+
+    @Override
+    public NanoThread<Void> thenAccept(final Consumer<? super T> action) {
+        return (NanoThread<Void>) super.thenAccept(action);
+    }
+
+    @Override
+    public NanoThread<Void> thenRun(final Runnable action) {
+        return (NanoThread<Void>) super.thenRun(action);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // the future is created by newIncompleteFuture
+    public <U> NanoThread<U> thenCompose(final Function<? super T, ? extends CompletionStage<U>> fn) {
+        return (NanoThread<U>) super.thenCompose(fn);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // the future is created by newIncompleteFuture
+    public <U, V> NanoThread<V> thenCombine(final CompletionStage<? extends U> other, final BiFunction<? super T, ? super U, ? extends V> fn) {
+        return (NanoThread<V>) super.thenCombine(other, fn);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // the future is created by newIncompleteFuture
+    public <U> NanoThread<U> handle(final BiFunction<? super T, Throwable, ? extends U> fn) {
+        return (NanoThread<U>) super.handle(fn);
+    }
+
+    @Override
+    public NanoThread<T> whenComplete(final BiConsumer<? super T, ? super Throwable> action) {
+        return (NanoThread<T>) super.whenComplete(action);
+    }
+
+    @Override
+    public NanoThread<T> exceptionally(final Function<Throwable, ? extends T> fn) {
+        return (NanoThread<T>) super.exceptionally(fn);
+    }
+
+    @Override
+    public <U> NanoThread<U> newIncompleteFuture() {
+        return new NanoThread<>();
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return VIRTUAL_THREAD_POOL;
+    }
+
+    /**
+     * Completes when all threads are complete, or exceptionally with a {@link CompletionException} if any of them failed.
+     *
+     * @param threads threads to combine
+     * @return {@link NanoThread} without result
+     */
+    public static NanoThread<Void> allOf(final NanoThread<?>... threads) {
+        return forward(CompletableFuture.allOf(threads), new NanoThread<>());
+    }
+
+    /**
+     * Completes with the result or error of the first complete thread.
+     *
+     * @param threads threads to combine
+     * @return {@link NanoThread} with the first result
+     */
+    public static NanoThread<Object> anyOf(final NanoThread<?>... threads) {
+        return forward(CompletableFuture.anyOf(threads), new NanoThread<>());
+    }
+
+    protected static <R> NanoThread<R> forward(final CompletableFuture<R> source, final NanoThread<R> target) {
+        source.whenComplete((result, error) -> {
+            if (error != null)
+                target.completeExceptionally(error);
+            else
+                target.complete(result);
+        });
+        return target;
+    }
+
     public static long activeNanoThreads() {
         return activeNanoThreadCount.get();
     }
 
+    /**
+     * @return number of {@link NanoThread} tasks running on virtual threads
+     */
+    public static long activeVirtualThreads() {
+        return activeVirtualThreadCount.get();
+    }
+
+    /**
+     * Estimates the carrier threads which are used by {@link NanoThread} tasks without scanning the JVM threads.
+     *
+     * @return active virtual threads limited by the parallelism of the virtual thread scheduler
+     */
     public static long activeCarrierThreads() {
-        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
-        final long[] threadIds = threadMXBean.getAllThreadIds();
-        return Arrays.stream(threadMXBean.getThreadInfo(threadIds))
-            .filter(Objects::nonNull)
-            .filter(info -> (info.getThreadName() != null && info.getThreadName().startsWith("CarrierThread"))
-                || (info.getLockName() != null && info.getLockName().startsWith("java.lang.VirtualThread"))
-                || (info.getLockOwnerName() != null && info.getLockName().startsWith("nano-thread-"))
-            )
-            .count();
+        return Math.min(activeVirtualThreadCount.get(), CARRIER_PARALLELISM);
     }
 
     /**
@@ -105,7 +308,7 @@ public class NanoThread {
      * @param threads An array of {@code NanoThread} instances to wait for.
      * @return The same array of {@code NanoThread} instances, allowing for method chaining or further processing.
      */
-    public static NanoThread[] waitFor(final NanoThread... threads) {
+    public static NanoThread<?>[] waitFor(final NanoThread<?>... threads) {
         return waitFor(null, threads);
     }
 
@@ -123,36 +326,210 @@ public class NanoThread {
      * @param threads    An array of {@link NanoThread} instances to wait for.
      * @return The same array of {@link NanoThread} instances, allowing for method chaining or further processing.
      */
-    public static NanoThread[] waitFor(final Runnable onComplete, final NanoThread... threads) {
+    public static NanoThread<?>[] waitFor(final Runnable onComplete, final NanoThread<?>... threads) {
+        final CompletableFuture<Void> all = CompletableFuture.allOf(threads);
+        if (onComplete != null) {
+            all.whenComplete((result, error) -> onComplete.run());
+            return threads;
+        }
+        try {
+            if (!await(all, deadlineNsOf(Duration.ofMillis(awaitTimeoutMs))))
+                reportTimeout(threads);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return threads;
+    }
 
-        final CountDownLatch latch = new CountDownLatch(threads.length);
-        for (final NanoThread thread : threads) {
-            thread.onComplete((nt, error) -> {
-                latch.countDown();
-                if (latch.getCount() <= 0 && onComplete != null) {
-                    onComplete.run();
-                }
-            });
+    /**
+     * Reports threads which did not complete within {@link NanoThread#awaitTimeoutMs()}. The threads keep running,
+     * only explicit deadlines of {@link NanoThread#runScope} cancel tasks e.g. a slow starting service is not interrupted.
+     *
+     * @param threads threads which were awaited
+     */
+    protected static void reportTimeout(final NanoThread<?>... threads) {
+        final long pending = stream(threads).filter(thread -> !thread.isDone()).count();
+        final TimeoutException error = new TimeoutException("Threads did not complete within [" + awaitTimeoutMs + "ms], pending [" + pending + "]");
+        final Context context = stream(threads).map(NanoThread::context).filter(Objects::nonNull).findFirst().orElse(null);
+        if (context != null)
+            context.sendEventError(threads, error, () -> "Threads did not complete within [{}ms], pending [{}]", awaitTimeoutMs, pending);
+        else
+            LOGGER.error(error, () -> "Threads did not complete within [{}ms], pending [{}]", awaitTimeoutMs, pending);
+    }
+
+    /**
+     * Runs the tasks in a structured scope and waits until the scope is done. Unfinished tasks are cancelled when the scope ends,
+     * so no task outlives the scope.
+     * <ul>
+     *     <li>Shutdown on failure: waits for all tasks, the first failure cancels the other tasks and is thrown.</li>
+     *     <li>Shutdown on success: waits for the first successful task and cancels the others, throws the first error if all tasks failed.</li>
+     * </ul>
+     * The deadline is limited by the deadline of an enclosing scope and inherited by nested scopes of the tasks.
+     *
+     * @param executor          executor or null for virtual threads
+     * @param context           context for the tasks, used to create their {@link NanoThread}
+     * @param errorContext      context for unhandled errors
+     * @param deadline          maximum duration of the scope, null = only the deadline of an enclosing scope
+     * @param shutdownOnSuccess <code>true</code> ends the scope with the first successful task
+     * @param tasks             tasks to run
+     * @return the {@link NanoThread}s of the tasks
+     * @throws CompletionException with a {@link TimeoutException} if the deadline was exceeded, with an {@link InterruptedException} if the
+     *                             waiting thread was interrupted (the interrupt flag is restored) or with the first checked error of the tasks
+     */
+    @SuppressWarnings("java:S107")
+    public static NanoThread<?>[] runScope(final ExecutorService executor, final Context context, final Supplier<Context> errorContext, final Duration deadline, final boolean shutdownOnSuccess, final ExRunnable... tasks) {
+        final long scopeDeadlineNs = deadlineNsOf(deadline);
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        final AtomicInteger remaining = new AtomicInteger(tasks.length);
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        final AtomicBoolean succeeded = new AtomicBoolean();
+        final BiConsumer<NanoThread<Void>, Throwable> onComplete = (thread, error) -> {
+            final int left = remaining.decrementAndGet();
+            if (error != null)
+                firstError.compareAndSet(null, error);
+            else if (shutdownOnSuccess)
+                succeeded.set(true);
+            if (left == 0 || (error == null) == shutdownOnSuccess)
+                finished.complete(null);
+        };
+        if (tasks.length == 0)
+            finished.complete(null);
+        final NanoThread<?>[] threads = stream(tasks).map(task -> new NanoThread<Void>(context).deadlineNs(scopeDeadlineNs).onComplete(onComplete).run(executor, errorContext, task)).toArray(NanoThread<?>[]::new);
+
+        final boolean completed;
+        try {
+            completed = await(finished, scopeDeadlineNs);
+        } catch (final InterruptedException interrupted) {
+            stream(threads).forEach(NanoThread::cancel);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(interrupted);
+        }
+        for (final NanoThread<?> thread : threads)
+            thread.cancel();
+        if (!completed)
+            throw new CompletionException(new TimeoutException("Scope did not complete within its deadline"));
+        final Throwable error = firstError.get();
+        if (error != null && !succeeded.get()) {
+            if (error instanceof final RuntimeException runtimeException)
+                throw runtimeException;
+            if (error instanceof final Error err)
+                throw err;
+            throw new CompletionException(error);
         }
+        return threads;
+    }
 
-        if (onComplete == null) {
-            try {
-                //TODO configurable timeout
-                final boolean completed = latch.await(10, TimeUnit.SECONDS);
-                if (!completed) {
-                    System.err.println(new Date() + " [FATAL] Threads did no complete");
+    /**
+     * Applies the function to all items on a {@link ForkJoinPool}. The items are split into chunks, which are claimed by at most
+     * <code>parallelism</code> workers, so fast workers take over the chunks of slow ones. The first error stops the other workers and is thrown.
+     *
+     * @param pool        pool of the workers e.g. {@link berlin.yuna.nano.core.NanoThreads#cpuPool()}
+     * @param items       items to transform
+     * @param function    transformation, should be CPU bound
+     * @param parallelism maximum of workers, 0 = parallelism of the pool
+     * @param ordered     <code>true</code> keeps the order of the items, <code>false</code> collects the results in completion order
+     * @param <I>         item type
+     * @param <R>         result type
+     * @return results as fixed size list in both modes, null results are kept
+     */
+    @SuppressWarnings("unchecked")
+    public static <I, R> List<R> parallel(final ForkJoinPool pool, final Collection<I> items, final Function<? super I, ? extends R> function, final int parallelism, final boolean ordered) {
+        if (items.isEmpty())
+            return Arrays.asList();
+        final List<I> input = items instanceof final List<I> list && items instanceof RandomAccess ? list : new ArrayList<>(items);
+        final int size = input.size();
+        final int workers = Math.min(size, parallelism > 0 ? Math.min(parallelism, pool.getParallelism()) : pool.getParallelism());
+        // more chunks than workers balance uneven work
+        final int chunkSize = Math.max(1, size / (workers * 4));
+        final int chunks = (size + chunkSize - 1) / chunkSize;
+        // join publishes the writes of the workers, unordered results claim their slot by the completion index
+        final Object[] results = new Object[size];
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        final Runnable worker = () -> {
+            int chunk;
+            while (firstError.get() == null && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                final int end = Math.min(size, (chunk + 1) * chunkSize);
+                try {
+                    for (int i = chunk * chunkSize; i < end; i++) {
+                        final R result = function.apply(input.get(i));
+                        results[ordered ? i : completed.getAndIncrement()] = result;
+                    }
+                } catch (final RuntimeException | Error e) {
+                    firstError.compareAndSet(null, e);
                 }
-            } catch (final InterruptedException ignored) {
-                Thread.currentThread().interrupt();
             }
+        };
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++)
+            tasks.add(pool.submit(worker));
+        tasks.forEach(ForkJoinTask::join);
+        // join would wrap errors of other threads
+        if (firstError.get() instanceof final RuntimeException e)
+            throw e;
+        if (firstError.get() instanceof final Error e)
+            throw e;
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * Calculates a deadline, which is limited by the deadline of the enclosing scope of the current task.
+     *
+     * @param timeout timeout from now, null = no own deadline
+     * @return deadline in {@link System#nanoTime()} or 0 if there is no deadline
+     */
+    public static long deadlineNsOf(final Duration timeout) {
+        final Long inherited = SCOPE_DEADLINE_NS.get();
+        final long own = timeout == null ? 0 : System.nanoTime() + Math.max(0, timeout.toNanos());
+        if (inherited == null || inherited == 0)
+            return own;
+        return own == 0 || inherited - own < 0 ? inherited : own;
+    }
+
+    /**
+     * @return the remaining time of the scope which runs the current task or null if there is no deadline
+     */
+    public static Duration remaining() {
+        final Long deadline = SCOPE_DEADLINE_NS.get();
+        return deadline == null || deadline == 0 ? null : Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    public static long awaitTimeoutMs() {
+        return awaitTimeoutMs;
+    }
+
+    /**
+     * @param timeoutMs timeout of {@link NanoThread#waitFor(NanoThread...)} before the pending threads are reported
+     */
+    public static void awaitTimeoutMs(final long timeoutMs) {
+        awaitTimeoutMs = timeoutMs > 0 ? timeoutMs : 10_000;
+    }
+
+    /**
+     * @param future     future to wait for
+     * @param deadlineNs deadline in {@link System#nanoTime()}, 0 = none
+     * @return <code>false</code> if the deadline was exceeded
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    protected static boolean await(final Future<?> future, final long deadlineNs) throws InterruptedException {
+        try {
+            if (deadlineNs == 0)
+                future.get();
+            else
+                future.get(deadlineNs - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (final ExecutionException | CancellationException completedWithError) {
+            return true;
+        } catch (final TimeoutException timeout) {
+            return false;
         }
-        return threads;
     }
 
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "{" +
-            "onCompleteCallbacks=" + onCompleteCallbacks.size() +
+            "onCompleteCallbacks=" + getNumberOfDependents() +
             ", context=" + (context != null) +
             ", isComplete=" + isComplete() +
             '}';
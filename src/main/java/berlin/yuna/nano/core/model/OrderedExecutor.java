@@ -0,0 +1,235 @@
+package berlin.yuna.nano.core.model;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the tasks of the same key in submission order while different keys run in parallel, e.g. all events of an account id.
+ * <p>
+ * Every active key has its own lock-free queue in a {@link ConcurrentHashMap}, which is drained by one task on the delegate executor
+ * (virtual threads by default). A drain yields after {@link OrderedExecutor#BATCH_SIZE} tasks, so a hot key can't starve the others.
+ * Idle keys are removed, so the memory depends only on the active keys. The depth of each key is bounded, tasks beyond are rejected.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class OrderedExecutor {
+
+    public static final int BATCH_SIZE = 64;
+    protected static final int RETIRED = Integer.MIN_VALUE;
+    protected final Map<Object, KeyQueue> keys = new ConcurrentHashMap<>();
+    protected final ExecutorService delegate;
+    protected final int maxDepth;
+    protected final LongAdder submitted = new LongAdder();
+    protected final LongAdder completed = new LongAdder();
+    protected final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param delegate executor which runs the queues, null = {@link NanoThread#VIRTUAL_THREAD_POOL}
+     * @param maxDepth maximum of pending tasks per key
+     */
+    public OrderedExecutor(final ExecutorService delegate, final int maxDepth) {
+        this.delegate = delegate == null ? NanoThread.VIRTUAL_THREAD_POOL : delegate;
+        this.maxDepth = Math.max(1, maxDepth);
+    }
+
+    /**
+     * Queues the task behind all pending tasks of the key.
+     *
+     * @param key  key which defines the order e.g. an account id
+     * @param task task to run
+     * @throws RejectedExecutionException if the key has already {@link OrderedExecutor#maxDepth()} pending tasks
+     */
+    public void execute(final Object key, final Runnable task) {
+        while (true) {
+            final KeyQueue queue = keys.computeIfAbsent(key, KeyQueue::new);
+            final int depth = queue.depth.get();
+            if (depth == RETIRED) {
+                // the drain removes the retired queue in a moment
+                Thread.onSpinWait();
+            } else if (depth >= maxDepth) {
+                rejected.increment();
+                throw new RejectedExecutionException("Ordered key [" + key + "] has reached its max depth [" + maxDepth + "]");
+            } else if (queue.depth.compareAndSet(depth, depth + 1)) {
+                submitted.increment();
+                queue.tasks.offer(task);
+                if (depth == 0)
+                    schedule(queue);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param key key which defines the order
+     * @return an {@link ExecutorService} view, which runs all tasks in the order of the key e.g. for {@link NanoThread#run}
+     */
+    public ExecutorService executorOf(final Object key) {
+        return new AbstractExecutorService() {
+            @Override
+            public void execute(final Runnable command) {
+                OrderedExecutor.this.execute(key, command);
+            }
+
+            @Override
+            public void shutdown() {
+                // the view has no own threads
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return List.of();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return delegate.isShutdown();
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return delegate.isTerminated();
+            }
+
+            @Override
+            public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+                return delegate.awaitTermination(timeout, unit);
+            }
+        };
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return number of keys with pending tasks
+     */
+    public int activeKeys() {
+        return keys.size();
+    }
+
+    /**
+     * @return number of pending tasks of all keys
+     */
+    public long queued() {
+        return keys.values().stream().mapToLong(KeyQueue::depth).sum();
+    }
+
+    /**
+     * @param key key which defines the order
+     * @return number of pending tasks of the key
+     */
+    public int depth(final Object key) {
+        final KeyQueue queue = keys.get(key);
+        return queue == null ? 0 : queue.depth();
+    }
+
+    /**
+     * @return number of pending tasks of the deepest key
+     */
+    public int maxKeyDepth() {
+        return keys.values().stream().mapToInt(KeyQueue::depth).max().orElse(0);
+    }
+
+    /**
+     * @param limit maximum of keys
+     * @return keys with the most pending tasks and their depth, highest first
+     */
+    public List<Map.Entry<Object, Integer>> hotKeys(final int limit) {
+        return keys.values().stream()
+            .map(queue -> Map.entry(queue.key, queue.depth()))
+            .filter(entry -> entry.getValue() > 0)
+            .sorted(Map.Entry.<Object, Integer>comparingByValue(Comparator.reverseOrder()))
+            .limit(limit)
+            .toList();
+    }
+
+    public long submitted() {
+        return submitted.sum();
+    }
+
+    public long completed() {
+        return completed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    protected void schedule(final KeyQueue queue) {
+        try {
+            delegate.execute(() -> drain(queue));
+        } catch (final RejectedExecutionException e) {
+            // only happens while shutdown - the pending tasks of the key are dropped
+            final int dropped = queue.depth.getAndSet(RETIRED);
+            rejected.add(dropped);
+            queue.tasks.clear();
+            keys.remove(queue.key, queue);
+        }
+    }
+
+    @SuppressWarnings("java:S1181") // Throwable is caught
+    protected void drain(final KeyQueue queue) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Runnable task;
+            // the submitter increments the depth before the task is queued
+            while ((task = queue.tasks.poll()) == null)
+                Thread.onSpinWait();
+            try {
+                task.run();
+            } catch (final Throwable ignored) {
+                // tasks handle their own errors, the queue of the key goes on
+            } finally {
+                completed.increment();
+                // a cancelled NanoThread interrupts its task, the next task of the shared drain must not see it
+                Thread.interrupted();
+            }
+            if (release(queue))
+                return;
+        }
+        schedule(queue);
+    }
+
+    // returns true if the queue is empty and retired
+    protected boolean release(final KeyQueue queue) {
+        while (true) {
+            final int depth = queue.depth.get();
+            if (depth == 1 && queue.depth.compareAndSet(1, RETIRED)) {
+                keys.remove(queue.key, queue);
+                return true;
+            } else if (depth > 1 && queue.depth.compareAndSet(depth, depth - 1)) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OrderedExecutor{" +
+            "activeKeys=" + activeKeys() +
+            ", maxDepth=" + maxDepth +
+            ", completed=" + completed() +
+            ", rejected=" + rejected() +
+            '}';
+    }
+
+    protected static class KeyQueue {
+        protected final Object key;
+        protected final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // pending tasks including the running one, RETIRED once removed
+        protected final AtomicInteger depth = new AtomicInteger();
+
+        protected KeyQueue(final Object key) {
+            this.key = key;
+        }
+
+        protected int depth() {
+            return Math.max(0, depth.get());
+        }
+    }
+}
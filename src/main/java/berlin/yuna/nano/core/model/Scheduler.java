@@ -1,18 +1,28 @@
 package berlin.yuna.nano.core.model;
 
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Scheduler extends ScheduledThreadPoolExecutor {
     private final String id;
+    protected static final AtomicLong activeSchedulerThreadCount = new AtomicLong(0);
 
     public Scheduler(final String id) {
         this(id, 1, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     public Scheduler(final String id, final int corePoolSize, final RejectedExecutionHandler handler) {
-        super(corePoolSize, handler);
+        super(corePoolSize, runnable -> Executors.defaultThreadFactory().newThread(() -> {
+            activeSchedulerThreadCount.incrementAndGet();
+            try {
+                runnable.run();
+            } finally {
+                activeSchedulerThreadCount.decrementAndGet();
+            }
+        }), handler);
         this.id = id;
     }
 
@@ -20,6 +30,13 @@ public class Scheduler extends ScheduledThreadPoolExecutor {
         return id;
     }
 
+    /**
+     * @return number of live {@link Scheduler} threads
+     */
+    public static long activeSchedulerThreads() {
+        return activeSchedulerThreadCount.get();
+    }
+
     @Override
     public String toString() {
         return "Scheduler{" +
@@ -2,13 +2,22 @@ package berlin.yuna.nano.core.model;
 
 import berlin.yuna.nano.helper.event.model.Event;
 import berlin.yuna.nano.helper.logger.logic.LogQueue;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 import berlin.yuna.nano.services.metric.model.MetricType;
 import berlin.yuna.nano.services.metric.model.MetricUpdate;
 import berlin.yuna.nano.helper.LockedBoolean;
 import berlin.yuna.nano.helper.logger.logic.NanoLogger;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import static berlin.yuna.nano.helper.event.model.EventType.*;
@@ -20,6 +29,8 @@ public abstract class Service {
     protected final long createdAtMs;
     protected final LockedBoolean isReady;
     protected final NanoLogger logger = new NanoLogger(this);
+    protected volatile long readyTimeMs = -1;
+    protected volatile boolean lazy;
 
     protected Service(final String name, final boolean isReady) {
         this.createdAtMs = System.currentTimeMillis();
@@ -54,15 +65,67 @@ public abstract class Service {
         return createdAtMs;
     }
 
+    /**
+     * @return time in milliseconds the last {@link Service#start(Supplier)} took, -1 if not started yet
+     */
+    public long readyTimeMs() {
+        return readyTimeMs;
+    }
+
+    public boolean lazy() {
+        return lazy;
+    }
+
+    /**
+     * A lazy service is not started with {@link berlin.yuna.nano.core.Nano}, it starts once on the first of its {@link Service#activationEvents()}.
+     *
+     * @param lazy true to start on demand
+     * @return self for chaining
+     */
+    public Service lazy(final boolean lazy) {
+        this.lazy = lazy;
+        return this;
+    }
+
+    /**
+     * Declares the events which start a {@link Service#lazy()} service. The event is dispatched after the start.
+     *
+     * @return event ids e.g. {@link berlin.yuna.nano.helper.event.model.EventType#EVENT_HTTP_REQUEST}
+     */
+    public List<Integer> activationEvents() {
+        return List.of();
+    }
+
+    /**
+     * Declares the services which need to be started before and stopped after this service.
+     * Dependencies which are not registered in {@link berlin.yuna.nano.core.Nano} are ignored.
+     *
+     * @return types of the required services
+     */
+    public List<Class<? extends Service>> dependsOn() {
+        return List.of();
+    }
+
+    /**
+     * @param other other service
+     * @return true if this service requires the other service, see {@link Service#dependsOn()}
+     */
+    public boolean dependsOn(final Service other) {
+        return other != this && dependsOn().stream().anyMatch(type -> type.isInstance(other));
+    }
+
     //########## GLOBAL SERVICE METHODS ##########
-    public NanoThread nanoThread(final Context context) {
-        return new NanoThread().run(context.nano() != null ? context.nano().threadPool() : null, () -> context.nano() != null ? context : null, () -> {
+    public NanoThread<Void> nanoThread(final Context context) {
+        return new NanoThread<Void>().run(context.nano() != null ? context.nano().threadPool() : null, () -> context.nano() != null ? context : null, () -> {
             final long startTime = System.currentTimeMillis();
             this.logger().level(context.logLevel());
             this.logger().logQueue(context.nano().logger().logQueue());
+            // the service logger is shared by all calls, their trace ids are on the loggers of their contexts
+            this.logger().logContext(new LogContext(null, name()));
             this.start(() -> context);
+            readyTimeMs = System.currentTimeMillis() - startTime;
             context.nano().sendEvent(EVENT_APP_SERVICE_REGISTER, context, this, null, true);
-            context.sendEvent(EVENT_METRIC_UPDATE, new MetricUpdate(MetricType.GAUGE, "application.services.ready.time", System.currentTimeMillis() - startTime, Map.of("class", this.getClass().getSimpleName())), result -> {});
+            context.sendEvent(EVENT_METRIC_UPDATE, new MetricUpdate(MetricType.GAUGE, "application.services.ready.time", readyTimeMs, Map.of("class", this.getClass().getSimpleName())), result -> {});
         }).onComplete((nanoThread, error) -> {
             if (error != null)
                 handleServiceException(context, error);
@@ -80,7 +143,56 @@ public abstract class Service {
         }
     }
 
-    public static NanoThread[] threadsOf(final Context context, final Service... services) {
-        return stream(services).map(service -> service.nanoThread(context)).toArray(NanoThread[]::new);
+    /**
+     * Sorts the services by their {@link Service#dependsOn()} into waves. Services of the same wave don't depend on each other
+     * and can start in parallel after all previous waves. Services of a dependency cycle are placed together in one wave after their
+     * other dependencies, so only cycle members depend on services of their own wave.
+     *
+     * @param services services in registration order
+     * @return waves in start order, the reverse order is the stop order
+     */
+    public static List<List<Service>> wavesOf(final Collection<? extends Service> services) {
+        final List<Service> pending = new ArrayList<>(services);
+        final Map<Service, Set<Service>> cycles = cyclesOf(pending);
+        final List<List<Service>> result = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            // a service is startable once no member of its cycle waits for a pending service outside the cycle
+            final List<Service> wave = pending.stream().filter(service -> cycles.get(service).stream().allMatch(member -> pending.stream()
+                .noneMatch(other -> member.dependsOn(other) && !cycles.get(service).contains(other)))).toList();
+            result.add(wave);
+            pending.removeAll(wave);
+        }
+        return result;
+    }
+
+    /**
+     * Groups the services by their dependency cycle (strongly connected component): two services are in the same cycle if they reach each other via {@link Service#dependsOn()}.
+     *
+     * @param services services to group
+     * @return the cycle of every service, which contains at least the service itself
+     */
+    protected static Map<Service, Set<Service>> cyclesOf(final List<Service> services) {
+        final Map<Service, Set<Service>> reachable = new IdentityHashMap<>();
+        for (final Service service : services) {
+            final Set<Service> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Deque<Service> next = new ArrayDeque<>(List.of(service));
+            while (!next.isEmpty()) {
+                final Service current = next.poll();
+                services.stream().filter(current::dependsOn).filter(visited::add).forEach(next::add);
+            }
+            reachable.put(service, visited);
+        }
+        final Map<Service, Set<Service>> result = new IdentityHashMap<>();
+        for (final Service service : services) {
+            final Set<Service> cycle = Collections.newSetFromMap(new IdentityHashMap<>());
+            cycle.add(service);
+            reachable.get(service).stream().filter(other -> reachable.get(other).contains(service)).forEach(cycle::add);
+            result.put(service, cycle);
+        }
+        return result;
+    }
+
+    public static NanoThread<?>[] threadsOf(final Context context, final Service... services) {
+        return stream(services).map(service -> service.nanoThread(context)).toArray(NanoThread<?>[]::new);
     }
 }
@@ -8,12 +8,16 @@ import berlin.yuna.nano.core.model.Scheduler;
 import berlin.yuna.nano.core.model.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -30,6 +34,17 @@ public class NanoUtils {
 
     public static final String LINE_SEPARATOR = System.lineSeparator();
     protected static Random random;
+    protected static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    protected static final Set<String> CALLER_INFO_SKIP = Set.of(
+        Service.class.getName(),
+        NanoBase.class.getName(),
+        NanoUtils.class.getName(),
+        NanoThreads.class.getName(),
+        NanoServices.class.getName()
+    );
+    protected static final int MAX_CALLER_INFOS = 1024;
+    protected static final Map<CallSite, String> CALLER_INFOS = new ConcurrentHashMap<>();
+    protected static volatile boolean callerInfoEnabled = true;
     public static final String[][] NANO_NAMES = {
         {"NanoNinja", "NanoNoodle", "GraalGuru", "JavaJester", "MicroMaverick", "ByteBender", "NanoNaut", "GraalGoblin", "JavaJuggernaut", "CodeComedian", "NanoNomad", "GraalGazelle", "JavaJinx", "MicroMagician", "ByteBandit", "NanoNimbus", "GraalGambler", "JavaJester", "MicroMaestro", "ByteBarracuda", "NanoNebula"},
         {"Swift Swiper", "Master", "Joker", "Rebel", "Twister", "Navigator", "Mischievous", "Unstoppable", "Laughs", "Wanderer", "Graceful", "Bringer", "Wizard", "Stealer", "Cloud Surfer", "Betting", "Prankster", "Conductor", "Feisty Fish", "Galactic Guardian"},
@@ -124,28 +139,54 @@ public class NanoUtils {
         return result.toArray(new String[0]);
     }
 
+    public static boolean callerInfoEnabled() {
+        return callerInfoEnabled;
+    }
+
+    /**
+     * Enables or disables the caller lookup of {@link NanoUtils#callerInfo(Class)}, e.g. for scheduler ids.
+     *
+     * @param enabled <code>false</code> returns "Unknown" without walking the stack
+     */
+    public static void callerInfoEnabled(final boolean enabled) {
+        callerInfoEnabled = enabled;
+    }
+
+    /**
+     * Resolves the first caller outside of Nano. The result is cached per call site.
+     *
+     * @param source class to skip next to the Nano classes
+     * @return caller as "class:line_at_method" or "Unknown"
+     */
     public static String callerInfoStr(final Class<?> source) {
-        final StackTraceElement element = callerInfo(source);
-        return element == null ? "Unknown" : String.format("%s:%d_at_%s", element.getClassName(), element.getLineNumber(), element.getMethodName());
+        final StackWalker.StackFrame frame = callerInfoEnabled ? callerFrame(source) : null;
+        if (frame == null)
+            return "Unknown";
+        final CallSite callSite = new CallSite(frame.getClassName(), frame.getMethodName(), frame.getByteCodeIndex());
+        final String cached = CALLER_INFOS.get(callSite);
+        if (cached != null)
+            return cached;
+        final String result = frame.getClassName() + ":" + frame.getLineNumber() + "_at_" + frame.getMethodName();
+        if (CALLER_INFOS.size() < MAX_CALLER_INFOS)
+            CALLER_INFOS.putIfAbsent(callSite, result);
+        return result;
     }
 
     public static StackTraceElement callerInfo(final Class<?> source) {
-        final List<String> sourceNames = List.of(
-            source.getName(),
-            Service.class.getName(),
-            NanoBase.class.getName(),
-            NanoUtils.class.getName(),
-            NanoThreads.class.getName(),
-            NanoServices.class.getName()
-        );
-        final StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+        final StackWalker.StackFrame frame = callerInfoEnabled ? callerFrame(source) : null;
+        return frame == null ? null : frame.toStackTraceElement();
+    }
 
-        for (final StackTraceElement element : stackTrace) {
-            if (!sourceNames.contains(element.getClassName()) && !element.getClassName().startsWith("java.lang.Thread")) {
-                return element;
-            }
-        }
-        return stackTrace.length > 2 ? stackTrace[2] : null;
+    // Walks only until the first frame outside of Nano instead of filling the whole stack trace
+    protected static StackWalker.StackFrame callerFrame(final Class<?> source) {
+        final String sourceName = source.getName();
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> !sourceName.equals(frame.getClassName()) && !CALLER_INFO_SKIP.contains(frame.getClassName()) && !frame.getClassName().startsWith("java.lang.Thread"))
+            .findFirst()
+            .orElse(null));
+    }
+
+    protected record CallSite(String className, String methodName, int byteCodeIndex) {
     }
 
     public static String getThreadName(final ExecutorService executorService) {
@@ -158,6 +199,9 @@ public class NanoUtils {
     }
 
     // ########## NANO CONFIGS ##########
+    protected static final String[] CONFIG_DIRECTORIES = {"", "config/", "resources/", "resources/config/"};
+    protected static final Map<String, Set<String>> CONFIG_DIRECTORY_FILES = new ConcurrentHashMap<>();
+
     public static Context readConfigFiles(final Context context, final String profile) {
         final Context result = context != null ? context : Context.createRootContext();
         final List<String> scannedProfiles = result.getList(ArrayList::new, String.class, "_scanned_profiles");
@@ -166,20 +210,38 @@ public class NanoUtils {
         if (!"".equals(profile))
             scannedProfiles.add(profile);
         result.put("_scanned_profiles", scannedProfiles);
+        return readProfiles(readConfigDirectories(result, profile));
+    }
 
-        for (final String directory : new String[]{
-            "",
-            ".",
-            "config/",
-            ".config/",
-            "resources/",
-            ".resources/",
-            "resources/config/",
-            ".resources/config/"
-        }) {
-            readConfigFile(result, directory + "application" + (profile.isEmpty() ? profile : "-" + profile) + ".properties");
+    /**
+     * Reads the config file of a profile from the classpath and the working directory without resolving further profiles.
+     * Every directory of the working directory is listed only once, profiles are looked up in the listing afterward.
+     *
+     * @param context context to fill
+     * @param profile profile name, empty for the default "application.properties"
+     * @return the given context
+     */
+    public static Context readConfigDirectories(final Context context, final String profile) {
+        final Context result = context != null ? context : Context.createRootContext();
+        final String fileName = "application" + (profile.isEmpty() ? profile : "-" + profile) + ".properties";
+        for (final String directory : CONFIG_DIRECTORIES) {
+            readConfigFile(result, directory + fileName);
+            if (CONFIG_DIRECTORY_FILES.computeIfAbsent(directory, NanoUtils::listConfigFiles).contains(fileName))
+                readConfigFile(result, "." + directory + fileName);
         }
-        return readProfiles(result);
+        return result;
+    }
+
+    /**
+     * Forgets the listed config files of the working directory, so the next read sees new files. Called by every {@link NanoBase} start.
+     */
+    public static void clearConfigDirectories() {
+        CONFIG_DIRECTORY_FILES.clear();
+    }
+
+    protected static Set<String> listConfigFiles(final String directory) {
+        final String[] files = new File(directory.isEmpty() ? "." : directory).list((dir, name) -> name.startsWith("application") && name.endsWith(".properties"));
+        return files == null ? Set.of() : Set.of(files);
     }
 
     public static Context readProfiles(final Context result) {
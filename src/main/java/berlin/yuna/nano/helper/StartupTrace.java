@@ -0,0 +1,129 @@
+package berlin.yuna.nano.helper;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static java.lang.System.lineSeparator;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Records the time of the startup phases e.g. reading configs, starting services or binding ports, to find the slow parts of a cold start.
+ * Phases can be recorded from multiple threads until {@link StartupTrace#finish()}, later phases are ignored to keep the memory constant.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class StartupTrace {
+
+    protected final long startNs = System.nanoTime();
+    protected final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+    protected volatile long finishedNs = -1;
+
+    /**
+     * @param name       name of the phase
+     * @param startNs    start time of the phase
+     * @param durationNs duration of the phase
+     */
+    public record Phase(String name, long startNs, long durationNs) {
+    }
+
+    /**
+     * Records a phase which started at the given time and ends now.
+     *
+     * @param name    name of the phase
+     * @param startNs start time from {@link System#nanoTime()}
+     * @return self for chaining
+     */
+    public StartupTrace record(final String name, final long startNs) {
+        return record(name, startNs, System.nanoTime() - startNs);
+    }
+
+    /**
+     * Records a phase with a known duration.
+     *
+     * @param name       name of the phase
+     * @param startNs    start time from {@link System#nanoTime()}
+     * @param durationNs duration of the phase
+     * @return self for chaining
+     */
+    public StartupTrace record(final String name, final long startNs, final long durationNs) {
+        if (!isFinished())
+            phases.add(new Phase(name, startNs, Math.max(0, durationNs)));
+        return this;
+    }
+
+    /**
+     * Runs and records a phase.
+     *
+     * @param name     name of the phase
+     * @param supplier phase to run
+     * @param <T>      result type
+     * @return result of the phase
+     */
+    public <T> T trace(final String name, final Supplier<T> supplier) {
+        final long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /**
+     * Ends the startup, later phases are ignored.
+     *
+     * @return self for chaining
+     */
+    public StartupTrace finish() {
+        if (!isFinished())
+            finishedNs = System.nanoTime();
+        return this;
+    }
+
+    public boolean isFinished() {
+        return finishedNs != -1;
+    }
+
+    /**
+     * @return recorded phases in start order
+     */
+    public List<Phase> phases() {
+        return phases.stream().sorted((a, b) -> Long.compare(a.startNs(), b.startNs())).toList();
+    }
+
+    /**
+     * @return time from the creation until {@link StartupTrace#finish()} or now
+     */
+    public long totalNs() {
+        return (isFinished() ? finishedNs : System.nanoTime()) - startNs;
+    }
+
+    /**
+     * @return one line per phase with offset, duration and share of the total time
+     */
+    public String report() {
+        final long total = Math.max(1, totalNs());
+        final int nameLength = phases.stream().mapToInt(phase -> phase.name().length()).max().orElse(1);
+        return "Startup [" + millisOf(total) + "]" + phases().stream().map(phase -> lineSeparator() + String.format(
+            Locale.ROOT, "  +%-9s %-" + nameLength + "s %10s %5.1f%%",
+            millisOf(phase.startNs() - startNs),
+            phase.name(),
+            millisOf(phase.durationNs()),
+            phase.durationNs() * 100d / total
+        )).collect(joining());
+    }
+
+    protected static String millisOf(final long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000d);
+    }
+
+    @Override
+    public String toString() {
+        return "StartupTrace{" +
+            "phases=" + phases.size() +
+            ", totalNs=" + totalNs() +
+            ", finished=" + isFinished() +
+            '}';
+    }
+}
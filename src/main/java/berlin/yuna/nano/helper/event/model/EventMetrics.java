@@ -0,0 +1,214 @@
+package berlin.yuna.nano.helper.event.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static berlin.yuna.nano.helper.event.EventTypeRegister.eventNameOf;
+
+/**
+ * Collects per event type statistics of the event bus: dispatch count, acknowledged and unhandled count, dispatch latency histogram,
+ * handler time per listener and per service and the queue wait time of asynchronous events.
+ * <p>
+ * Recording uses only {@link LongAdder} and atomics, so it's safe and cheap to call from any thread.
+ * {@link EventMetrics#snapshot()} provides a consistent enough view for metrics and diagnostics.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class EventMetrics {
+
+    // Latency buckets are powers of two in microseconds [<1µs, <2µs, <4µs ... <~1s, overflow]
+    public static final int HISTOGRAM_BUCKETS = 22;
+    private final Map<Integer, TypeMetrics> types = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public EventMetrics enabled(final boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Retrieves the metrics of an event type.
+     *
+     * @param eventType The integer identifier of the event type.
+     * @return The {@link TypeMetrics} or null if the {@link EventMetrics} are disabled.
+     */
+    public TypeMetrics type(final int eventType) {
+        return enabled ? types.computeIfAbsent(eventType, TypeMetrics::new) : null;
+    }
+
+    /**
+     * Records the time an asynchronous event waited before its dispatch.
+     *
+     * @param eventType The integer identifier of the event type.
+     * @param waitNs    The wait time in nanoseconds.
+     * @return self for chaining
+     */
+    public EventMetrics queueWait(final int eventType, final long waitNs) {
+        final TypeMetrics metrics = type(eventType);
+        if (metrics != null)
+            metrics.queueWait.record(waitNs);
+        return this;
+    }
+
+    /**
+     * Creates a snapshot of all event types which were dispatched at least once.
+     *
+     * @return snapshots by event type name
+     */
+    public Map<String, Snapshot> snapshot() {
+        final Map<String, Snapshot> result = new TreeMap<>();
+        types.values().forEach(metrics -> result.put(metrics.name(), metrics.snapshot()));
+        return result;
+    }
+
+    public EventMetrics clear() {
+        types.clear();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" +
+            "types=" + types.size() +
+            ", enabled=" + enabled +
+            '}';
+    }
+
+    public static class TypeMetrics {
+        protected final int eventType;
+        protected final LongAdder dispatched = new LongAdder();
+        protected final LongAdder acknowledged = new LongAdder();
+        protected final LongAdder unhandled = new LongAdder();
+        protected final Timer latency = new Timer();
+        protected final Timer queueWait = new Timer();
+        protected final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+        protected final Map<String, Timer> listeners = new ConcurrentHashMap<>();
+        protected final Map<String, Timer> services = new ConcurrentHashMap<>();
+
+        public TypeMetrics(final int eventType) {
+            this.eventType = eventType;
+        }
+
+        public String name() {
+            final String name = eventNameOf(eventType);
+            return name != null ? name : String.valueOf(eventType);
+        }
+
+        public TypeMetrics dispatched(final long latencyNs, final boolean acknowledged) {
+            dispatched.increment();
+            (acknowledged ? this.acknowledged : unhandled).increment();
+            latency.record(latencyNs);
+            histogram.incrementAndGet(bucketOf(latencyNs));
+            return this;
+        }
+
+        public TypeMetrics listener(final Object listener, final long durationNs) {
+            listeners.computeIfAbsent(listener.getClass().getName(), key -> new Timer()).record(durationNs);
+            return this;
+        }
+
+        public TypeMetrics service(final String serviceName, final long durationNs) {
+            services.computeIfAbsent(serviceName, key -> new Timer()).record(durationNs);
+            return this;
+        }
+
+        public Snapshot snapshot() {
+            final long[] buckets = new long[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+            final Map<String, Timing> listenerTimings = new TreeMap<>();
+            listeners.forEach((listener, timer) -> listenerTimings.merge(listenerName(listener), timer.snapshot(), Timing::merge));
+            final Map<String, Timing> serviceTimings = new TreeMap<>();
+            services.forEach((service, timer) -> serviceTimings.put(service, timer.snapshot()));
+            return new Snapshot(name(), dispatched.sum(), acknowledged.sum(), unhandled.sum(), latency.snapshot(), buckets, queueWait.snapshot(), listenerTimings, serviceTimings);
+        }
+
+        protected static int bucketOf(final long latencyNs) {
+            final long micros = Math.max(0, latencyNs / 1000);
+            return Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        }
+
+        // Lambda class names contain the address of the hidden class - the declaring class is more readable
+        protected static String listenerName(final String className) {
+            final int lambda = className.indexOf("$$Lambda");
+            final String name = lambda > 0 ? className.substring(0, lambda) : className;
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+
+    public static class Timer {
+        protected final LongAdder count = new LongAdder();
+        protected final LongAdder totalNs = new LongAdder();
+        protected final AtomicLong maxNs = new AtomicLong();
+
+        public Timer record(final long durationNs) {
+            count.increment();
+            totalNs.add(durationNs);
+            maxNs.accumulateAndGet(durationNs, Math::max);
+            return this;
+        }
+
+        public Timing snapshot() {
+            return new Timing(count.sum(), totalNs.sum(), maxNs.get());
+        }
+    }
+
+    public record Timing(long count, long totalNs, long maxNs) {
+
+        public double avgMs() {
+            return count == 0 ? 0 : (double) totalNs / count / 1_000_000d;
+        }
+
+        public double maxMs() {
+            return maxNs / 1_000_000d;
+        }
+
+        public Timing merge(final Timing other) {
+            return new Timing(count + other.count, totalNs + other.totalNs, Math.max(maxNs, other.maxNs));
+        }
+    }
+
+    public record Snapshot(String name, long dispatched, long acknowledged, long unhandled, Timing latency, long[] histogram, Timing queueWait, Map<String, Timing> listeners, Map<String, Timing> services) {
+
+        /**
+         * Estimates a latency percentile from the histogram.
+         *
+         * @param percentile percentile between 0 and 1 e.g. 0.99
+         * @return upper bound of the histogram bucket in milliseconds
+         */
+        public double percentileMs(final double percentile) {
+            final long total = dispatched;
+            if (total == 0)
+                return 0;
+            final long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank)
+                    return (1L << i) / 1000d;
+            }
+            return latency.maxMs();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                "name=" + name +
+                ", dispatched=" + dispatched +
+                ", acknowledged=" + acknowledged +
+                ", unhandled=" + unhandled +
+                ", avgMs=" + latency.avgMs() +
+                ", maxMs=" + latency.maxMs() +
+                '}';
+        }
+    }
+}
@@ -17,9 +17,15 @@ public class EventType {
     // Used to set the log level for the application
     public static final int EVENT_APP_LOG_LEVEL = EventTypeRegister.registerEventType("APP_LOGLEVEL");
 
+    // Used to set the log level of a package or class, use LoggerLevel
+    public static final int EVENT_APP_LOGGER_LEVEL = EventTypeRegister.registerEventType("APP_LOGGER_LEVEL");
+
     // Event to handle asynchronous logging
     public static final int EVENT_APP_LOG_QUEUE = EventTypeRegister.registerEventType("APP_LOG_QUEUE_EVENT");
 
+    // Used to set the log rate limits for the application, use LogRateLimit
+    public static final int EVENT_APP_LOG_RATE_LIMIT = EventTypeRegister.registerEventType("APP_LOG_RATE_LIMIT");
+
     // Event to set the log formatter
     public static final int EVENT_APP_LOG_FORMATTER = EventTypeRegister.registerEventType("APP_LOG_FORMATTER_EVENT");
 
@@ -44,6 +50,9 @@ public class EventType {
     // MetricService updates metrics, use MetricUpdate
     public static final int EVENT_METRIC_UPDATE = EventTypeRegister.registerEventType("EVENT_METRIC_UPDATE");
 
+    // MetricService registers periodic collectors, use MetricCollector
+    public static final int EVENT_METRIC_COLLECTOR = EventTypeRegister.registerEventType("EVENT_METRIC_COLLECTOR");
+
     // Http request usually comes from HttpService
     public static final int EVENT_HTTP_REQUEST = EventTypeRegister.registerEventType("HTTP_REQUEST");
 
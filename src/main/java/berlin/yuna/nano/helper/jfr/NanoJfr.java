@@ -0,0 +1,118 @@
+package berlin.yuna.nano.helper.jfr;
+
+import berlin.yuna.nano.helper.jfr.model.JfrNanoEvent;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates and commits the JDK Flight Recorder events of {@link berlin.yuna.nano.core.Nano}.
+ * <p>
+ * The events are only created while a recording is running and the events are enabled (see {@link berlin.yuna.nano.core.model.Config#CONFIG_JFR_EVENTS}).
+ * A {@link FlightRecorderListener} tracks the running recordings, so without a recording no event object is allocated.
+ * Events faster than the threshold (see {@link berlin.yuna.nano.core.model.Config#CONFIG_JFR_THRESHOLD_MS}) are not committed.
+ * </p>
+ * Usage Example:
+ * <pre>
+ * final JfrSchedulerRun jfr = NanoJfr.begin(JfrSchedulerRun::new);
+ * task.run();
+ * if (NanoJfr.shouldCommit(jfr)) {
+ *     jfr.scheduler = scheduler.id();
+ *     jfr.commit();
+ * }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NanoJfr {
+
+    private static volatile boolean enabled = true;
+    private static volatile long thresholdNs = 0;
+    private static volatile boolean recording = false;
+
+    static {
+        try {
+            // doesn't initialize the recorder, the listener is called once it is initialized
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(final FlightRecorder recorder) {
+                    updateRecording(recorder);
+                }
+
+                @Override
+                public void recordingStateChanged(final Recording changed) {
+                    updateRecording(FlightRecorder.getFlightRecorder());
+                }
+            });
+        } catch (final SecurityException | IllegalStateException ignored) {
+            // JFR is not available - events stay disabled
+        }
+    }
+
+    /**
+     * Configures the Nano JFR events.
+     *
+     * @param enabled     <code>false</code> disables all Nano JFR events
+     * @param thresholdMs minimum duration of an event to be committed
+     */
+    public static void configure(final boolean enabled, final long thresholdMs) {
+        NanoJfr.enabled = enabled;
+        NanoJfr.thresholdNs = Math.max(0, thresholdMs) * 1_000_000L;
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static long thresholdMs() {
+        return thresholdNs / 1_000_000L;
+    }
+
+    /**
+     * @return <code>true</code> while at least one JFR recording is running
+     */
+    public static boolean recording() {
+        return recording;
+    }
+
+    /**
+     * Creates and begins an event.
+     *
+     * @param event supplier of the event
+     * @param <T>   type of the event
+     * @return the started event or <code>null</code> if the events are disabled or no recording is running
+     */
+    public static <T extends JfrNanoEvent> T begin(final Supplier<T> event) {
+        if (!enabled || !recording)
+            return null;
+        final T result = event.get();
+        if (!result.isEnabled())
+            return null;
+        result.startNs = System.nanoTime();
+        result.begin();
+        return result;
+    }
+
+    /**
+     * Ends the event and checks if it should be committed.
+     *
+     * @param event the event from {@link NanoJfr#begin(Supplier)}, can be <code>null</code>
+     * @return <code>true</code> if the event exceeds the threshold and should be committed
+     */
+    public static boolean shouldCommit(final JfrNanoEvent event) {
+        if (event == null)
+            return false;
+        event.end();
+        return System.nanoTime() - event.startNs >= thresholdNs && event.shouldCommit();
+    }
+
+    protected static void updateRecording(final FlightRecorder recorder) {
+        recording = recorder.getRecordings().stream().anyMatch(running -> running.getState() == RecordingState.RUNNING);
+    }
+
+    private NanoJfr() {
+        // static util class
+    }
+}
@@ -0,0 +1,234 @@
+package berlin.yuna.nano.helper.jfr;
+
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Streams the virtual thread events of the JDK Flight Recorder and counts them.
+ * <ul>
+ *     <li>{@code jdk.VirtualThreadPinned} - a virtual thread blocked while pinned to its carrier thread</li>
+ *     <li>{@code jdk.VirtualThreadSubmitFailed} - a virtual thread could not be scheduled</li>
+ * </ul>
+ * The stream runs in its own daemon thread, the counters are cheap to read from any thread.
+ * Pinned events are aggregated by their site - the first frames outside the JDK, which usually hold the monitor.
+ * {@link VirtualThreadEvents#logSummary(NanoLogger)} reports the sites which pinned since the last summary.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class VirtualThreadEvents implements AutoCloseable {
+
+    public static final String EVENT_PINNED = "jdk.VirtualThreadPinned";
+    public static final String EVENT_SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    public static final int MAX_SITES = 256;
+    public static final int SITE_FRAMES = 3;
+    public static final String SITE_OTHER = "other";
+    public static final String SITE_UNKNOWN = "unknown";
+    protected final LongAdder pinned = new LongAdder();
+    protected final LongAdder pinnedNs = new LongAdder();
+    protected final AtomicLong pinnedMaxNs = new AtomicLong();
+    protected final LongAdder submitFailed = new LongAdder();
+    protected final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    protected final Duration threshold;
+    protected volatile RecordingStream stream;
+
+    /**
+     * @param threshold minimum duration of a pinned virtual thread to be counted
+     */
+    public VirtualThreadEvents(final Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts the event stream. Does nothing if the stream is already running.
+     *
+     * @return self for chaining
+     */
+    public synchronized VirtualThreadEvents start() {
+        if (stream == null) {
+            final RecordingStream recordingStream = new RecordingStream();
+            recordingStream.enable(EVENT_PINNED).withThreshold(threshold).withStackTrace();
+            recordingStream.enable(EVENT_SUBMIT_FAILED);
+            recordingStream.onEvent(EVENT_PINNED, this::onPinned);
+            recordingStream.onEvent(EVENT_SUBMIT_FAILED, event -> submitFailed.increment());
+            recordingStream.startAsync();
+            stream = recordingStream;
+        }
+        return this;
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public long pinned() {
+        return pinned.sum();
+    }
+
+    public long pinnedNs() {
+        return pinnedNs.sum();
+    }
+
+    public long pinnedMaxNs() {
+        return pinnedMaxNs.get();
+    }
+
+    public long submitFailed() {
+        return submitFailed.sum();
+    }
+
+    /**
+     * @return pinned sites sorted by the total pinned time, highest first
+     */
+    public List<PinnedSite> sites() {
+        return sites.values().stream().sorted(Comparator.comparingLong(PinnedSite::totalNs).reversed()).toList();
+    }
+
+    /**
+     * Logs a WARN summary of the sites which pinned virtual threads since the last summary. Logs nothing if there were none.
+     *
+     * @param logger logger for the summary
+     * @param limit  maximum of reported sites
+     * @return number of pinned events since the last summary
+     */
+    public long logSummary(final NanoLogger logger, final int limit) {
+        final List<long[]> deltas = new ArrayList<>();
+        final List<PinnedSite> changed = sites().stream().filter(site -> {
+            final long[] delta = site.drain();
+            if (delta[0] == 0)
+                return false;
+            deltas.add(delta);
+            return true;
+        }).toList();
+        final long total = deltas.stream().mapToLong(delta -> delta[0]).sum();
+        if (total > 0) {
+            final String top = IntStream.range(0, Math.min(limit, changed.size()))
+                .mapToObj(i -> changed.get(i).site() + " [" + deltas.get(i)[0] + "x, " + deltas.get(i)[1] / 1_000_000 + "ms]")
+                .collect(Collectors.joining(", "));
+            logger.warn(() -> "Pinned virtual threads [{}] at [{}] sites: {}", total, changed.size(), top);
+        }
+        return total;
+    }
+
+    public long logSummary(final NanoLogger logger) {
+        return logSummary(logger, 5);
+    }
+
+    protected void onPinned(final RecordedEvent event) {
+        final long durationNs = event.getDuration().toNanos();
+        pinned.increment();
+        pinnedNs.add(durationNs);
+        pinnedMaxNs.accumulateAndGet(durationNs, Math::max);
+        final String site = siteOf(event.getStackTrace());
+        final PinnedSite stats = sites.get(site);
+        (stats != null ? stats : sites.computeIfAbsent(sites.size() < MAX_SITES ? site : SITE_OTHER, PinnedSite::new)).record(durationNs);
+    }
+
+    /**
+     * @param stackTrace stack trace of a pinned event, can be null
+     * @return the first frames outside the JDK e.g. "com.example.Repo.save:42 < com.example.Service.handle:17"
+     */
+    protected static String siteOf(final RecordedStackTrace stackTrace) {
+        if (stackTrace == null)
+            return SITE_UNKNOWN;
+        final String result = stackTrace.getFrames().stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .filter(frame -> !isJdkType(frame.getMethod().getType().getName()))
+            .limit(SITE_FRAMES)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+            .collect(Collectors.joining(" < "));
+        return result.isEmpty() ? SITE_UNKNOWN : result;
+    }
+
+    protected static boolean isJdkType(final String typeName) {
+        return typeName.startsWith("java.") || typeName.startsWith("jdk.") || typeName.startsWith("sun.") || typeName.startsWith("javax.");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" +
+            "running=" + isRunning() +
+            ", pinned=" + pinned() +
+            ", sites=" + sites.size() +
+            ", submitFailed=" + submitFailed() +
+            '}';
+    }
+
+    /**
+     * Pinned events of one site.
+     */
+    public static class PinnedSite {
+        protected final String site;
+        protected final LongAdder count = new LongAdder();
+        protected final LongAdder totalNs = new LongAdder();
+        protected final AtomicLong maxNs = new AtomicLong();
+        protected long reportedCount;
+        protected long reportedNs;
+
+        public PinnedSite(final String site) {
+            this.site = site;
+        }
+
+        public String site() {
+            return site;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNs() {
+            return totalNs.sum();
+        }
+
+        public long maxNs() {
+            return maxNs.get();
+        }
+
+        protected PinnedSite record(final long durationNs) {
+            count.increment();
+            totalNs.add(durationNs);
+            maxNs.accumulateAndGet(durationNs, Math::max);
+            return this;
+        }
+
+        // count and time since the last call
+        protected synchronized long[] drain() {
+            final long currentCount = count();
+            final long currentNs = totalNs();
+            final long[] result = {currentCount - reportedCount, currentNs - reportedNs};
+            reportedCount = currentCount;
+            reportedNs = currentNs;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "PinnedSite{" +
+                "site='" + site + '\'' +
+                ", count=" + count() +
+                ", totalNs=" + totalNs() +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package berlin.yuna.nano.helper.jfr.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("berlin.yuna.nano.EventDispatch")
+@Label("Event Dispatch")
+@Category({"Nano", "Event"})
+@Description("Dispatch of an event to the listeners and services")
+@StackTrace(false)
+public class JfrEventDispatch extends JfrNanoEvent {
+
+    @Label("Type")
+    public String type;
+
+    @Label("Broadcast")
+    public boolean broadcast;
+
+    @Label("Acknowledged")
+    public boolean acknowledged;
+
+    @Label("Handler")
+    @Description("Listener or service which acknowledged the event")
+    public String handler;
+}
@@ -0,0 +1,29 @@
+package berlin.yuna.nano.helper.jfr.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("berlin.yuna.nano.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"Nano", "HTTP"})
+@Description("Handling of an incoming HTTP request")
+@StackTrace(false)
+public class JfrHttpExchange extends JfrNanoEvent {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    public String route;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,24 @@
+package berlin.yuna.nano.helper.jfr.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("berlin.yuna.nano.LogQueueWait")
+@Label("Log Queue Wait")
+@Category({"Nano", "Logging"})
+@Description("Time a log call waited to enter the log queue")
+@StackTrace(false)
+public class JfrLogQueueWait extends JfrNanoEvent {
+
+    @Label("Logger")
+    public String logger;
+
+    @Label("Level")
+    public String level;
+
+    @Label("Queue Size")
+    public int queueSize;
+}
@@ -0,0 +1,14 @@
+package berlin.yuna.nano.helper.jfr.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+
+/**
+ * Base of all Nano JDK Flight Recorder events (see {@link berlin.yuna.nano.helper.jfr.NanoJfr}).
+ */
+@Category("Nano")
+public abstract class JfrNanoEvent extends Event {
+
+    // transient fields are not part of the recording
+    public transient long startNs;
+}
@@ -0,0 +1,24 @@
+package berlin.yuna.nano.helper.jfr.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("berlin.yuna.nano.SchedulerRun")
+@Label("Scheduler Run")
+@Category({"Nano", "Scheduler"})
+@Description("Execution of a scheduled task")
+@StackTrace(false)
+public class JfrSchedulerRun extends JfrNanoEvent {
+
+    @Label("Scheduler")
+    public String scheduler;
+
+    @Label("Periodic")
+    public boolean periodic;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,33 @@
+package berlin.yuna.nano.helper.logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Handler;
+
+/**
+ * Register of additional log handlers (e.g. {@link berlin.yuna.nano.helper.logger.model.LogFileHandler}).
+ * Every {@link berlin.yuna.nano.helper.logger.logic.NanoLogger} adds the registered handlers next to the console handlers.
+ */
+@SuppressWarnings("unused")
+public class LogHandlerRegister {
+
+    @SuppressWarnings("java:S2386")
+    public static final Map<String, Handler> LOG_HANDLERS = new ConcurrentHashMap<>();
+
+    public static void registerLogHandler(final String id, final Handler handler) {
+        LOG_HANDLERS.put(id, handler);
+    }
+
+    public static Handler getLogHandler(final String id, final Supplier<Handler> orRegister) {
+        return LOG_HANDLERS.computeIfAbsent(id, handler -> orRegister.get());
+    }
+
+    public static Handler removeLogHandler(final String id) {
+        return LOG_HANDLERS.remove(id);
+    }
+
+    private LogHandlerRegister() {
+        // static util class
+    }
+}
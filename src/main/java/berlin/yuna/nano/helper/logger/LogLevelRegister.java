@@ -0,0 +1,110 @@
+package berlin.yuna.nano.helper.logger;
+
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static berlin.yuna.nano.core.NanoBase.standardiseKey;
+
+/**
+ * Register of package and class log levels, e.g. {@code app_log_level_berlin.yuna.nano.services.http=TRACE}.
+ * <p>
+ * The most specific package or class wins, loggers without a match use their own level.
+ * Every {@link NanoLogger} caches its resolved level and registers itself weakly with {@link LogLevelRegister#registerLogger(NanoLogger)}.
+ * A change of the levels resolves the level of all registered loggers again, so logging only reads the cached level and never locks.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public class LogLevelRegister {
+
+    public static final String CONFIG_PREFIX = "app_log_level_";
+    private static volatile Map<String, LogLevel> levels = Map.of();
+    // loggers to resolve again after a change, weak so loggers of finished contexts stay collectable
+    private static final Set<Reference<NanoLogger>> LOGGERS = ConcurrentHashMap.newKeySet();
+    private static final ReferenceQueue<NanoLogger> COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * Sets the level of a package or class, existing loggers pick it up on their next log call.
+     *
+     * @param name  package or class name
+     * @param level log level, null removes the level
+     */
+    public static void registerLogLevel(final String name, final LogLevel level) {
+        synchronized (LogLevelRegister.class) {
+            final Map<String, LogLevel> result = new HashMap<>(levels);
+            if (level == null) {
+                result.remove(standardiseKey(name));
+            } else {
+                result.put(standardiseKey(name), level);
+            }
+            levels = Map.copyOf(result);
+            for (final Reference<NanoLogger> reference : LOGGERS) {
+                final NanoLogger logger = reference.get();
+                if (logger != null)
+                    logger.refreshLevel();
+            }
+        }
+    }
+
+    /**
+     * Registers a logger which resolves its level again after every change of the levels.
+     * The logger has to register before it resolves its level, so it can't miss a concurrent change.
+     *
+     * @param logger logger to refresh, referenced weakly
+     */
+    public static void registerLogger(final NanoLogger logger) {
+        Reference<? extends NanoLogger> collected;
+        while ((collected = COLLECTED.poll()) != null)
+            LOGGERS.remove(collected);
+        LOGGERS.add(new WeakReference<>(logger, COLLECTED));
+    }
+
+    /**
+     * Registers all levels from config keys with the prefix {@link LogLevelRegister#CONFIG_PREFIX}.
+     *
+     * @param configs configs e.g. from {@link berlin.yuna.nano.core.model.Context}
+     */
+    public static void registerLogLevels(final Map<?, ?> configs) {
+        new HashMap<>(configs).forEach((key, value) -> {
+            final String name = standardiseKey(key);
+            if (name != null && name.startsWith(CONFIG_PREFIX) && name.length() > CONFIG_PREFIX.length() && value != null)
+                registerLogLevel(name.substring(CONFIG_PREFIX.length()), LogLevel.nanoLogLevelOf(value.toString()));
+        });
+    }
+
+    /**
+     * Resolves the level of the most specific registered package or class.
+     *
+     * @param loggerName name of the logger, usually the class name
+     * @return the registered level or null
+     */
+    public static LogLevel logLevelOf(final String loggerName) {
+        final Map<String, LogLevel> current = levels;
+        if (current.isEmpty() || loggerName == null)
+            return null;
+        String name = loggerName;
+        while (true) {
+            final LogLevel level = current.get(standardiseKey(name));
+            final int dot = name.lastIndexOf('.');
+            if (level != null || dot < 1)
+                return level;
+            name = name.substring(0, dot);
+        }
+    }
+
+    public static Map<String, LogLevel> logLevels() {
+        return Collections.unmodifiableMap(levels);
+    }
+
+    private LogLevelRegister() {
+        // static util class
+    }
+}
@@ -0,0 +1,234 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.helper.logger.LogFormatRegister;
+import berlin.yuna.nano.helper.logger.model.LogContext;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.NanoLogRecord;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+import java.util.zip.GZIPInputStream;
+
+import static berlin.yuna.nano.helper.logger.logic.LogBinaryEncoder.*;
+import static berlin.yuna.typemap.config.TypeConversionRegister.registerTypeConvert;
+
+/**
+ * Decodes files of the binary log format (see {@link LogBinaryEncoder}) back to {@link LogRecord}s.
+ * <p>
+ * Usage Example:
+ * <pre>
+ * java -cp nano.jar berlin.yuna.nano.helper.logger.logic.LogBinaryDecoder json logs/app.nlog logs/app.20240101-000000-000.nlog.gz
+ * </pre>
+ * The first argument is the optional formatter id [json, console], default is console.
+ * Files ending with ".gz" are decompressed on the fly.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogBinaryDecoder {
+
+    static {
+        registerTypeConvert(LoggedError.class, String.class, Throwable::getMessage);
+    }
+
+    protected static final LogLevel[] LEVELS = LogLevel.values();
+    protected final InputStream in;
+    protected final List<String> strings = new ArrayList<>();
+    protected long lastMillis;
+
+    public LogBinaryDecoder(final InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024);
+    }
+
+    public static void main(final String... args) throws IOException {
+        final boolean hasFormat = args.length > 0 && ("json".equalsIgnoreCase(args[0]) || "console".equalsIgnoreCase(args[0]));
+        final Formatter formatter = LogFormatRegister.getLogFormatter(hasFormat ? args[0].toLowerCase() : "console");
+        for (int i = hasFormat ? 1 : 0; i < args.length; i++)
+            decode(Path.of(args[i]), formatter, System.out);
+    }
+
+    /**
+     * Decodes a file and prints every record with the given formatter.
+     *
+     * @param file      binary log file, optionally compressed with gzip
+     * @param formatter formatter e.g. {@link LogFormatterJson}
+     * @param out       target
+     * @return number of decoded records
+     * @throws IOException if the file could not be read or is not a binary log file
+     */
+    public static long decode(final Path file, final Formatter formatter, final PrintStream out) throws IOException {
+        try (final InputStream in = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(Files.newInputStream(file), 64 * 1024) : Files.newInputStream(file)) {
+            return new LogBinaryDecoder(in).decode(logRecord -> out.print(formatter.format(logRecord)));
+        }
+    }
+
+    /**
+     * Decodes all records of the stream.
+     *
+     * @param consumer receives every decoded record
+     * @return number of decoded records
+     * @throws IOException if the stream could not be read or is not a binary log stream
+     */
+    public long decode(final Consumer<LogRecord> consumer) throws IOException {
+        long count = 0;
+        int tag;
+        while ((tag = in.read()) != -1) {
+            switch (tag) {
+                case 'N' -> readHeader();
+                case TAG_DEFINE -> define((int) readVarLong(), readString());
+                case TAG_RECORD -> {
+                    consumer.accept(readRecord());
+                    count++;
+                }
+                default -> throw new IOException("Invalid binary log tag [" + tag + "]");
+            }
+        }
+        return count;
+    }
+
+    protected void readHeader() throws IOException {
+        for (int i = 1; i < HEADER.length - 1; i++) {
+            if (readByte() != HEADER[i])
+                throw new IOException("Invalid binary log header");
+        }
+        final int version = readByte();
+        if (version != HEADER[HEADER.length - 1])
+            throw new IOException("Unsupported binary log version [" + version + "]");
+        strings.clear();
+        lastMillis = 0;
+    }
+
+    protected LogRecord readRecord() throws IOException {
+        final int ordinal = readByte();
+        if (ordinal >= LEVELS.length)
+            throw new IOException("Invalid binary log level [" + ordinal + "]");
+        final LogLevel level = LEVELS[ordinal];
+        lastMillis += unzigzag(readVarLong());
+        final long threadId = readVarLong();
+        final String logger = readRef();
+        final String template = readRef();
+        final Object[] params = new Object[(int) readVarLong()];
+        for (int i = 0; i < params.length; i++)
+            params[i] = readValue();
+        final Object error = readValue();
+        final Object traceId = readValue();
+        final String service = readRef();
+
+        final LogRecord result = new NanoLogRecord(level.toJavaLogLevel(), template, traceId == null && service.isEmpty()
+            ? null
+            : new LogContext(traceId == null ? null : traceId.toString(), service.isEmpty() ? null : service));
+        result.setInstant(Instant.ofEpochMilli(lastMillis));
+        result.setLongThreadID(threadId);
+        result.setLoggerName(logger);
+        result.setParameters(params.length == 0 ? null : params);
+        if (error != null)
+            result.setThrown(new LoggedError(error.toString()));
+        return result;
+    }
+
+    protected void define(final int id, final String value) {
+        while (strings.size() <= id)
+            strings.add(null);
+        strings.set(id, value);
+    }
+
+    protected String readRef() throws IOException {
+        final long ref = readVarLong();
+        if (ref == 0)
+            return readString();
+        if (ref > strings.size())
+            throw new IOException("Undefined binary log string [" + (ref - 1) + "]");
+        return strings.get((int) ref - 1);
+    }
+
+    protected Object readValue() throws IOException {
+        final int type = readByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> readString();
+            case TYPE_INT -> (int) unzigzag(readVarLong());
+            case TYPE_LONG -> unzigzag(readVarLong());
+            case TYPE_DOUBLE -> Double.longBitsToDouble(readFixed(8));
+            case TYPE_FLOAT -> Float.intBitsToFloat((int) readFixed(4));
+            case TYPE_TRUE -> true;
+            case TYPE_FALSE -> false;
+            case TYPE_MAP -> {
+                final int size = (int) readVarLong();
+                final Map<Object, Object> result = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++)
+                    result.put(readValue(), readValue());
+                yield result;
+            }
+            default -> throw new IOException("Invalid binary log value type [" + type + "]");
+        };
+    }
+
+    protected String readString() throws IOException {
+        final int length = (int) readVarLong();
+        final byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length)
+            throw new EOFException("Unexpected end of binary log");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new IOException("Invalid binary log varint");
+    }
+
+    protected long readFixed(final int length) throws IOException {
+        long result = 0;
+        for (int i = 0; i < length; i++)
+            result |= (long) readByte() << (8 * i);
+        return result;
+    }
+
+    protected int readByte() throws IOException {
+        final int result = in.read();
+        if (result == -1)
+            throw new EOFException("Unexpected end of binary log");
+        return result;
+    }
+
+    protected static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Error of a decoded record, which contains only the logged text of the original error.
+     */
+    public static class LoggedError extends Throwable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        public LoggedError(final String text) {
+            super(text, null, false, false);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
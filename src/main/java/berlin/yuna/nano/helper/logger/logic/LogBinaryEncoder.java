@@ -0,0 +1,216 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.helper.logger.model.LogContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.LogRecord;
+
+import static berlin.yuna.nano.helper.logger.model.LogLevel.nanoLogLevelOf;
+import static berlin.yuna.nano.helper.logger.model.NanoLogRecord.logContextOf;
+import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
+
+/**
+ * Encodes log records into the compact binary log format. {@link LogBinaryDecoder} renders them back to JSON or console text.
+ * <p>
+ * Message templates and logger names are written once per file and referenced by id afterward.
+ * Timestamps are written as delta to the previous record, numbers as zigzag varint and parameters with a type tag,
+ * so the message is never formatted while logging.
+ * </p>
+ * <pre>
+ * file   = header {define | record}
+ * header = "NLOG" version                         (resets ids and timestamp)
+ * define = 1 varint(id) string
+ * record = 2 level varint(millis delta) varint(thread id) ref(logger) ref(template) varint(param count) {value} value(error) value(trace id) ref(service)
+ * ref    = varint(0) string | varint(id + 1)
+ * value  = type [string | varint | double | float | varint(size) {value value}]
+ * </pre>
+ * <p>
+ * The encoder is stateful and not thread safe, it's used under the lock of the {@link berlin.yuna.nano.helper.logger.model.LogBinaryFileHandler}.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogBinaryEncoder {
+
+    public static final byte[] HEADER = {'N', 'L', 'O', 'G', 2};
+    public static final int MAX_STRINGS = 4096;
+    protected static final int TAG_DEFINE = 1;
+    protected static final int TAG_RECORD = 2;
+    protected static final int TYPE_NULL = 0;
+    protected static final int TYPE_STRING = 1;
+    protected static final int TYPE_INT = 2;
+    protected static final int TYPE_LONG = 3;
+    protected static final int TYPE_DOUBLE = 4;
+    protected static final int TYPE_FLOAT = 5;
+    protected static final int TYPE_TRUE = 6;
+    protected static final int TYPE_FALSE = 7;
+    protected static final int TYPE_MAP = 8;
+    protected final Map<String, Integer> strings = new HashMap<>();
+    protected long lastMillis;
+    protected byte[] bytes = new byte[512];
+    protected int size;
+
+    /**
+     * Forgets all written ids and timestamps - required for every new file.
+     *
+     * @return self for chaining
+     */
+    public LogBinaryEncoder reset() {
+        strings.clear();
+        lastMillis = 0;
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Encodes a record, the result is available at {@link LogBinaryEncoder#bytes()} until the next call.
+     *
+     * @param logRecord record to encode
+     * @return self for chaining
+     */
+    public LogBinaryEncoder encode(final LogRecord logRecord) {
+        size = 0;
+        // definitions need to be written in front of the record
+        final int logger = stringId(logRecord.getLoggerName());
+        final int template = stringId(logRecord.getMessage());
+        final LogContext logContext = logContextOf(logRecord);
+        final int service = logContext == null ? -1 : stringId(logContext.service());
+        final Object[] params = logRecord.getParameters();
+
+        writeByte(TAG_RECORD);
+        writeByte(nanoLogLevelOf(logRecord.getLevel()).ordinal());
+        writeVarLong(zigzag(logRecord.getMillis() - lastMillis));
+        writeVarLong(logRecord.getLongThreadID());
+        writeRef(logger, logRecord.getLoggerName());
+        writeRef(template, logRecord.getMessage());
+        writeVarLong(params == null ? 0 : params.length);
+        if (params != null) {
+            for (final Object param : params)
+                writeValue(param);
+        }
+        writeValue(logRecord.getThrown() == null ? null : convertObj(logRecord.getThrown(), String.class));
+        writeValue(logContext == null ? null : logContext.traceId());
+        writeRef(service, logContext == null ? null : logContext.service());
+        lastMillis = logRecord.getMillis();
+        return this;
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of a string and writes its definition on the first use.
+     *
+     * @param value string
+     * @return id or -1 if the string is written inline
+     */
+    protected int stringId(final String value) {
+        if (value == null)
+            return -1;
+        final Integer id = strings.get(value);
+        if (id != null)
+            return id;
+        if (strings.size() >= MAX_STRINGS)
+            return -1;
+        final int result = strings.size();
+        strings.put(value, result);
+        writeByte(TAG_DEFINE);
+        writeVarLong(result);
+        writeString(value);
+        return result;
+    }
+
+    protected void writeRef(final int id, final String value) {
+        if (id < 0) {
+            writeVarLong(0);
+            writeString(value == null ? "" : value);
+        } else {
+            writeVarLong(id + 1L);
+        }
+    }
+
+    protected void writeValue(final Object value) {
+        switch (value) {
+            case null -> writeByte(TYPE_NULL);
+            case final String string -> {
+                writeByte(TYPE_STRING);
+                writeString(string);
+            }
+            case final Integer number -> writeNumber(TYPE_INT, number);
+            case final Short number -> writeNumber(TYPE_INT, number);
+            case final Byte number -> writeNumber(TYPE_INT, number);
+            case final Long number -> writeNumber(TYPE_LONG, number);
+            case final Double number -> {
+                writeByte(TYPE_DOUBLE);
+                writeFixed(Double.doubleToRawLongBits(number), 8);
+            }
+            case final Float number -> {
+                writeByte(TYPE_FLOAT);
+                writeFixed(Float.floatToRawIntBits(number), 4);
+            }
+            case final Boolean bool -> writeByte(bool ? TYPE_TRUE : TYPE_FALSE);
+            case final Map<?, ?> map -> {
+                writeByte(TYPE_MAP);
+                writeVarLong(map.size());
+                for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            }
+            default -> {
+                writeByte(TYPE_STRING);
+                writeString(convertObj(value, String.class));
+            }
+        }
+    }
+
+    protected void writeNumber(final int type, final long value) {
+        writeByte(type);
+        writeVarLong(zigzag(value));
+    }
+
+    protected void writeString(final String value) {
+        final byte[] utf8 = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(utf8.length);
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+    }
+
+    protected void writeVarLong(final long value) {
+        ensureCapacity(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[size++] = (byte) remaining;
+    }
+
+    protected void writeFixed(final long value, final int length) {
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++)
+            bytes[size++] = (byte) (value >>> (8 * i));
+    }
+
+    protected void writeByte(final int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+    }
+
+    protected void ensureCapacity(final int additional) {
+        if (size + additional > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+    }
+
+    protected static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -1,6 +1,7 @@
 package berlin.yuna.nano.helper.logger.logic;
 
 import berlin.yuna.nano.helper.NanoUtils;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 
 import java.text.SimpleDateFormat;
@@ -12,6 +13,7 @@ import java.util.logging.LogRecord;
 import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
 import static berlin.yuna.nano.helper.logger.logic.NanoLogger.MAX_LOG_NAME_LENGTH;
 import static berlin.yuna.nano.helper.logger.model.LogLevel.nanoLogLevelOf;
+import static berlin.yuna.nano.helper.logger.model.NanoLogRecord.logContextOf;
 
 /**
  * Formatter for logging messages to the console.
@@ -19,7 +21,7 @@ import static berlin.yuna.nano.helper.logger.model.LogLevel.nanoLogLevelOf;
  * This formatter provides a consistent log format comprising the timestamp, log level, logger name, and message.
  * The formatted log entries are easy to read and allow for quick scanning of log files. The log format is as follows:
  * <pre>
- * [Timestamp] [Log Level] [Logger Name] - Message
+ * [Timestamp] [Log Level] [Logger Name] [Trace ID] - Message
  * </pre>
  * <p>
  * The formatter supports parameterized messages, allowing insertion of values at runtime. To include dynamic content in your log messages,
@@ -56,6 +58,7 @@ public class LogFormatterConsole extends Formatter {
                 .append(String.format("%-" + paddingLogLevel + "s", nanoLogLevelOf(logRecord.getLevel())))
                 .append("] [")
                 .append(formatLoggerName(logRecord))
+                .append(formatTraceId(logRecord))
                 .append("] - ")
                 .append(applyCustomFormat(formatMessage(logRecord), logRecord.getParameters()))
                 .append(NanoUtils.LINE_SEPARATOR);
@@ -71,6 +74,11 @@ public class LogFormatterConsole extends Formatter {
         return String.format("%-" + MAX_LOG_NAME_LENGTH.get() + "s", (dot != -1 ? logRecord.getLoggerName().substring(dot + 1) : logRecord.getLoggerName()));
     }
 
+    protected static String formatTraceId(final LogRecord logRecord) {
+        final LogContext logContext = logContextOf(logRecord);
+        return logContext == null || logContext.traceId() == null ? "" : "] [" + logContext.traceId();
+    }
+
     /**
      * Replacing placeholders with parameters.
      *
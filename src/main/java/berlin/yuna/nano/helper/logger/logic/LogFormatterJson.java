@@ -1,18 +1,23 @@
 package berlin.yuna.nano.helper.logger.logic;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import berlin.yuna.nano.helper.logger.model.LogContext;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static berlin.yuna.typemap.logic.TypeConverter.convertObj;
 import static berlin.yuna.nano.helper.NanoUtils.LINE_SEPARATOR;
 import static berlin.yuna.nano.helper.logger.model.LogLevel.nanoLogLevelOf;
+import static berlin.yuna.nano.helper.logger.model.NanoLogRecord.logContextOf;
 
 /**
  * A log formatter that outputs log records in JSON format.
@@ -36,10 +41,19 @@ import static berlin.yuna.nano.helper.logger.model.LogLevel.nanoLogLevelOf;
  * <p>
  * The formatter handles exceptions by appending a "error" field with the exception message to the JSON log entry.
  * </p>
+ * <p>
+ * The formatter is thread safe. It writes the JSON directly into a reusable {@link StringBuilder} of the formatter, which fits the
+ * single consumer of the {@link LogQueue} also on virtual threads, parses each message template only once and formats the timestamp only once per millisecond.
+ * Fixed fields and the {@link LogContext} of the logger take precedence over the keys of map parameters, which take precedence over the keys from the message.
+ * </p>
  */
 public class LogFormatterJson extends Formatter {
-    protected final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-    protected static final Pattern MESSAGE_KEY_VALUE_PATTERN = Pattern.compile("(\\w+):?\\s*\\[\\{\\}]");
+    protected static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    protected static final int MAX_TEMPLATES = 4096;
+    protected final Map<String, Template> templates = new ConcurrentHashMap<>();
+    // taken by the formatting thread, concurrent callers allocate their own builder
+    protected final AtomicReference<StringBuilder> buffer = new AtomicReference<>(new StringBuilder(512));
+    protected volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, "");
 
     /**
      * Formats a log record into a JSON string.
@@ -50,67 +64,85 @@ public class LogFormatterJson extends Formatter {
     @Override
     public String format(final LogRecord logRecord) {
         final Object[] params = logRecord.getParameters();
-        final Map<String, String> jsonMap = new TreeMap<>();
-        final String message = LogFormatterConsole.applyCustomFormat(logRecord.getMessage(), params);
-        final int dot = logRecord.getLoggerName().lastIndexOf(".");
-        extractKeyValuesFromMessage(jsonMap, logRecord.getMessage(), params);
-        addJsonEntries(jsonMap, params);
-
-        putEntry(jsonMap, "message", message);
-        putEntry(jsonMap, "timestamp", dateFormat.format(new Date(logRecord.getMillis())));
-        putEntry(jsonMap, "level", nanoLogLevelOf(logRecord.getLevel()));
-        putEntry(jsonMap, "package", dot != -1 ? logRecord.getLoggerName().substring(0, dot) : "");
-        putEntry(jsonMap, "logger", dot != -1 ? logRecord.getLoggerName().substring(dot + 1) : logRecord.getLoggerName());
-        if (logRecord.getThrown() != null) {
-            putEntry(jsonMap, "error", jsonEscape(convertObj(logRecord.getThrown(), String.class)));
-        }
-        return "{" + jsonMap.entrySet().stream().map(entry -> "\"" + entry.getKey() + "\":\"" + entry.getValue() + "\"").collect(Collectors.joining(",")) + "}" + LINE_SEPARATOR;
-    }
-
-    /**
-     * Extracts key-value pairs from the message and stores them in a map.
-     *
-     * @param jsonMap The map to store the key-value pairs.
-     * @param message The log message.
-     * @param params  The parameters for the log message.
-     */
-    protected void extractKeyValuesFromMessage(final Map<String, String> jsonMap, final String message, final Object[] params) {
-        final Matcher matcher = MESSAGE_KEY_VALUE_PATTERN.matcher(message);
+        final String loggerName = logRecord.getLoggerName();
+        final Template template = templateOf(logRecord.getMessage());
+        final int dot = loggerName == null ? -1 : loggerName.lastIndexOf('.');
+        final List<String> keys = new ArrayList<>(8);
+        final StringBuilder sb = takeBuffer();
 
-        int index = 0;
-        while (matcher.find() && params != null && index < params.length) {
-            putEntry(jsonMap, matcher.group(1), params[index]);
-            index++;
+        sb.append('{');
+        writeEntry(sb, keys, "message", template.format(logRecord.getMessage(), params));
+        writeEntry(sb, keys, "timestamp", timestamp(logRecord.getMillis()));
+        writeEntry(sb, keys, "level", nanoLogLevelOf(logRecord.getLevel()));
+        writeEntry(sb, keys, "package", dot != -1 ? loggerName.substring(0, dot) : "");
+        writeEntry(sb, keys, "logger", dot != -1 ? loggerName.substring(dot + 1) : loggerName);
+        final LogContext logContext = logContextOf(logRecord);
+        if (logContext != null) {
+            writeEntryIfPresent(sb, keys, "traceId", logContext.traceId());
+            writeEntryIfPresent(sb, keys, "service", logContext.service());
+        }
+        if (logRecord.getThrown() != null) {
+            writeEntry(sb, keys, "error", convertObj(logRecord.getThrown(), String.class));
         }
-    }
-
-    /**
-     * Adds additional key-value pairs to the map.
-     *
-     * @param jsonMap The map to store the key-value pairs.
-     * @param params  The parameters for the log message.
-     */
-    protected void addJsonEntries(final Map<String, String> jsonMap, final Object[] params) {
         if (params != null) {
             for (final Object param : params) {
                 if (param instanceof final Map<?, ?> map) {
                     for (final Map.Entry<?, ?> entry : map.entrySet()) {
-                        putEntry(jsonMap, entry.getKey(), entry.getValue());
+                        writeEntry(sb, keys, entry.getKey(), entry.getValue());
                     }
                 }
             }
+            for (int i = 0; i < template.keys.length && i < params.length; i++) {
+                if (template.keys[i] != null)
+                    writeEntry(sb, keys, template.keys[i], params[i]);
+            }
         }
+        sb.append('}').append(LINE_SEPARATOR);
+        final String result = sb.toString();
+        releaseBuffer(sb);
+        return result;
+    }
+
+    /**
+     * Formats the timestamp - the result is cached for the current millisecond.
+     *
+     * @param millis epoch milliseconds
+     * @return formatted timestamp
+     */
+    protected String timestamp(final long millis) {
+        final Timestamp cached = timestamp;
+        if (cached.millis == millis)
+            return cached.value;
+        final String value = DATE_FORMAT.format(Instant.ofEpochMilli(millis));
+        timestamp = new Timestamp(millis, value);
+        return value;
     }
 
     /**
-     * Adds escaped and converted key-value pairs to the map.
+     * Writes an escaped and converted key-value pair. Keys which were already written are ignored.
      *
-     * @param jsonMap The map to store the key-value pairs.
-     * @param key     key
-     * @param value   value
+     * @param sb    target
+     * @param keys  keys which were already written
+     * @param key   key
+     * @param value value
      */
-    protected void putEntry(final Map<String, String> jsonMap, final Object key, final Object value) {
-        jsonMap.put(jsonEscape(convertObj(key, String.class)), jsonEscape(convertObj(value, String.class)));
+    protected void writeEntry(final StringBuilder sb, final List<String> keys, final Object key, final Object value) {
+        final String keyStr = convertObj(key, String.class);
+        if (keys.contains(keyStr))
+            return;
+        keys.add(keyStr);
+        if (keys.size() > 1)
+            sb.append(',');
+        sb.append('"');
+        jsonEscape(sb, keyStr);
+        sb.append("\":\"");
+        jsonEscape(sb, value instanceof final String str ? str : convertObj(value, String.class));
+        sb.append('"');
+    }
+
+    protected void writeEntryIfPresent(final StringBuilder sb, final List<String> keys, final String key, final String value) {
+        if (value != null)
+            writeEntry(sb, keys, key, value);
     }
 
     /**
@@ -121,39 +153,141 @@ public class LogFormatterJson extends Formatter {
      */
     protected String jsonEscape(final Object value) {
         if (value == null) return null;
-        final String strValue = value.toString();
         final StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < strValue.length(); i++) {
-            final char c = strValue.charAt(i);
+        jsonEscape(sb, value.toString());
+        return sb.toString();
+    }
+
+    /**
+     * Escapes special characters for JSON compatibility.
+     *
+     * @param sb    target
+     * @param value The string to escape, null is written as "null".
+     */
+    protected static void jsonEscape(final StringBuilder sb, final String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
             switch (c) {
-                case '"':
-                    sb.append("\\\"");
-                    break;
-                case '\\':
-                    sb.append("\\\\");
-                    break;
-                case '/':
-                    sb.append("\\/");
-                    break;
-                case '\b':
-                    sb.append("\\b");
-                    break;
-                case '\f':
-                    sb.append("\\f");
-                    break;
-                case '\n':
-                    sb.append("\\n");
-                    break;
-                case '\r':
-                    sb.append("\\r");
-                    break;
-                case '\t':
-                    sb.append("\\t");
-                    break;
-                default:
-                    sb.append(c);
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '/' -> sb.append("\\/");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
             }
         }
-        return sb.toString();
+    }
+
+    protected StringBuilder takeBuffer() {
+        final StringBuilder sb = buffer.getAndSet(null);
+        if (sb == null)
+            return new StringBuilder(512);
+        sb.setLength(0);
+        return sb;
+    }
+
+    protected void releaseBuffer(final StringBuilder sb) {
+        // huge messages shouldn't pin their memory
+        if (sb.capacity() <= 64 * 1024)
+            buffer.set(sb);
+    }
+
+    /**
+     * Provides the parsed template of a message. A full cache evicts an arbitrary template, so templates of later messages are cached as well.
+     *
+     * @param message log message
+     * @return parsed template
+     */
+    protected Template templateOf(final String message) {
+        if (message == null)
+            return Template.EMPTY;
+        final Template template = templates.get(message);
+        if (template != null)
+            return template;
+        final Template result = Template.parse(message);
+        if (templates.size() >= MAX_TEMPLATES) {
+            final Iterator<String> keys = templates.keySet().iterator();
+            if (keys.hasNext())
+                templates.remove(keys.next());
+        }
+        templates.putIfAbsent(message, result);
+        return result;
+    }
+
+    protected record Timestamp(long millis, String value) {
+    }
+
+    /**
+     * Pre-parsed message template.
+     *
+     * @param keys   key per placeholder (e.g. "user" for "user: [{}]") or null if the placeholder has no key
+     * @param simple <code>true</code> if the message has only '{}' placeholders, which are replaced without {@link String#format(String, Object...)}
+     */
+    protected record Template(String[] keys, boolean simple) {
+
+        protected static final Template EMPTY = new Template(new String[0], true);
+
+        protected static Template parse(final String message) {
+            final List<String> keys = new ArrayList<>();
+            boolean simple = true;
+            for (int i = 0; i < message.length() - 1; i++) {
+                final char c = message.charAt(i);
+                if (c == '{' && message.charAt(i + 1) == '}') {
+                    keys.add(keyOf(message, i));
+                    i++;
+                } else if (c == '%') {
+                    simple = false;
+                    if (message.charAt(i + 1) == '%') {
+                        i++;
+                    } else if (message.charAt(i + 1) != 'n') {
+                        keys.add(null);
+                    }
+                }
+            }
+            if (message.endsWith("%"))
+                simple = false;
+            return new Template(keys.toArray(String[]::new), simple);
+        }
+
+        // Key in front of a "[{}]" placeholder, e.g. "user: [{}]" or "user [{}]"
+        protected static String keyOf(final String message, final int placeholder) {
+            if (placeholder < 1 || message.charAt(placeholder - 1) != '[' || placeholder + 2 >= message.length() || message.charAt(placeholder + 2) != ']')
+                return null;
+            int end = placeholder - 1;
+            while (end > 0 && Character.isWhitespace(message.charAt(end - 1)))
+                end--;
+            if (end > 0 && message.charAt(end - 1) == ':')
+                end--;
+            int start = end;
+            while (start > 0 && isWordChar(message.charAt(start - 1)))
+                start--;
+            return start < end ? message.substring(start, end) : null;
+        }
+
+        protected static boolean isWordChar(final char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+
+        protected String format(final String message, final Object[] params) {
+            if (message == null || params == null || params.length == 0)
+                return message;
+            if (!simple)
+                return LogFormatterConsole.applyCustomFormat(message, params);
+            final StringBuilder sb = new StringBuilder(message.length() + params.length * 16);
+            int param = 0;
+            int last = 0;
+            for (int i = message.indexOf("{}"); i != -1 && param < params.length; i = message.indexOf("{}", last)) {
+                sb.append(message, last, i).append(params[param++]);
+                last = i + 2;
+            }
+            return sb.append(message, last, message.length()).toString();
+        }
     }
 }
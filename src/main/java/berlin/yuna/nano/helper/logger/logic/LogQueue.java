@@ -4,13 +4,18 @@ import berlin.yuna.nano.core.model.Config;
 import berlin.yuna.nano.core.model.Context;
 import berlin.yuna.nano.core.model.Service;
 import berlin.yuna.nano.core.model.Unhandled;
-import berlin.yuna.nano.helper.Pair;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
+import berlin.yuna.nano.helper.jfr.model.JfrLogQueueWait;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.LogQueuePolicy;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -18,34 +23,100 @@ import java.util.logging.Logger;
 
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOG_LEVEL;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOG_QUEUE;
+import static berlin.yuna.nano.helper.logger.model.NanoLogRecord.logContextOf;
 
 @SuppressWarnings("UnusedReturnValue")
 public class LogQueue extends Service {
-    protected BlockingQueue<Pair<Logger, LogRecord>> queue;
+    protected LogRingBuffer queue;
     protected int queueCapacity;
+    protected LogQueuePolicy policy = LogQueuePolicy.BLOCK;
+    protected LogLevel dropLevel = LogLevel.WARN;
+    protected final LongAdder dropped = new LongAdder();
+    protected final LongAdder callerRuns = new LongAdder();
+    protected final AtomicLong droppedReported = new AtomicLong();
+    public static final int BATCH_SIZE = 256;
 
     public LogQueue() {
         super(null, false);
     }
 
     public boolean log(final Logger logger, final LogRecord logRecord) {
-        if (isReady() && queue != null) {
-            try {
-                queue.put(new Pair<>(logger, logRecord));
-                return true;
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
+        return log(logger, logRecord.getLevel(), logRecord.getMessage(), logRecord.getParameters(), logRecord.getThrown(), logContextOf(logRecord));
+    }
+
+    public boolean log(final Logger logger, final Level level, final String message, final Object[] params, final Throwable thrown) {
+        return log(logger, level, message, params, thrown, null);
+    }
+
+    /**
+     * Queues a log message. The {@link LogRecord} is created and formatted on the queue thread.
+     *
+     * @param logger  target logger
+     * @param level   log level
+     * @param message log message
+     * @param params  log parameters
+     * @param thrown  optional error
+     * @param context diagnostic context of the logger or null
+     * @return <code>false</code> if the caller has to log the message itself
+     */
+    public boolean log(final Logger logger, final Level level, final String message, final Object[] params, final Throwable thrown, final LogContext context) {
+        final LogRingBuffer buffer = queue;
+        if (isReady() && buffer != null) {
+            final JfrLogQueueWait jfr = NanoJfr.begin(JfrLogQueueWait::new);
+            final long millis = System.currentTimeMillis();
+            final long threadId = Thread.currentThread().threadId();
+            final boolean result = buffer.offer(logger, level, message, params, thrown, millis, threadId, context)
+                || onFull(buffer, level, () -> buffer.offer(logger, level, message, params, thrown, millis, threadId, context));
+            if (NanoJfr.shouldCommit(jfr)) {
+                jfr.logger = logger.getName();
+                jfr.level = level.getName();
+                jfr.queueSize = buffer.size();
+                jfr.commit();
             }
+            return result;
         }
         return false;
     }
 
+    public LogQueuePolicy policy() {
+        return policy;
+    }
+
+    public LogLevel dropLevel() {
+        return dropLevel;
+    }
+
+    /**
+     * @return number of messages which were dropped as the queue was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of messages which were written by the caller as the queue was full
+     */
+    public long callerRuns() {
+        return callerRuns.sum();
+    }
+
+    public int size() {
+        final LogRingBuffer buffer = queue;
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    public int capacity() {
+        return queueCapacity;
+    }
+
     @Override
     public void start(final Supplier<Context> contextSub) {
         isReady.set(false, true, state -> {
             final Context context = contextSub.get();
-            queueCapacity = context.getOpt(Integer.class, Config.CONFIG_LOG_QUEUE_SIZE.id()).orElse(1000);
-            queue = new LinkedBlockingQueue<>(queueCapacity);
+            policy = context.configOpt(String.class, Config.CONFIG_LOG_QUEUE_POLICY).map(LogQueuePolicy::logQueuePolicyOf).orElse(LogQueuePolicy.BLOCK);
+            dropLevel = context.configOpt(String.class, Config.CONFIG_LOG_QUEUE_DROP_LEVEL).map(LogLevel::nanoLogLevelOf).orElse(LogLevel.WARN);
+            queue = new LogRingBuffer(context.configOpt(Integer.class, Config.CONFIG_LOG_QUEUE_SIZE).orElse(1000));
+            queueCapacity = queue.capacity();
             context.run(this::process)
                 .run(this::checkQueueSizeAndWarn, 5, 5, TimeUnit.MINUTES, () -> !isReady())
                 .broadcastEvent(EVENT_APP_LOG_QUEUE, this);
@@ -55,14 +126,9 @@ public class LogQueue extends Service {
     @Override
     public void stop(final Supplier<Context> contextSub) {
         isReady.set(true, false, state -> {
-            try {
-                contextSub.get().broadcastEvent(EVENT_APP_LOG_QUEUE, this);
-                logger.debug(() -> "Shutdown initiated - process last messages [{}]", queue.size());
-                queue.put(new Pair<>(logger.logger(), new LogRecord(Level.INFO, "Shutdown Hook")));
-                queue = null;
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            contextSub.get().broadcastEvent(EVENT_APP_LOG_QUEUE, this);
+            logger.debug(() -> "Shutdown initiated - process last messages [{}]", size());
+            queue.signal();
         });
     }
 
@@ -80,26 +146,63 @@ public class LogQueue extends Service {
     }
 
     protected void process() {
-        while (isReady() || (queue != null && !queue.isEmpty())) {
-            try {
-                final Pair<Logger, LogRecord> pair = queue.take();
-                if (pair.left() != this.logger.logger()) {
-                    pair.left().log(pair.right());
-                }
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
+        final LogRingBuffer buffer = queue;
+        while (isReady() || !buffer.isEmpty()) {
+            if (buffer.drain(this::write, BATCH_SIZE) == 0)
+                buffer.await(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    protected void write(final Logger target, final LogRecord logRecord) {
+        if (target != this.logger.logger()) {
+            target.log(logRecord);
+        }
+    }
+
+    protected boolean onFull(final LogRingBuffer buffer, final Level level, final BooleanSupplier offer) {
+        return switch (policy) {
+            case DROP_NEWEST -> drop();
+            case DROP_BELOW_LEVEL -> level.intValue() < dropLevel.toJavaLogLevel().intValue() ? drop() : await(buffer, offer);
+            case CALLER_RUNS -> {
+                callerRuns.increment();
+                yield false;
+            }
+            default -> await(buffer, offer);
+        };
+    }
+
+    protected boolean drop() {
+        dropped.increment();
+        return true;
+    }
+
+    // Waits with backoff until the consumer freed a slot - returns false on shutdown to let the caller write the message
+    protected boolean await(final LogRingBuffer buffer, final BooleanSupplier offer) {
+        int spins = 0;
+        while (!offer.getAsBoolean()) {
+            if (!isReady())
+                return false;
+            buffer.signal();
+            if (++spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(1_000_000L, 1_000L << Math.min(10, spins - 64)));
             }
         }
+        return true;
     }
 
     protected void checkQueueSizeAndWarn() {
         isReady.run(true, state -> {
-            if (queue != null) {
-                final int size = queue.size();
-                final int percentage = size > 0 ? ((int) ((double) size / queueCapacity) * 100) : 0;
-                if (percentage > 80) {
-                    logger.warn(() -> "Warning: Log queue is " + percentage + "% full.");
-                }
+            final int size = size();
+            final int percentage = queueCapacity > 0 ? (int) ((double) size / queueCapacity * 100) : 0;
+            if (percentage > 80) {
+                logger.warn(() -> "Warning: Log queue is " + percentage + "% full.");
+            }
+            final long total = dropped();
+            final long droppedSinceCheck = total - droppedReported.getAndSet(total);
+            if (droppedSinceCheck > 0) {
+                logger.warn(() -> "Warning: Log queue dropped [{}] messages with policy [{}]", droppedSinceCheck, policy);
             }
         });
     }
@@ -107,8 +210,10 @@ public class LogQueue extends Service {
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "{" +
-            "size=" + queue.size() +
+            "size=" + size() +
             ", max=" + queueCapacity +
+            ", policy=" + policy +
+            ", dropped=" + dropped() +
             '}';
     }
 }
@@ -0,0 +1,187 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.LogRateLimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples and rate limits log messages per call site and per logger.
+ * <p>
+ * A call site is identified by the logger name and the class of the message supplier, which is unique per lambda in the source code.
+ * A shared supplier instance logged by several loggers gets a call site per logger. So the decision is made before the message is created. Each call site and logger has a token bucket (see {@link Bucket})
+ * and the call sites can additionally be sampled with "first N, then every Mth" per summary interval.
+ * Suppressed messages are counted and reported periodically with {@link LogRateLimiter#report(NanoLogger)}.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogRateLimiter {
+
+    public static final int MAX_CALL_SITES = 10000;
+    // call sites by supplier class and logger name, nested to look up without allocating a key
+    protected final Map<Class<?>, Map<String, Site>> sites = new ConcurrentHashMap<>();
+    protected final AtomicInteger siteCount = new AtomicInteger();
+    protected final Map<String, Bucket> loggers = new ConcurrentHashMap<>();
+    protected final LongAdder suppressed = new LongAdder();
+    protected final AtomicLong nextReportAtMs = new AtomicLong();
+    protected volatile LogRateLimit limit = LogRateLimit.DISABLED;
+
+    public LogRateLimit limit() {
+        return limit;
+    }
+
+    /**
+     * Sets new limits and resets the state of all call sites.
+     *
+     * @param limit new limits, null disables the limiter
+     * @return self for chaining
+     */
+    public LogRateLimiter limit(final LogRateLimit limit) {
+        this.limit = limit != null ? limit : LogRateLimit.DISABLED;
+        sites.clear();
+        siteCount.set(0);
+        loggers.clear();
+        nextReportAtMs.set(System.currentTimeMillis() + this.limit.summaryIntervalMs());
+        return this;
+    }
+
+    /**
+     * @return total number of suppressed messages
+     */
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Retrieves the call site of a message.
+     *
+     * @param loggerName name of the logger
+     * @param message    message supplier which identifies the call site
+     * @return the call site or null if the limiter is disabled
+     */
+    public Site site(final String loggerName, final Object message) {
+        final LogRateLimit current = limit;
+        if (!current.enabled())
+            return null;
+        final Map<String, Site> byLogger = sites.get(message.getClass());
+        final Site site = byLogger != null ? byLogger.get(loggerName) : null;
+        if (site != null || siteCount.get() >= MAX_CALL_SITES)
+            return site;
+        final Bucket logger = current.loggerRate() > 0 ? loggers.computeIfAbsent(loggerName, name -> new Bucket(current.loggerRate(), current.burst())) : null;
+        return (byLogger != null ? byLogger : sites.computeIfAbsent(message.getClass(), key -> new ConcurrentHashMap<>()))
+            .computeIfAbsent(loggerName, name -> {
+                siteCount.incrementAndGet();
+                return new Site(this, current, name, logger);
+            });
+    }
+
+    /**
+     * Logs a summary of the suppressed messages per call site if the summary interval has elapsed.
+     *
+     * @param logger logger for the summary
+     * @return self for chaining
+     */
+    public LogRateLimiter report(final NanoLogger logger) {
+        final long now = System.currentTimeMillis();
+        final long reportAt = nextReportAtMs.get();
+        if (!limit.enabled() || now < reportAt || !nextReportAtMs.compareAndSet(reportAt, now + limit.summaryIntervalMs()))
+            return this;
+        sites.values().stream().flatMap(byLogger -> byLogger.values().stream()).forEach(site -> {
+            site.count.set(0);
+            final long count = site.suppressed.sumThenReset();
+            if (count > 0)
+                logger.write(LogLevel.WARN, null, "Suppressed [{}] log messages logger [{}] message [{}]", new Object[]{count, site.loggerName, site.template});
+        });
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" +
+            "sites=" + siteCount.get() +
+            ", suppressed=" + suppressed() +
+            ", limit=" + limit +
+            '}';
+    }
+
+    public static class Site {
+        protected final LogRateLimiter limiter;
+        protected final LogRateLimit limit;
+        protected final String loggerName;
+        protected final Bucket logger;
+        protected final Bucket bucket;
+        protected final AtomicLong count = new AtomicLong();
+        protected final LongAdder suppressed = new LongAdder();
+        protected volatile String template;
+
+        public Site(final LogRateLimiter limiter, final LogRateLimit limit, final String loggerName, final Bucket logger) {
+            this.limiter = limiter;
+            this.limit = limit;
+            this.loggerName = loggerName;
+            this.logger = logger;
+            this.bucket = limit.rate() > 0 ? new Bucket(limit.rate(), limit.burst()) : null;
+        }
+
+        /**
+         * @return true if the message should be logged
+         */
+        public boolean tryAcquire() {
+            if (isSampled() && (bucket == null || bucket.tryAcquire()) && (logger == null || logger.tryAcquire()))
+                return true;
+            suppressed.increment();
+            limiter.suppressed.increment();
+            return false;
+        }
+
+        public Site template(final String template) {
+            if (this.template == null)
+                this.template = template;
+            return this;
+        }
+
+        public String template() {
+            return template;
+        }
+
+        public long suppressed() {
+            return suppressed.sum();
+        }
+
+        protected boolean isSampled() {
+            if (!limit.sampling())
+                return true;
+            final long n = count.incrementAndGet();
+            return n <= limit.sampleFirst() || (limit.sampleEvery() > 0 && (n - limit.sampleFirst()) % limit.sampleEvery() == 0);
+        }
+    }
+
+    /**
+     * Lock-free token bucket based on the generic cell rate algorithm - the state is the theoretical arrival time of the next message.
+     */
+    public static class Bucket {
+        protected final long intervalNs;
+        protected final long toleranceNs;
+        protected final AtomicLong arrivalNs = new AtomicLong(Long.MIN_VALUE);
+
+        public Bucket(final double ratePerSecond, final int burst) {
+            this.intervalNs = (long) (1_000_000_000d / ratePerSecond);
+            this.toleranceNs = intervalNs * Math.max(1, burst);
+        }
+
+        public boolean tryAcquire() {
+            final long now = System.nanoTime();
+            while (true) {
+                final long arrival = arrivalNs.get();
+                final long next = (arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival) + intervalNs;
+                if (next - now > toleranceNs)
+                    return false;
+                if (arrivalNs.compareAndSet(arrival, next))
+                    return true;
+            }
+        }
+    }
+}
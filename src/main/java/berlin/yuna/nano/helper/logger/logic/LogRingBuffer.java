@@ -0,0 +1,194 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.helper.logger.model.LogContext;
+import berlin.yuna.nano.helper.logger.model.NanoLogRecord;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static berlin.yuna.nano.helper.logger.model.NanoLogRecord.logContextOf;
+
+/**
+ * Bounded lock-free multi producer single consumer ring buffer for log messages.
+ * <p>
+ * The slots are pre-allocated, producers claim a slot with a single CAS, copy only level, timestamp, message and parameters into it
+ * and publish it with its sequence. The single consumer drains the published slots in batches, creates the {@link LogRecord}
+ * and parks while the buffer is empty. This keeps the record creation and the formatting off the calling thread.
+ * </p>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogRingBuffer {
+
+    protected final int capacity;
+    protected final int mask;
+    protected final Logger[] loggers;
+    protected final Level[] levels;
+    protected final String[] messages;
+    protected final Object[][] params;
+    protected final Throwable[] thrown;
+    protected final long[] millis;
+    protected final long[] threadIds;
+    protected final LogContext[] contexts;
+    protected final AtomicLongArray sequences;
+    protected final AtomicLong tail = new AtomicLong();
+    protected volatile long head;
+    protected volatile Thread consumer;
+
+    /**
+     * @param capacity minimum capacity, rounded up to the next power of two
+     */
+    public LogRingBuffer(final int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.loggers = new Logger[this.capacity];
+        this.levels = new Level[this.capacity];
+        this.messages = new String[this.capacity];
+        this.params = new Object[this.capacity][];
+        this.thrown = new Throwable[this.capacity];
+        this.millis = new long[this.capacity];
+        this.threadIds = new long[this.capacity];
+        this.contexts = new LogContext[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds a record without blocking.
+     *
+     * @param logger    target logger
+     * @param logRecord record to log
+     * @return <code>false</code> if the buffer is full
+     */
+    public boolean offer(final Logger logger, final LogRecord logRecord) {
+        return offer(logger, logRecord.getLevel(), logRecord.getMessage(), logRecord.getParameters(), logRecord.getThrown(), logRecord.getMillis(), logRecord.getLongThreadID(), logContextOf(logRecord));
+    }
+
+    @SuppressWarnings("java:S107")
+    public boolean offer(final Logger logger, final Level level, final String message, final Object[] params, final Throwable thrown, final long millis, final long threadId) {
+        return offer(logger, level, message, params, thrown, millis, threadId, null);
+    }
+
+    /**
+     * Adds a message without blocking. The message is not formatted, the parameters are formatted later on the consumer thread.
+     *
+     * @param logger   target logger
+     * @param level    log level
+     * @param message  log message
+     * @param params   log parameters
+     * @param thrown   optional error
+     * @param millis   timestamp of the message
+     * @param threadId id of the calling thread
+     * @param context  diagnostic context of the logger or null
+     * @return <code>false</code> if the buffer is full
+     */
+    @SuppressWarnings("java:S107")
+    public boolean offer(final Logger logger, final Level level, final String message, final Object[] params, final Throwable thrown, final long millis, final long threadId, final LogContext context) {
+        while (true) {
+            final long position = tail.get();
+            final int index = (int) (position & mask);
+            final long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    loggers[index] = logger;
+                    levels[index] = level;
+                    messages[index] = message;
+                    this.params[index] = params;
+                    this.thrown[index] = thrown;
+                    this.millis[index] = millis;
+                    threadIds[index] = threadId;
+                    contexts[index] = context;
+                    sequences.set(index, position + 1);
+                    signal();
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Drains up to the given number of records. Must only be called from a single consumer thread.
+     *
+     * @param consumer receives the records in order
+     * @param limit    maximum number of records to drain
+     * @return number of drained records
+     */
+    public int drain(final BiConsumer<Logger, LogRecord> consumer, final int limit) {
+        int count = 0;
+        long position = head;
+        while (count < limit) {
+            final int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1)
+                break;
+            final Logger logger = loggers[index];
+            final LogRecord logRecord = new NanoLogRecord(levels[index], messages[index], contexts[index]);
+            logRecord.setParameters(params[index]);
+            logRecord.setThrown(thrown[index]);
+            logRecord.setInstant(Instant.ofEpochMilli(millis[index]));
+            logRecord.setLongThreadID(threadIds[index]);
+            logRecord.setLoggerName(logger.getName());
+            loggers[index] = null;
+            messages[index] = null;
+            params[index] = null;
+            thrown[index] = null;
+            contexts[index] = null;
+            sequences.set(index, position + capacity);
+            head = ++position;
+            count++;
+            consumer.accept(logger, logRecord);
+        }
+        return count;
+    }
+
+    /**
+     * Parks the consumer thread until a record was added, {@link LogRingBuffer#signal()} was called or the timeout elapsed.
+     *
+     * @param timeoutNs maximum time to wait
+     */
+    public void await(final long timeoutNs) {
+        consumer = Thread.currentThread();
+        if (isEmpty())
+            LockSupport.parkNanos(this, timeoutNs);
+        consumer = null;
+    }
+
+    /**
+     * Wakes up the waiting consumer thread.
+     */
+    public void signal() {
+        final Thread thread = consumer;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" +
+            "size=" + size() +
+            ", capacity=" + capacity +
+            '}';
+    }
+}
@@ -1,9 +1,14 @@
 package berlin.yuna.nano.helper.logger.logic;
 
+import berlin.yuna.nano.helper.logger.LogHandlerRegister;
+import berlin.yuna.nano.helper.logger.LogLevelRegister;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.helper.logger.model.LogErrorHandler;
 import berlin.yuna.nano.helper.logger.model.LogInfoHandler;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.NanoLogRecord;
 
+import java.util.Enumeration;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -17,8 +22,11 @@ public class NanoLogger {
     protected final Logger logger;
     // cause the log level of java is not thread safe
     // FIXME: create very own logger as every config of the java logger is not thread safe
-    protected final AtomicReference<LogLevel> level = new AtomicReference<>(LogLevel.DEBUG);
+    // resolved against the LogLevelRegister, which resolves it again on every change - a disabled log call costs one volatile read
+    protected final AtomicReference<ResolvedLevel> level;
     protected LogQueue logQueue;
+    protected LogContext logContext;
+    protected LogRateLimiter rateLimiter;
     public static AtomicInteger MAX_LOG_NAME_LENGTH = new AtomicInteger(10);
 
     public NanoLogger(final Object object) {
@@ -27,10 +35,15 @@ public class NanoLogger {
 
     public NanoLogger(final Class<?> clazz) {
         logger = Logger.getLogger(clazz.getName());
+        level = new AtomicReference<>(new ResolvedLevel(LogLevel.DEBUG, LogLevel.DEBUG));
+        // registered before resolving, so a concurrent change of the LogLevelRegister refreshes this logger as well
+        LogLevelRegister.registerLogger(this);
+        refreshLevel();
         logger.setUseParentHandlers(false);
         logger.setLevel(Level.ALL);
         addHandlerIfAbsent(DEFAULT_LOG_INFO_HANDLER);
         addHandlerIfAbsent(DEFAULT_LOG_ERROR_HANDLER);
+        LogHandlerRegister.LOG_HANDLERS.values().forEach(this::addRegisteredHandler);
         MAX_LOG_NAME_LENGTH.updateAndGet(length -> Math.max(length, clazz.getSimpleName().length()));
     }
 
@@ -47,6 +60,36 @@ public class NanoLogger {
         return this;
     }
 
+    public LogContext logContext() {
+        return logContext;
+    }
+
+    /**
+     * Sets the diagnostic context, which the formatters add to every log line of this logger.
+     *
+     * @param logContext immutable diagnostic context, shared by reference
+     * @return self for chaining
+     */
+    public NanoLogger logContext(final LogContext logContext) {
+        this.logContext = logContext;
+        return this;
+    }
+
+    public LogRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the rate limiter of the owning {@link berlin.yuna.nano.core.Nano}, shared by reference like the {@link LogQueue}.
+     *
+     * @param rateLimiter rate limiter, null = no limits
+     * @return self for chaining
+     */
+    public NanoLogger rateLimiter(final LogRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
     public Formatter formatter() {
         return logger.getHandlers().length > 0 ? logger.getHandlers()[0].getFormatter() : null;
     }
@@ -59,16 +102,26 @@ public class NanoLogger {
     }
 
     public NanoLogger level(final LogLevel level) {
-        this.level.set(level);
+        this.level.updateAndGet(current -> resolve(level));
 //        logger.setLevel(level.toJavaLogLevel());
         return this;
     }
 
+    /**
+     * @return the level of this logger without the package or class levels from the {@link LogLevelRegister}
+     */
     public LogLevel level() {
-        return level.get();
+        return level.get().base();
 //        return nanoLogLevelOf(logger.getLevel());
     }
 
+    /**
+     * @return the level which is applied, the most specific level of the {@link LogLevelRegister} or {@link NanoLogger#level()}
+     */
+    public LogLevel effectiveLevel() {
+        return level.get().effective();
+    }
+
     public NanoLogger fatal(final Supplier<String> message, final Object... params) {
         return log(LogLevel.FATAL, null, message, params);
     }
@@ -123,20 +176,79 @@ public class NanoLogger {
 
     public NanoLogger log(final LogLevel level, final Throwable thrown, final Supplier<String> message, final Object... params) {
         if (level != null && message != null && isLoggable(level)) {
-            final LogRecord logRecord = new LogRecord(level.toJavaLogLevel(), message.get());
+            final LogRateLimiter limiter = rateLimiter;
+            final LogRateLimiter.Site site = limiter == null ? null : limiter.site(logger.getName(), message);
+            if (site != null && !site.tryAcquire())
+                return this;
+            final String text = message.get();
+            if (site != null)
+                site.template(text);
+            write(level, thrown, text, params);
+        }
+        return this;
+    }
+
+    protected NanoLogger write(final LogLevel level, final Throwable thrown, final String text, final Object[] params) {
+        // The queue only captures the message - the record is created and formatted on the queue thread
+        if (logQueue == null || !logQueue.log(logger, level.toJavaLogLevel(), text, params, thrown, logContext)) {
+            final LogRecord logRecord = new NanoLogRecord(level.toJavaLogLevel(), text, logContext);
             logRecord.setParameters(params);
             logRecord.setThrown(thrown);
             logRecord.setLoggerName(logger.getName());
-            if (logQueue == null || !logQueue.log(logger, logRecord)) {
-                logger.log(logRecord);
-            }
+            logger.log(logRecord);
         }
         return this;
     }
 
-    protected boolean isLoggable(final LogLevel level) {
-        final int levelValue = this.level.get().ordinal();
-        return level.ordinal() <= levelValue;
+    /**
+     * @param level level to check
+     * @return true if a message of the level would be logged
+     */
+    public boolean isLoggable(final LogLevel level) {
+        return level.ordinal() <= this.level.get().effective().ordinal();
+    }
+
+    /**
+     * Resolves the level again, called by the {@link LogLevelRegister} after every change.
+     *
+     * @return self for chaining
+     */
+    public NanoLogger refreshLevel() {
+        level.updateAndGet(current -> resolve(current.base()));
+        return this;
+    }
+
+    protected ResolvedLevel resolve(final LogLevel base) {
+        final LogLevel registered = LogLevelRegister.logLevelOf(logger.getName());
+        return new ResolvedLevel(base, registered != null ? registered : base);
+    }
+
+    protected record ResolvedLevel(LogLevel base, LogLevel effective) {
+    }
+
+    /**
+     * Detaches the handler from all java loggers e.g. a closed {@link berlin.yuna.nano.helper.logger.model.LogFileHandler}.
+     *
+     * @param handler handler to remove
+     */
+    public static void removeHandler(final Handler handler) {
+        final LogManager manager = LogManager.getLogManager();
+        final Enumeration<String> names = manager.getLoggerNames();
+        while (names.hasMoreElements()) {
+            final Logger javaLogger = manager.getLogger(names.nextElement());
+            if (javaLogger != null)
+                javaLogger.removeHandler(handler);
+        }
+    }
+
+    // registered handlers are compared by identity, as every log file has its own handler
+    protected void addRegisteredHandler(final Handler newHandler) {
+        for (final Handler existingHandler : logger.getHandlers()) {
+            if (existingHandler == newHandler) {
+                return;
+            }
+        }
+        logger.addHandler(newHandler);
     }
 
     protected void addHandlerIfAbsent(final Handler newHandler) {
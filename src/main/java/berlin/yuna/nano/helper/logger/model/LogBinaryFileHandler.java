@@ -0,0 +1,73 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import berlin.yuna.nano.helper.logger.logic.LogBinaryDecoder;
+import berlin.yuna.nano.helper.logger.logic.LogBinaryEncoder;
+import berlin.yuna.nano.helper.logger.logic.LogFormatterConsole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.logging.ErrorManager;
+import java.util.logging.LogRecord;
+
+/**
+ * {@link LogFileHandler} which writes the compact binary log format of the {@link LogBinaryEncoder} instead of formatted text.
+ * <p>
+ * The message is never formatted while logging, the file can be rendered later as JSON or console text with the {@link LogBinaryDecoder}.
+ * Every file starts with its own header and string definitions, so rotated files can be decoded on their own.
+ * </p>
+ * Usage Example:
+ * <pre>
+ * final LogBinaryFileHandler handler = new LogBinaryFileHandler(Path.of("logs/app.nlog"));
+ * </pre>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogBinaryFileHandler extends LogFileHandler {
+
+    protected final LogBinaryEncoder encoder = new LogBinaryEncoder();
+
+    public LogBinaryFileHandler(final Path file) {
+        super(file, new LogFormatterConsole());
+    }
+
+    @Override
+    public void publish(final LogRecord logRecord) {
+        if (closed || !isLoggable(logRecord))
+            return;
+        lock.lock();
+        try {
+            encoder.encode(logRecord);
+            if (shouldRotate(encoder.size())) {
+                // the encoded record references strings of the previous file
+                rotate(encoder.size());
+                encoder.encode(logRecord);
+            }
+            append(encoder.bytes(), encoder.size());
+        } catch (final IOException e) {
+            reportError("Failed to write log file [" + file + "]", e, ErrorManager.WRITE_FAILURE);
+        } catch (final Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void rotate(final int nextBytes) {
+        lock.lock();
+        try {
+            final boolean rotates = shouldRotate(nextBytes);
+            super.rotate(nextBytes);
+            if (rotates)
+                encoder.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void open() throws IOException {
+        super.open();
+        write(ByteBuffer.wrap(LogBinaryEncoder.HEADER));
+    }
+}
@@ -0,0 +1,22 @@
+package berlin.yuna.nano.helper.logger.model;
+
+/**
+ * Immutable diagnostic context of a {@link berlin.yuna.nano.helper.logger.logic.NanoLogger}, which the formatters add to every log line.
+ * <p>
+ * The context is resolved once when the logger is created from a {@link berlin.yuna.nano.core.model.Context} and shared by reference,
+ * so a log call neither copies maps nor converts types to correlate its trace.
+ * </p>
+ *
+ * @param traceId trace id of the context
+ * @param service name of the service or null
+ */
+public record LogContext(String traceId, String service) {
+
+    public LogContext traceId(final String traceId) {
+        return new LogContext(traceId, service);
+    }
+
+    public LogContext service(final String service) {
+        return new LogContext(traceId, service);
+    }
+}
@@ -0,0 +1,424 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Buffered log file handler based on a {@link FileChannel}.
+ * <p>
+ * Records are collected in a large write buffer, which is written when it's full or on the flush interval.
+ * The file rotates by size and/or time, rotated files are compressed with gzip on an own thread, so the flushes don't wait for it, and the oldest are removed.
+ * </p>
+ * Usage Example:
+ * <pre>
+ * final LogFileHandler handler = new LogFileHandler(Path.of("logs/app.log"), new LogFormatterJson())
+ *     .maxSize(100 * 1024 * 1024)
+ *     .rotateIntervalMs(TimeUnit.DAYS.toMillis(1))
+ *     .flushIntervalMs(1000);
+ * </pre>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class LogFileHandler extends Handler {
+
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final long DEFAULT_MAX_SIZE = 100L * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    public static final int DEFAULT_MAX_HISTORY = 10;
+    protected static final DateTimeFormatter ROTATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+    protected static final int ROTATE_FORMAT_LENGTH = "yyyyMMdd-HHmmss-SSS".length();
+    protected final Path file;
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final ScheduledExecutorService executor;
+    protected final ExecutorService compressor;
+    protected ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+    protected FileChannel channel;
+    protected ScheduledFuture<?> flushTask;
+    protected long size;
+    protected long openedAtMs;
+    protected long maxSize = DEFAULT_MAX_SIZE;
+    protected long rotateIntervalMs;
+    protected int maxHistory = DEFAULT_MAX_HISTORY;
+    protected ForcePolicy force = ForcePolicy.NEVER;
+    protected volatile boolean closed;
+
+    /**
+     * Defines when the written bytes are forced to the storage device (see {@link FileChannel#force(boolean)}).
+     */
+    public enum ForcePolicy {
+        NEVER,
+        FLUSH,
+        ROTATE;
+
+        public static ForcePolicy forcePolicyOf(final String policy) {
+            return Arrays.stream(values()).filter(value -> value.name().equalsIgnoreCase(policy)).findFirst().orElse(NEVER);
+        }
+    }
+
+    public LogFileHandler(final Path file, final Formatter formatter) {
+        this.file = file.toAbsolutePath();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, LogFileHandler.class.getSimpleName() + "_" + file.getFileName()));
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, LogFileHandler.class.getSimpleName() + "_gzip_" + file.getFileName()));
+        setFormatter(formatter);
+        setLevel(Level.ALL);
+        scheduleFlush(DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return written and buffered bytes of the current file
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return size + buffer.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int bufferSize() {
+        return buffer.capacity();
+    }
+
+    public LogFileHandler bufferSize(final int bufferSize) {
+        lock.lock();
+        try {
+            write();
+            buffer = ByteBuffer.allocateDirect(Math.max(1024, bufferSize));
+        } catch (final IOException e) {
+            reportError("Failed to write log file [" + file + "]", e, ErrorManager.WRITE_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize rotates the file when it exceeds the size in bytes, 0 = disabled
+     * @return self for chaining
+     */
+    public LogFileHandler maxSize(final long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        return this;
+    }
+
+    public long rotateIntervalMs() {
+        return rotateIntervalMs;
+    }
+
+    /**
+     * @param rotateIntervalMs rotates the file when it's older than the interval, 0 = disabled
+     * @return self for chaining
+     */
+    public LogFileHandler rotateIntervalMs(final long rotateIntervalMs) {
+        this.rotateIntervalMs = Math.max(0, rotateIntervalMs);
+        return this;
+    }
+
+    public int maxHistory() {
+        return maxHistory;
+    }
+
+    /**
+     * @param maxHistory number of rotated files to keep
+     * @return self for chaining
+     */
+    public LogFileHandler maxHistory(final int maxHistory) {
+        this.maxHistory = Math.max(0, maxHistory);
+        return this;
+    }
+
+    public ForcePolicy force() {
+        return force;
+    }
+
+    public LogFileHandler force(final ForcePolicy force) {
+        this.force = force != null ? force : ForcePolicy.NEVER;
+        return this;
+    }
+
+    /**
+     * @param flushIntervalMs interval to write the buffer and to check the time based rotation
+     * @return self for chaining
+     */
+    public LogFileHandler flushIntervalMs(final long flushIntervalMs) {
+        scheduleFlush(flushIntervalMs);
+        return this;
+    }
+
+    // private, as the constructor schedules the first task and a subclass must not change it before it's initialized
+    private void scheduleFlush(final long flushIntervalMs) {
+        lock.lock();
+        try {
+            if (flushTask != null)
+                flushTask.cancel(false);
+            final long interval = Math.max(10, flushIntervalMs);
+            flushTask = executor.scheduleWithFixedDelay(() -> {
+                flush();
+                rotate(0);
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void publish(final LogRecord logRecord) {
+        if (closed || !isLoggable(logRecord))
+            return;
+        final byte[] bytes;
+        try {
+            bytes = getFormatter().format(logRecord).getBytes(StandardCharsets.UTF_8);
+        } catch (final Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        lock.lock();
+        try {
+            append(bytes, bytes.length);
+        } catch (final IOException e) {
+            reportError("Failed to write log file [" + file + "]", e, ErrorManager.WRITE_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            write();
+            if (force == ForcePolicy.FLUSH && channel != null)
+                channel.force(false);
+        } catch (final IOException e) {
+            reportError("Failed to flush log file [" + file + "]", e, ErrorManager.FLUSH_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            write();
+            if (channel != null) {
+                if (force != ForcePolicy.NEVER)
+                    channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        } catch (final IOException e) {
+            reportError("Failed to close log file [" + file + "]", e, ErrorManager.CLOSE_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdown();
+        // finish pending compressions
+        compressor.shutdown();
+        try {
+            if (!compressor.awaitTermination(10, TimeUnit.SECONDS))
+                compressor.shutdownNow();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rotates the file if the next write would exceed the max size or the file is older than the rotate interval.
+     *
+     * @param nextBytes bytes of the next write
+     */
+    protected void rotate(final int nextBytes) {
+        lock.lock();
+        try {
+            if (!shouldRotate(nextBytes))
+                return;
+            write();
+            if (force != ForcePolicy.NEVER)
+                channel.force(false);
+            channel.close();
+            channel = null;
+            size = 0;
+            final Path rotated = rotatedPath();
+            Files.move(file, rotated);
+            compressor.execute(() -> compress(rotated));
+        } catch (final IOException e) {
+            reportError("Failed to rotate log file [" + file + "]", e, ErrorManager.GENERIC_FAILURE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param nextBytes bytes of the next write
+     * @return <code>true</code> if the next write would exceed the max size or the file is older than the rotate interval
+     */
+    protected boolean shouldRotate(final int nextBytes) {
+        final long current = size + buffer.position();
+        final boolean bySize = maxSize > 0 && current + nextBytes > maxSize;
+        final boolean byTime = rotateIntervalMs > 0 && System.currentTimeMillis() - openedAtMs >= rotateIntervalMs;
+        return !closed && current != 0 && (bySize || byTime);
+    }
+
+    /**
+     * Appends bytes to the write buffer, the caller must hold the {@link LogFileHandler#lock}.
+     *
+     * @param bytes  bytes to append
+     * @param length number of bytes to append
+     * @throws IOException if the buffer could not be written
+     */
+    protected void append(final byte[] bytes, final int length) throws IOException {
+        rotate(length);
+        if (length > buffer.remaining())
+            write();
+        if (length > buffer.capacity()) {
+            write(ByteBuffer.wrap(bytes, 0, length));
+        } else {
+            buffer.put(bytes, 0, length);
+        }
+    }
+
+    protected void write() throws IOException {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+    }
+
+    protected void write(final ByteBuffer bytes) throws IOException {
+        if (channel == null)
+            open();
+        while (bytes.hasRemaining())
+            size += channel.write(bytes);
+    }
+
+    protected void open() throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+        openedAtMs = System.currentTimeMillis();
+    }
+
+    protected Path rotatedPath() {
+        final String name = file.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        final String base = dot > 0 ? name.substring(0, dot) : name;
+        final String extension = dot > 0 ? name.substring(dot) : "";
+        final String timestamp = ROTATE_FORMAT.format(Instant.now());
+        Path result = file.resolveSibling(base + "." + timestamp + extension);
+        for (int i = 1; Files.exists(result) || Files.exists(result.resolveSibling(result.getFileName() + ".gz")); i++) {
+            result = file.resolveSibling(base + "." + timestamp + "-" + i + extension);
+        }
+        return result;
+    }
+
+    protected void compress(final Path rotated) {
+        final Path target = rotated.resolveSibling(rotated.getFileName() + ".gz");
+        try (final InputStream in = Files.newInputStream(rotated); final OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (final IOException e) {
+            reportError("Failed to compress log file [" + rotated + "]", e, ErrorManager.GENERIC_FAILURE);
+            return;
+        }
+        try {
+            Files.deleteIfExists(rotated);
+            removeHistory();
+        } catch (final IOException e) {
+            reportError("Failed to remove rotated log file [" + rotated + "]", e, ErrorManager.GENERIC_FAILURE);
+        }
+    }
+
+    protected void removeHistory() throws IOException {
+        final String name = file.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        final String prefix = (dot > 0 ? name.substring(0, dot) : name) + ".";
+        final List<Path> history;
+        try (final Stream<Path> files = Files.list(file.toAbsolutePath().getParent())) {
+            history = files
+                .filter(path -> path.getFileName().toString().startsWith(prefix) && path.getFileName().toString().endsWith(".gz"))
+                .sorted(Comparator.comparing((Path path) -> rotationOf(path, prefix)).reversed())
+                .toList();
+        }
+        for (int i = maxHistory; i < history.size(); i++) {
+            Files.deleteIfExists(history.get(i));
+        }
+    }
+
+    /**
+     * @return timestamp and index of a rotated file, the index is compared as number as it can exceed one digit
+     */
+    protected static RotationKey rotationOf(final Path path, final String prefix) {
+        // <base>.<yyyyMMdd-HHmmss-SSS>[-<index>][.<extension>].gz
+        final String name = path.getFileName().toString();
+        final int timestampEnd = Math.min(name.length(), prefix.length() + ROTATE_FORMAT_LENGTH);
+        final String timestamp = name.substring(prefix.length(), timestampEnd);
+        long index = 0;
+        for (int i = timestampEnd + 1; name.startsWith("-", timestampEnd) && i < name.length() && Character.isDigit(name.charAt(i)); i++)
+            index = index * 10 + (name.charAt(i) - '0');
+        return new RotationKey(timestamp, index);
+    }
+
+    protected record RotationKey(String timestamp, long index) implements Comparable<RotationKey> {
+        @Override
+        public int compareTo(final RotationKey other) {
+            final int result = timestamp.compareTo(other.timestamp);
+            return result != 0 ? result : Long.compare(index, other.index);
+        }
+    }
+
+    protected static Thread daemon(final Runnable runnable, final String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" +
+            "file=" + file +
+            ", size=" + size() +
+            ", maxSize=" + maxSize +
+            ", rotateIntervalMs=" + rotateIntervalMs +
+            ", force=" + force +
+            '}';
+    }
+}
@@ -0,0 +1,24 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import java.util.Arrays;
+
+/**
+ * Defines what happens with a log message when the {@link berlin.yuna.nano.helper.logger.logic.LogQueue} is full.
+ */
+public enum LogQueuePolicy {
+    // The caller waits until the queue has space
+    BLOCK,
+    // The message is dropped
+    DROP_NEWEST,
+    // Messages below the drop level are dropped, others wait until the queue has space
+    DROP_BELOW_LEVEL,
+    // The caller writes the message itself
+    CALLER_RUNS;
+
+    public static LogQueuePolicy logQueuePolicyOf(final String policy) {
+        return Arrays.stream(LogQueuePolicy.values())
+            .filter(value -> value.name().equalsIgnoreCase(policy) || value.name().replace("_", "").equalsIgnoreCase(policy.replace("-", "").replace("_", "")))
+            .findFirst()
+            .orElse(BLOCK);
+    }
+}
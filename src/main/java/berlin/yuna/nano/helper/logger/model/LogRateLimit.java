@@ -0,0 +1,33 @@
+package berlin.yuna.nano.helper.logger.model;
+
+/**
+ * Limits for the log rate limiter (see {@link berlin.yuna.nano.helper.logger.logic.LogRateLimiter}).
+ *
+ * @param rate              maximum messages per second per call site, 0 = unlimited
+ * @param burst             maximum burst of messages per call site
+ * @param loggerRate        maximum messages per second per logger, 0 = unlimited
+ * @param sampleFirst       logs the first N messages per call site and summary interval, 0 = no sampling
+ * @param sampleEvery       logs every Mth message after the first N messages, 0 = none
+ * @param summaryIntervalMs interval of the suppressed messages summary
+ */
+public record LogRateLimit(double rate, int burst, double loggerRate, long sampleFirst, long sampleEvery, long summaryIntervalMs) {
+
+    public static final LogRateLimit DISABLED = new LogRateLimit(0, 0, 0, 0, 0, 10000);
+
+    public LogRateLimit {
+        rate = Math.max(0, rate);
+        burst = Math.max(1, burst);
+        loggerRate = Math.max(0, loggerRate);
+        sampleFirst = Math.max(0, sampleFirst);
+        sampleEvery = Math.max(0, sampleEvery);
+        summaryIntervalMs = Math.max(1, summaryIntervalMs);
+    }
+
+    public boolean enabled() {
+        return rate > 0 || loggerRate > 0 || sampling();
+    }
+
+    public boolean sampling() {
+        return sampleFirst > 0 || sampleEvery > 0;
+    }
+}
@@ -0,0 +1,10 @@
+package berlin.yuna.nano.helper.logger.model;
+
+/**
+ * Log level of a package or class, used as payload of {@link berlin.yuna.nano.helper.event.model.EventType#EVENT_APP_LOGGER_LEVEL}.
+ *
+ * @param name  package or class name
+ * @param level log level, null removes the level
+ */
+public record LoggerLevel(String name, LogLevel level) {
+}
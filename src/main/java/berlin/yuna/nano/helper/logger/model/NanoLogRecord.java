@@ -0,0 +1,33 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import java.io.Serial;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * {@link LogRecord} which carries the {@link LogContext} of its logger to the formatters.
+ */
+public class NanoLogRecord extends LogRecord {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient LogContext logContext;
+
+    public NanoLogRecord(final Level level, final String message, final LogContext logContext) {
+        super(level, message);
+        this.logContext = logContext;
+    }
+
+    public LogContext logContext() {
+        return logContext;
+    }
+
+    /**
+     * @param logRecord any record
+     * @return the {@link LogContext} of the record or null
+     */
+    public static LogContext logContextOf(final LogRecord logRecord) {
+        return logRecord instanceof final NanoLogRecord nanoLogRecord ? nanoLogRecord.logContext : null;
+    }
+}
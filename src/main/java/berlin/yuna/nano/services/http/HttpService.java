@@ -4,6 +4,8 @@ import berlin.yuna.nano.core.model.Context;
 import berlin.yuna.nano.core.model.Service;
 import berlin.yuna.nano.core.model.Unhandled;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.jfr.NanoJfr;
+import berlin.yuna.nano.helper.jfr.model.JfrHttpExchange;
 import berlin.yuna.nano.services.http.logic.HttpClient;
 import berlin.yuna.nano.services.http.model.HttpObject;
 import com.sun.net.httpserver.HttpExchange;
@@ -13,7 +15,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.http.HttpRequest;
 import java.util.HashMap;
@@ -54,6 +58,7 @@ public class HttpService extends Service {
         return server;
     }
 
+    public static final int DEFAULT_PORT = 8080;
     // important for port finding when using multiple HttpServers
     protected static final Lock STARTUP_LOCK = new ReentrantLock();
 
@@ -71,33 +76,32 @@ public class HttpService extends Service {
         isReady.set(false, true, state -> {
             context = contextSub.get().newContext(HttpService.class, null);
             STARTUP_LOCK.lock();
-            final int port = context.getOpt(Integer.class, CONFIG_SERVICE_HTTP_PORT.id()).filter(p -> p > 0).orElseGet(() -> nextFreePort(8080));
-            context.put(CONFIG_SERVICE_HTTP_PORT, port);
+            final int configuredPort = context.configOpt(Integer.class, CONFIG_SERVICE_HTTP_PORT).filter(p -> p > 0).orElse(0);
             handleHttps(context);
+            final long bindStartNs = System.nanoTime();
             try {
-                server = HttpServer.create(new InetSocketAddress(port), 0);
+                server = bind(configuredPort);
+                final int port = server.getAddress().getPort();
+                context.put(CONFIG_SERVICE_HTTP_PORT, port);
                 server.setExecutor(context.nano().threadPool());
                 server.createContext("/", exchange -> {
+                    final JfrHttpExchange jfr = NanoJfr.begin(JfrHttpExchange::new);
                     final HttpObject httpRequest = new HttpObject(exchange);
-                    try {
-                        context.sendEventReturn(EVENT_HTTP_REQUEST, httpRequest).responseOpt(HttpObject.class).ifPresentOrElse(
-                            response -> sendResponse(exchange, response),
-                            () -> context.sendEventReturn(EVENT_HTTP_REQUEST_UNHANDLED, httpRequest).responseOpt(HttpObject.class).ifPresentOrElse(
-                                response -> sendResponse(exchange, response),
-                                () -> sendResponse(exchange, new HttpObject().statusCode(404).body("Page not found".getBytes()).headerMap(new HashMap<>()))
-                            )
-                        );
-                    } catch (final Exception e) {
-                        context.sendEventReturn(EVENT_APP_UNHANDLED, new Unhandled(context, httpRequest, e)).responseOpt(HttpObject.class).ifPresentOrElse(
-                            response -> sendResponse(exchange, response),
-                            () -> new HttpObject().statusCode(500).body("Internal Server Error".getBytes()).headerMap(new HashMap<>())
-                        );
+                    final HttpObject response = handleExchange(context, httpRequest);
+                    final long bytes = sendResponse(exchange, response);
+                    if (NanoJfr.shouldCommit(jfr)) {
+                        jfr.method = exchange.getRequestMethod();
+                        jfr.route = exchange.getRequestURI().getPath();
+                        jfr.status = exchange.getResponseCode();
+                        jfr.bytes = bytes;
+                        jfr.commit();
                     }
                 });
                 server.start();
+                ofNullable(context.nano()).ifPresent(nano -> nano.startupTrace().record("http port " + port, bindStartNs));
                 logger.info(() -> "[{}] starting on port [{}]", name(), port);
             } catch (final IOException e) {
-                logger.error(e, () -> "[{}] failed to start with port [{}]", name(), port);
+                logger.error(e, () -> "[{}] failed to start with port [{}]", name(), configuredPort > 0 ? configuredPort : DEFAULT_PORT);
             } finally {
                 STARTUP_LOCK.unlock();
             }
@@ -155,7 +159,25 @@ public class HttpService extends Service {
         return null;
     }
 
-    protected void sendResponse(final HttpExchange exchange, final HttpObject response) {
+    protected HttpObject handleExchange(final Context context, final HttpObject httpRequest) {
+        try {
+            return context.sendEventReturn(EVENT_HTTP_REQUEST, httpRequest).responseOpt(HttpObject.class)
+                .or(() -> context.sendEventReturn(EVENT_HTTP_REQUEST_UNHANDLED, httpRequest).responseOpt(HttpObject.class))
+                .orElseGet(() -> new HttpObject().statusCode(404).body("Page not found".getBytes()).headerMap(new HashMap<>()));
+        } catch (final Exception e) {
+            return context.sendEventReturn(EVENT_APP_UNHANDLED, new Unhandled(context, httpRequest, e)).responseOpt(HttpObject.class)
+                .orElseGet(() -> new HttpObject().statusCode(500).body("Internal Server Error".getBytes()).headerMap(new HashMap<>()));
+        }
+    }
+
+    /**
+     * Sends the response to the client.
+     *
+     * @param exchange the {@link HttpExchange} of the request
+     * @param response the response to send
+     * @return number of body bytes sent or <code>-1</code> if the response was already sent
+     */
+    protected long sendResponse(final HttpExchange exchange, final HttpObject response) {
         try {
             final Map<String, List<String>> headers = response.computedHeaders(false);
             final int statusCode = response.statusCode() > -1 && response.statusCode() < 600 ? response.statusCode() : 200;
@@ -166,8 +188,10 @@ public class HttpService extends Service {
             try (final OutputStream os = exchange.getResponseBody()) {
                 os.write(body);
             }
+            return body.length;
         } catch (final IOException ignored) {
             // Response was already sent
+            return -1;
         }
     }
 
@@ -188,14 +212,37 @@ public class HttpService extends Service {
         return body;
     }
 
+    /**
+     * Binds the port directly instead of probing, so the port can't be taken between finding and binding.
+     *
+     * @param port port to bind, 0 = {@link HttpService#DEFAULT_PORT} or any free port if it's in use
+     * @return the bound server, not started yet
+     * @throws IOException if the configured port can't be bound
+     */
+    protected static HttpServer bind(final int port) throws IOException {
+        if (port > 0)
+            return HttpServer.create(new InetSocketAddress(port), 0);
+        try {
+            return HttpServer.create(new InetSocketAddress(DEFAULT_PORT), 0);
+        } catch (final BindException ignored) {
+            return HttpServer.create(new InetSocketAddress(0), 0);
+        }
+    }
+
+    /**
+     * @param startPort preferred port
+     * @return the preferred port if it's free, otherwise a free port chosen by the operating system
+     */
     public static int nextFreePort(final int startPort) {
-        for (int i = 0; i < 1024; i++) {
-            final int port = i + (Math.max(startPort, 1));
-            if (!isPortInUse(port)) {
-                return port;
+        try (final ServerSocket socket = new ServerSocket(Math.max(startPort, 0))) {
+            return socket.getLocalPort();
+        } catch (final IOException ignored) {
+            try (final ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            } catch (final IOException e) {
+                throw new IllegalStateException("Could not find any free port", e);
             }
         }
-        throw new IllegalStateException("Could not find any free port");
     }
 
     public static boolean isPortInUse(final int portNumber) {
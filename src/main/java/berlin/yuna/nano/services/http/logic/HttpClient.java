@@ -50,13 +50,13 @@ public class HttpClient {
     public HttpClient(final Context context, final java.net.http.HttpClient client) {
         this.context = context;
         this.client = client != null ? client : java.net.http.HttpClient.newBuilder()
-            .connectTimeout(Duration.ofMillis(ofNullable(context).map(ctx -> ctx.get(Long.class, CONFIG_HTTP_CLIENT_CON_TIMEOUT_MS.id())).orElse(5000L)))
-            .followRedirects(ofNullable(context).map(ctx -> ctx.get(Boolean.class, CONFIG_HTTP_CLIENT_FOLLOW_REDIRECTS.id())).orElse(true) ? ALWAYS : NEVER)
-            .version(ofNullable(context).map(ctx -> ctx.get(java.net.http.HttpClient.Version.class, CONFIG_HTTP_CLIENT_VERSION.id())).orElse(HTTP_2))
+            .connectTimeout(Duration.ofMillis(ofNullable(context).flatMap(ctx -> ctx.configOpt(Long.class, CONFIG_HTTP_CLIENT_CON_TIMEOUT_MS)).orElse(5000L)))
+            .followRedirects(ofNullable(context).flatMap(ctx -> ctx.configOpt(Boolean.class, CONFIG_HTTP_CLIENT_FOLLOW_REDIRECTS)).orElse(true) ? ALWAYS : NEVER)
+            .version(ofNullable(context).flatMap(ctx -> ctx.configOpt(java.net.http.HttpClient.Version.class, CONFIG_HTTP_CLIENT_VERSION)).orElse(HTTP_2))
             .executor(ofNullable(context).map(Context::nano).map(Nano::threadPool).orElse(VIRTUAL_THREAD_POOL))
             .build();
-        retries = ofNullable(context).map(ctx -> ctx.get(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES.id())).orElse(3);
-        readTimeoutMs = ofNullable(context).map(ctx -> ctx.get(Integer.class, CONFIG_HTTP_CLIENT_READ_TIMEOUT_MS.id())).orElse(10000);
+        retries = ofNullable(context).flatMap(ctx -> ctx.configOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).orElse(3);
+        readTimeoutMs = ofNullable(context).flatMap(ctx -> ctx.configOpt(Integer.class, CONFIG_HTTP_CLIENT_READ_TIMEOUT_MS)).orElse(10000);
     }
 
     /**
@@ -3,21 +3,28 @@ package berlin.yuna.nano.services.metric.logic;
 import berlin.yuna.nano.core.model.Config;
 import berlin.yuna.nano.core.model.Context;
 import berlin.yuna.nano.core.model.NanoThread;
+import berlin.yuna.nano.core.model.Scheduler;
 import berlin.yuna.nano.core.model.Service;
 import berlin.yuna.nano.core.model.Unhandled;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.jfr.VirtualThreadEvents;
 import berlin.yuna.nano.helper.logger.logic.LogQueue;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 import berlin.yuna.nano.services.http.model.ContentType;
 import berlin.yuna.nano.services.http.model.HttpHeaders;
 import berlin.yuna.nano.services.http.model.HttpObject;
 import berlin.yuna.nano.services.metric.model.MetricCache;
+import berlin.yuna.nano.services.metric.model.MetricCollector;
 import berlin.yuna.nano.services.metric.model.MetricUpdate;
 import berlin.yuna.nano.core.Nano;
 
 import java.io.File;
 import java.lang.management.*;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -29,10 +36,13 @@ import static berlin.yuna.nano.helper.event.model.EventType.*;
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class MetricService extends Service {
     private final MetricCache metrics = new MetricCache();
+    protected final Map<String, MetricCollector> collectors = new ConcurrentHashMap<>();
+    protected final Map<String, AtomicLong> collectorsDueAtMs = new ConcurrentHashMap<>();
     protected String prometheusPath;
     protected String dynamoPath;
     protected String influx;
     protected String wavefront;
+    protected VirtualThreadEvents virtualThreadEvents;
 
     public MetricService() {
         super(null, false);
@@ -42,22 +52,39 @@ public class MetricService extends Service {
     public void start(final Supplier<Context> contextSupplier) {
         AtomicReference<Optional<String>> basePath = new AtomicReference<>(Optional.empty());
         isReady.set(false, true, run -> {
+            final Context context = contextSupplier.get();
+            metrics.maxSeries(context.configOpt(Integer.class, Config.CONFIG_METRIC_SERVICE_MAX_SERIES).orElse(MetricCache.DEFAULT_MAX_SERIES));
+            metrics.seriesTtlMs(context.configOpt(Long.class, Config.CONFIG_METRIC_SERVICE_SERIES_TTL_MS).filter(ttl -> ttl > 0).orElse(0L));
+            if (metrics.seriesTtlMs() > 0)
+                context.run(metrics::evictStale, metrics.seriesTtlMs(), metrics.seriesTtlMs(), TimeUnit.MILLISECONDS, () -> !isReady());
+            if (Boolean.TRUE.equals(context.configOpt(Boolean.class, Config.CONFIG_METRIC_SERVICE_VIRTUAL_THREAD_EVENTS).orElse(false)))
+                startVirtualThreadEvents(context);
             updateSystemMetrics();
+            defaultCollectors(context.nano()).stream().filter(collector -> !collectors.containsKey(collector.name())).forEach(this::registerCollector);
             basePath.set(Optional.ofNullable(contextSupplier.get().get(String.class, Config.CONFIG_METRIC_SERVICE_BASE_PATH.id())).or(() -> Optional.of("/metrics")));
         });
 
-        prometheusPath = contextSupplier.get().getOpt(String.class, Config.CONFIG_METRIC_SERVICE_PROMETHEUS_PATH.id()).orElseGet(() -> basePath.get().map(base -> base + "/prometheus").orElse(null));
-        dynamoPath = contextSupplier.get().getOpt(String.class, Config.CONFIG_METRIC_SERVICE_DYNAMO_PATH.id()).orElseGet(() -> basePath.get().map(base -> base + "/dynamo").orElse(null));
-        influx = contextSupplier.get().getOpt(String.class, Config.CONFIG_METRIC_SERVICE_INFLUX_PATH.id()).orElseGet(() -> basePath.get().map(base -> base + "/influx").orElse(null));
-        wavefront = contextSupplier.get().getOpt(String.class, Config.CONFIG_METRIC_SERVICE_WAVEFRONT_PATH.id()).orElseGet(() -> basePath.get().map(base -> base + "/wavefront").orElse(null));
+        prometheusPath = contextSupplier.get().configOpt(String.class, Config.CONFIG_METRIC_SERVICE_PROMETHEUS_PATH).orElseGet(() -> basePath.get().map(base -> base + "/prometheus").orElse(null));
+        dynamoPath = contextSupplier.get().configOpt(String.class, Config.CONFIG_METRIC_SERVICE_DYNAMO_PATH).orElseGet(() -> basePath.get().map(base -> base + "/dynamo").orElse(null));
+        influx = contextSupplier.get().configOpt(String.class, Config.CONFIG_METRIC_SERVICE_INFLUX_PATH).orElseGet(() -> basePath.get().map(base -> base + "/influx").orElse(null));
+        wavefront = contextSupplier.get().configOpt(String.class, Config.CONFIG_METRIC_SERVICE_WAVEFRONT_PATH).orElseGet(() -> basePath.get().map(base -> base + "/wavefront").orElse(null));
+    }
+
+    protected void startVirtualThreadEvents(final Context context) {
+        final VirtualThreadEvents events = new VirtualThreadEvents(Duration.ofMillis(context.configOpt(Long.class, Config.CONFIG_METRIC_SERVICE_PINNED_THRESHOLD_MS).filter(ms -> ms >= 0).orElse(20L))).start();
+        virtualThreadEvents = events;
+        final long summaryMs = context.configOpt(Long.class, Config.CONFIG_METRIC_SERVICE_PINNED_SUMMARY_MS).orElse(60_000L);
+        if (summaryMs > 0)
+            context.run(() -> events.logSummary(logger), summaryMs, summaryMs, TimeUnit.MILLISECONDS, () -> !isReady() || !events.isRunning());
     }
 
     @Override
     public void stop(final Supplier<Context> contextSupplier) {
         isReady.set(true, false, run -> {
-            metrics.gauges().clear();
-            metrics.timers().clear();
-            metrics.counters().clear();
+            if (virtualThreadEvents != null)
+                virtualThreadEvents.close();
+            virtualThreadEvents = null;
+            metrics.clear();
         });
         //remove listener
     }
@@ -71,8 +98,9 @@ public class MetricService extends Service {
     public void onEvent(final Event event) {
         super.onEvent(event);
         event
-            .ifPresentAck(EVENT_APP_HEARTBEAT, Nano.class, this::updateMetrics)
+            .ifPresentAck(EVENT_APP_HEARTBEAT, Nano.class, nano -> collect(false))
             .ifPresentAck(EVENT_METRIC_UPDATE, MetricUpdate.class, this::updateMetric)
+            .ifPresentAck(EVENT_METRIC_COLLECTOR, MetricCollector.class, this::registerCollector)
             .ifPresent(EVENT_APP_LOG_LEVEL, LogLevel.class, level -> {
                 Arrays.stream(LogLevel.values()).filter(other -> other != level).forEach(other -> metrics.gaugeSet("logger", 0, Map.of("level", other.name())));
                 metrics.gaugeSet("logger", 1, Map.of("level", level.name()));
@@ -143,6 +171,70 @@ public class MetricService extends Service {
         return metrics;
     }
 
+    /**
+     * Registers a {@link MetricCollector} which runs on its own interval.
+     * A collector with the same name replaces the previous one.
+     *
+     * @param collector the collector to register
+     * @return self for chaining
+     */
+    public MetricService registerCollector(final MetricCollector collector) {
+        if (collector != null && collector.name() != null && collector.collector() != null && collector.intervalMs() > 0) {
+            collectorsDueAtMs.put(collector.name(), new AtomicLong(0));
+            collectors.put(collector.name(), collector);
+        }
+        return this;
+    }
+
+    /**
+     * Runs the registered {@link MetricCollector}s. The check is triggered by the {@link berlin.yuna.nano.helper.event.model.EventType#EVENT_APP_HEARTBEAT} and only runs collectors whose interval has elapsed.
+     *
+     * @param force <code>true</code> runs all collectors regardless of their interval
+     * @return self for chaining
+     */
+    public MetricService collect(final boolean force) {
+        final long now = System.currentTimeMillis();
+        collectors.values().forEach(collector -> {
+            final AtomicLong dueAtMs = collectorsDueAtMs.computeIfAbsent(collector.name(), name -> new AtomicLong(0));
+            final long dueAt = dueAtMs.get();
+            if ((force || now >= dueAt) && dueAtMs.compareAndSet(dueAt, now + collector.intervalMs())) {
+                Context.tryExecute(() -> collector.collector().accept(metrics));
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Provides an unmodifiable view of the registered {@link MetricCollector}.
+     *
+     * @return registered collectors by name
+     */
+    public Map<String, MetricCollector> collectors() {
+        return Collections.unmodifiableMap(collectors);
+    }
+
+    /**
+     * Default collectors of the system metrics. Cheap values are collected often, expensive ones rarely.
+     *
+     * @param nano the {@link Nano} instance to collect the application metrics from
+     * @return list of default collectors
+     */
+    protected List<MetricCollector> defaultCollectors(final Nano nano) {
+        return List.of(
+            new MetricCollector("cpu", 1000, cache -> updateCpuMetrics()),
+            new MetricCollector("memory", 1000, cache -> updateMemoryMetrics()),
+            new MetricCollector("pools", 5000, cache -> updatePoolMetrics()),
+            new MetricCollector("threads", 5000, cache -> updateThreadMetrics()),
+            new MetricCollector("nano", 5000, cache -> updateNanoMetrics(nano)),
+            new MetricCollector("events", 5000, cache -> updateEventMetrics(nano)),
+            new MetricCollector("metrics", 5000, cache -> updateCacheMetrics()),
+            new MetricCollector("buffers", 10000, cache -> updateBufferMetrics()),
+            new MetricCollector("classes", 10000, cache -> updateClassLoaderMetrics()),
+            new MetricCollector("compiler", 10000, cache -> updateCompilerMetrics()),
+            new MetricCollector("disk", 30000, cache -> updateDiscMetrics())
+        );
+    }
+
     public MetricService updateMetrics(final Nano nano) {
         updateNanoMetrics(nano);
         updateCpuMetrics();
@@ -153,13 +245,18 @@ public class MetricService extends Service {
         updateBufferMetrics();
         updateClassLoaderMetrics();
         updateCompilerMetrics();
+        updateCacheMetrics();
+        return this;
+    }
+
+    public void updateCacheMetrics() {
         Context.tryExecute(() -> {
             metrics.gaugeSet("service.metrics.gauges", metrics.gauges().size());
             metrics.gaugeSet("service.metrics.timers", metrics.timers().size());
             metrics.gaugeSet("service.metrics.counters", metrics.counters().size());
+            metrics.gaugeSet("service.metrics.overflows", metrics.overflows());
             metrics.gaugeSet("service.metrics.bytes", estimateMetricCacheSize());
         });
-        return this;
     }
 
     public void updateCompilerMetrics() {
@@ -194,21 +291,31 @@ public class MetricService extends Service {
 
     public void updateThreadMetrics() {
         Context.tryExecute(() -> {
-            metrics.gaugeSet("jvm.threads.live", Thread.activeCount());
             metrics.gaugeSet("jvm.threads.nano", NanoThread.activeNanoThreads());
+            metrics.gaugeSet("jvm.threads.virtual", NanoThread.activeVirtualThreads());
             metrics.gaugeSet("jvm.threads.carrier", NanoThread.activeCarrierThreads());
+            metrics.gaugeSet("jvm.threads.scheduler", Scheduler.activeSchedulerThreads());
         });
         Context.tryExecute(() -> {
+            // Thread counts only - a scan of all thread infos is too expensive for a periodic collector
             final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
             metrics.gaugeSet("jvm.threads.daemon", threadMXBean.getDaemonThreadCount());
             metrics.gaugeSet("jvm.threads.live", threadMXBean.getThreadCount());
             metrics.gaugeSet("jvm.threads.peak", threadMXBean.getPeakThreadCount());
-
-            Arrays.stream(threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds()))
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(ThreadInfo::getThreadState, Collectors.counting()))
-                .forEach((state, count) -> metrics.gaugeSet("jvm.threads.states", count, Map.of("state", state.toString().toLowerCase())));
         });
+        final VirtualThreadEvents events = virtualThreadEvents;
+        if (events != null) {
+            metrics.gaugeSet("jvm.threads.virtual.pinned", events.pinned());
+            metrics.gaugeSet("jvm.threads.virtual.pinned.ms", events.pinnedNs() / 1_000_000d);
+            metrics.gaugeSet("jvm.threads.virtual.pinned.max.ms", events.pinnedMaxNs() / 1_000_000d);
+            metrics.gaugeSet("jvm.threads.virtual.submit.failed", events.submitFailed());
+            // the most expensive sites only, to limit the number of series
+            events.sites().stream().limit(10).forEach(site -> {
+                final Map<String, String> tags = Map.of("site", site.site());
+                metrics.gaugeSet("jvm.threads.virtual.pinned.site", site.count(), tags);
+                metrics.gaugeSet("jvm.threads.virtual.pinned.site.ms", site.totalNs() / 1_000_000d, tags);
+            });
+        }
     }
 
     public void updatePoolMetrics() {
@@ -261,6 +368,52 @@ public class MetricService extends Service {
             metrics.gaugeSet("application.schedulers", nano.schedulers().size());
             metrics.gaugeSet("application.listeners", nano.listeners().size());
         });
+        Context.tryExecute(() -> {
+            metrics.gaugeSet("application.cpu.pool.parallelism", nano.cpuPool().getParallelism());
+            metrics.gaugeSet("application.cpu.pool.active", nano.cpuPool().getActiveThreadCount());
+            metrics.gaugeSet("application.cpu.pool.queued", nano.cpuPool().getQueuedTaskCount() + nano.cpuPool().getQueuedSubmissionCount());
+            metrics.gaugeSet("application.cpu.pool.steals", nano.cpuPool().getStealCount());
+        });
+        Context.tryExecute(() -> nano.executors().forEach((name, executor) -> {
+            final Map<String, String> tags = Map.of("executor", name);
+            metrics.gaugeSet("application.executor.active", executor.active(), tags);
+            metrics.gaugeSet("application.executor.active.max", executor.maxActive(), tags);
+            metrics.gaugeSet("application.executor.queued", executor.queued(), tags);
+            metrics.gaugeSet("application.executor.completed", executor.completed(), tags);
+            metrics.gaugeSet("application.executor.rejected", executor.rejected(), tags);
+            metrics.gaugeSet("application.executor.saturation", executor.saturation(), tags);
+        }));
+        Context.tryExecute(() -> {
+            metrics.gaugeSet("application.ordered.keys", nano.ordered().activeKeys());
+            metrics.gaugeSet("application.ordered.queued", nano.ordered().queued());
+            metrics.gaugeSet("application.ordered.completed", nano.ordered().completed());
+            metrics.gaugeSet("application.ordered.rejected", nano.ordered().rejected());
+            // no key tags, keys can be user data and unbounded
+            metrics.gaugeSet("application.ordered.key.depth.max", nano.ordered().maxKeyDepth());
+        });
+        Optional.ofNullable(nano.logger().logQueue()).ifPresent(logQueue -> {
+            metrics.gaugeSet("logger.queue.size", logQueue.size());
+            metrics.gaugeSet("logger.queue.capacity", logQueue.capacity());
+            metrics.gaugeSet("logger.queue.dropped", logQueue.dropped());
+            metrics.gaugeSet("logger.queue.caller.runs", logQueue.callerRuns());
+        });
+    }
+
+    public void updateEventMetrics(final Nano nano) {
+        Context.tryExecute(() -> nano.eventMetrics().snapshot().forEach((type, snapshot) -> {
+            final Map<String, String> tags = Map.of("type", type);
+            metrics.gaugeSet("application.events.dispatched", snapshot.dispatched(), tags);
+            metrics.gaugeSet("application.events.acknowledged", snapshot.acknowledged(), tags);
+            metrics.gaugeSet("application.events.unhandled", snapshot.unhandled(), tags);
+            metrics.gaugeSet("application.events.latency.avg.ms", snapshot.latency().avgMs(), tags);
+            metrics.gaugeSet("application.events.latency.max.ms", snapshot.latency().maxMs(), tags);
+            metrics.gaugeSet("application.events.latency.p50.ms", snapshot.percentileMs(0.5), tags);
+            metrics.gaugeSet("application.events.latency.p99.ms", snapshot.percentileMs(0.99), tags);
+            metrics.gaugeSet("application.events.queue.wait.avg.ms", snapshot.queueWait().avgMs(), tags);
+            metrics.gaugeSet("application.events.queue.wait.max.ms", snapshot.queueWait().maxMs(), tags);
+            snapshot.listeners().forEach((listener, timing) -> metrics.gaugeSet("application.events.listener.time.ms", timing.avgMs(), Map.of("type", type, "listener", listener)));
+            snapshot.services().forEach((service, timing) -> metrics.gaugeSet("application.events.service.time.ms", timing.avgMs(), Map.of("type", type, "service", service)));
+        }));
     }
 
     public void updateSystemMetrics() {
@@ -311,37 +464,7 @@ public class MetricService extends Service {
     }
 
     public long estimateMetricCacheSize() {
-        long totalSize = 0;
-        // Calculate size for counters, gauges, and timers
-        totalSize += estimateMapSize(new HashMap<>(metrics.counters()), 28) +
-            estimateMapSize(new HashMap<>(metrics.gauges()), 24) +
-            estimateMapSize(new HashMap<>(metrics.timers()), 16);
-
-        return totalSize;
-    }
-
-    private long estimateMapSize(final Map<String, MetricCache.Metric<?>> map, final long numberSize) {
-        long size = 36L;
-        for (final Map.Entry<String, MetricCache.Metric<?>> entry : map.entrySet()) {
-            size += 32L + // Entry overhead
-                estimateStringSize(entry.getKey()) + // Key size
-                estimateMetricSize(entry.getValue(), numberSize); // Value size
-        }
-        return size;
-    }
-
-    private long estimateMetricSize(final MetricCache.Metric<?> metric, final long numberSize) {
-        long size = 48; // TreeMap overhead for tags
-        size += estimateStringSize(metric.metricName()); // Metric name size
-        size += numberSize; // Number size (AtomicLong, Double, Long)
-        for (final Map.Entry<String, String> tag : metric.tags().entrySet()) {
-            size += estimateStringSize(tag.getKey()) + estimateStringSize(tag.getValue()); // Tag key-value sizes
-        }
-        return size;
-    }
-
-    private long estimateStringSize(final String string) {
-        return 24 + (long) string.length() * 2; // String object overhead + 2 bytes per character
+        return metrics.estimatedBytes();
     }
 
     public String prometheusPath() {
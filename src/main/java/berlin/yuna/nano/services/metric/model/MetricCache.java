@@ -3,6 +3,7 @@ package berlin.yuna.nano.services.metric.model;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -15,8 +16,82 @@ public class MetricCache {
     private final ConcurrentHashMap<String, Metric<AtomicLong>> counters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Metric<Double>> gauges = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Metric<Long>> timers = new ConcurrentHashMap<>();
+    // series per metric name - used to cap the cardinality of user derived tags
+    private final ConcurrentHashMap<String, AtomicInteger> cardinality = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong(MAP_OVERHEAD * 3);
+    private final AtomicLong overflows = new AtomicLong(0);
+    private volatile int maxSeries = DEFAULT_MAX_SERIES;
+    private volatile long seriesTtlMs = 0;
+
+    public static final int DEFAULT_MAX_SERIES = 1000;
+    public static final Map<String, String> OVERFLOW_TAGS = Map.of("overflow", "true");
+    protected static final long MAP_OVERHEAD = 36L;
+    protected static final long ENTRY_OVERHEAD = 32L;
+    protected static final long COUNTER_SIZE = 28L;
+    protected static final long GAUGE_SIZE = 24L;
+    protected static final long TIMER_SIZE = 16L;
+
+    public record Metric<T extends Number>(T value, TreeMap<String, String> tags, String metricName, long updatedAtMs) {
+
+        public Metric(final T value, final TreeMap<String, String> tags, final String metricName) {
+            this(value, tags, metricName, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @param id       sanitized metric name
+     * @param key      key of the series
+     * @param tags     tags of the series
+     * @param reserved true if a slot of the {@link MetricCache#maxSeries()} was reserved for a new series
+     */
+    protected record Series(String id, String key, TreeMap<String, String> tags, boolean reserved) {
+    }
+
+    /**
+     * Maximum number of series (distinct tag combinations) per metric name.
+     * Further series are collected in a single overflow series tagged with {@link MetricCache#OVERFLOW_TAGS}.
+     *
+     * @param maxSeries maximum series per metric name, <code>0</code> or less disables the limit
+     * @return self for chaining
+     */
+    public MetricCache maxSeries(final int maxSeries) {
+        this.maxSeries = maxSeries;
+        return this;
+    }
 
-    public record Metric<T extends Number>(T value, TreeMap<String, String> tags, String metricName) {
+    public int maxSeries() {
+        return maxSeries;
+    }
+
+    /**
+     * Time after which series without any update are removed on {@link MetricCache#evictStale()}.
+     *
+     * @param seriesTtlMs time to live in milliseconds, <code>0</code> or less disables the eviction
+     * @return self for chaining
+     */
+    public MetricCache seriesTtlMs(final long seriesTtlMs) {
+        this.seriesTtlMs = seriesTtlMs;
+        return this;
+    }
+
+    public long seriesTtlMs() {
+        return seriesTtlMs;
+    }
+
+    /**
+     * @return number of updates which were redirected to an overflow series as the {@link MetricCache#maxSeries()} was reached
+     */
+    public long overflows() {
+        return overflows.get();
+    }
+
+    /**
+     * Estimated memory footprint of all series. The estimation is updated incrementally when series are added or removed.
+     *
+     * @return estimated size in bytes
+     */
+    public long estimatedBytes() {
+        return estimatedBytes.get();
     }
 
     public Map<String, Metric<AtomicLong>> counters() {
@@ -47,7 +122,18 @@ public class MetricCache {
         if (name != null) {
             final String id = sanitizeMetricName(name);
             final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
-            counters.computeIfAbsent(tags == null ? id : generateUniqueKey(id, sortedTags), key -> new Metric<>(new AtomicLong(), sortedTags, id)).value.incrementAndGet();
+            final Series series = admit(counters, id, sortedTags, tags != null);
+            counters.compute(series.key(), (key, metric) -> {
+                if (metric == null) {
+                    final Metric<AtomicLong> result = new Metric<>(new AtomicLong(1), series.tags(), id);
+                    onSeriesAdded(key, result, COUNTER_SIZE, series.reserved());
+                    return result;
+                }
+                release(series);
+                metric.value.incrementAndGet();
+                // the counter is updated in place, only the timestamp for the eviction needs a new metric
+                return isFresh(metric) ? metric : new Metric<>(metric.value, metric.tags, id);
+            });
         }
         return this;
     }
@@ -69,7 +155,17 @@ public class MetricCache {
         if (name != null && value > -1) {
             final String id = sanitizeMetricName(name);
             final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
-            gauges.put(tags == null ? id : generateUniqueKey(id, sortedTags), new Metric<>(value, sortedTags, id));
+            final Series series = admit(gauges, id, sortedTags, tags != null);
+            gauges.compute(series.key(), (key, metric) -> {
+                if (metric != null)
+                    release(series);
+                if (metric != null && metric.value == value && isFresh(metric))
+                    return metric;
+                final Metric<Double> result = new Metric<>(value, series.tags(), id);
+                if (metric == null)
+                    onSeriesAdded(key, result, GAUGE_SIZE, series.reserved());
+                return result;
+            });
         }
         return this;
     }
@@ -91,7 +187,15 @@ public class MetricCache {
         if (name != null) {
             final String id = sanitizeMetricName(name);
             final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
-            timers.put(tags == null ? id : generateUniqueKey(id, sortedTags), new Metric<>(System.currentTimeMillis(), sortedTags, id));
+            final Series series = admit(timers, id, sortedTags, tags != null);
+            timers.compute(series.key(), (key, metric) -> {
+                final Metric<Long> result = new Metric<>(System.currentTimeMillis(), series.tags(), id);
+                if (metric == null)
+                    onSeriesAdded(key, result, TIMER_SIZE, series.reserved());
+                else
+                    release(series);
+                return result;
+            });
         }
         return this;
     }
@@ -104,7 +208,8 @@ public class MetricCache {
         if (name != null) {
             final String id = sanitizeMetricName(name);
             final TreeMap<String, String> sortedTags = new TreeMap<>(tags != null ? tags : emptyMap());
-            timers.computeIfPresent(tags == null ? id : generateUniqueKey(id, sortedTags), (key, metric) -> new Metric<>(System.currentTimeMillis() - metric.value, sortedTags, id));
+            final String key = tags == null ? id : generateUniqueKey(id, sortedTags);
+            timers.computeIfPresent(timers.containsKey(key) ? key : generateUniqueKey(id, OVERFLOW_TAGS), (k, metric) -> new Metric<>(System.currentTimeMillis() - metric.value, metric.tags, id));
         }
         return this;
     }
@@ -118,6 +223,35 @@ public class MetricCache {
         return ofNullable(timers.get(tags == null ? id : generateUniqueKey(id, new TreeMap<>(tags)))).map(Metric::value).orElse(-1L);
     }
 
+    /**
+     * Removes all series which were not updated within {@link MetricCache#seriesTtlMs()}.
+     *
+     * @return number of removed series
+     */
+    public int evictStale() {
+        final long ttl = seriesTtlMs;
+        if (ttl <= 0)
+            return 0;
+        final long expiredBefore = System.currentTimeMillis() - ttl;
+        return evictStale(counters, expiredBefore, COUNTER_SIZE)
+            + evictStale(gauges, expiredBefore, GAUGE_SIZE)
+            + evictStale(timers, expiredBefore, TIMER_SIZE);
+    }
+
+    /**
+     * Removes all series and resets the cardinality and memory accounting.
+     *
+     * @return self for chaining
+     */
+    public MetricCache clear() {
+        counters.clear();
+        gauges.clear();
+        timers.clear();
+        cardinality.clear();
+        estimatedBytes.set(MAP_OVERHEAD * 3);
+        return this;
+    }
+
     // Adjustments for metric formatting methods to use metric.metricName instead of the unique key
     public String prometheus() {
         final StringBuilder result = new StringBuilder();
@@ -157,6 +291,85 @@ public class MetricCache {
         return name == null ? "UNKNOWN.METRIC" : name.replaceAll("[^a-zA-Z0-9.]", ".").replace("..", ".").replaceAll("^\\.|\\.$", "");
     }
 
+    /**
+     * Resolves the key and tags of a series. Redirects new series to the overflow series when the {@link MetricCache#maxSeries()} of the metric name is reached.
+     * A new series reserves its slot atomically, so concurrent writers can't exceed the limit. The caller releases the slot via {@link MetricCache#release(Series)} if the series already existed.
+     *
+     * @return key and tags of the series to update
+     */
+    protected Series admit(final Map<String, ? extends Metric<?>> map, final String id, final TreeMap<String, String> sortedTags, final boolean tagged) {
+        final String key = tagged ? generateUniqueKey(id, sortedTags) : id;
+        final int limit = maxSeries;
+        if (limit <= 0 || map.containsKey(key))
+            return new Series(id, key, sortedTags, false);
+        final boolean[] reserved = {false};
+        cardinality.compute(id, (name, series) -> {
+            final AtomicInteger result = series == null ? new AtomicInteger() : series;
+            if (result.get() < limit) {
+                result.incrementAndGet();
+                reserved[0] = true;
+            }
+            return result;
+        });
+        if (reserved[0])
+            return new Series(id, key, sortedTags, true);
+        overflows.incrementAndGet();
+        return new Series(id, generateUniqueKey(id, OVERFLOW_TAGS), new TreeMap<>(OVERFLOW_TAGS), false);
+    }
+
+    /**
+     * Gives back the reserved slot of a series which was created by a concurrent writer.
+     */
+    protected void release(final Series series) {
+        if (series.reserved())
+            cardinality.computeIfPresent(series.id(), (name, count) -> count.decrementAndGet() > 0 ? count : null);
+    }
+
+    /**
+     * Unchanged values are not written again. The timestamp is refreshed after half of the {@link MetricCache#seriesTtlMs()} to prevent the eviction of static values.
+     */
+    protected boolean isFresh(final Metric<?> metric) {
+        final long ttl = seriesTtlMs;
+        return ttl <= 0 || System.currentTimeMillis() - metric.updatedAtMs < ttl / 2;
+    }
+
+    protected void onSeriesAdded(final String key, final Metric<?> metric, final long numberSize, final boolean reserved) {
+        if (!reserved)
+            cardinality.computeIfAbsent(metric.metricName, name -> new AtomicInteger()).incrementAndGet();
+        estimatedBytes.addAndGet(estimateSize(key, metric, numberSize));
+    }
+
+    protected void onSeriesRemoved(final String key, final Metric<?> metric, final long numberSize) {
+        cardinality.computeIfPresent(metric.metricName, (name, series) -> series.decrementAndGet() > 0 ? series : null);
+        estimatedBytes.addAndGet(-estimateSize(key, metric, numberSize));
+    }
+
+    protected <T extends Number> int evictStale(final Map<String, Metric<T>> map, final long expiredBefore, final long numberSize) {
+        final AtomicInteger removed = new AtomicInteger(0);
+        map.forEach((key, metric) -> {
+            if (metric.updatedAtMs < expiredBefore && map.remove(key, metric)) {
+                onSeriesRemoved(key, metric, numberSize);
+                removed.incrementAndGet();
+            }
+        });
+        return removed.get();
+    }
+
+    protected static long estimateSize(final String key, final Metric<?> metric, final long numberSize) {
+        long size = ENTRY_OVERHEAD + estimateStringSize(key); // Entry overhead + key size
+        size += 48; // TreeMap overhead for tags
+        size += estimateStringSize(metric.metricName); // Metric name size
+        size += numberSize; // Number size (AtomicLong, Double, Long)
+        for (final Map.Entry<String, String> tag : metric.tags.entrySet()) {
+            size += estimateStringSize(tag.getKey()) + estimateStringSize(tag.getValue()); // Tag key-value sizes
+        }
+        return size;
+    }
+
+    protected static long estimateStringSize(final String string) {
+        return 24 + (long) string.length() * 2; // String object overhead + 2 bytes per character
+    }
+
     // Adjusted formatting methods to utilize metric.metricName
     private String formatPrometheusMetric(final Metric<?> metric) {
         final String tagsString = metric.tags.entrySet().stream()
@@ -0,0 +1,14 @@
+package berlin.yuna.nano.services.metric.model;
+
+import java.util.function.Consumer;
+
+/**
+ * Periodic metric collector of the {@link berlin.yuna.nano.services.metric.logic.MetricService}.
+ * Each collector runs on its own interval. Registering a collector with an existing name replaces the previous one.
+ *
+ * @param name       unique name of the collector
+ * @param intervalMs interval between two collections in milliseconds
+ * @param collector  writes the collected values into the {@link MetricCache}
+ */
+public record MetricCollector(String name, long intervalMs, Consumer<MetricCache> collector) {
+}
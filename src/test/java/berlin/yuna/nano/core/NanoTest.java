@@ -2,19 +2,32 @@ package berlin.yuna.nano.core;
 
 import berlin.yuna.nano.core.model.Context;
 import berlin.yuna.nano.core.model.Unhandled;
+import berlin.yuna.nano.examples.CdsTraining;
+import berlin.yuna.nano.helper.StartupTrace;
 import berlin.yuna.nano.helper.event.model.Event;
 import berlin.yuna.nano.helper.logger.model.LogLevel;
 import berlin.yuna.nano.model.TestService;
+import berlin.yuna.nano.services.http.HttpService;
+import berlin.yuna.nano.services.http.model.HttpObject;
+import berlin.yuna.typemap.model.TypeList;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
 
 import static berlin.yuna.nano.core.config.TestConfig.*;
 import static berlin.yuna.nano.core.model.Config.*;
@@ -22,6 +35,7 @@ import static berlin.yuna.nano.core.model.Context.*;
 import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_SHUTDOWN;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_UNHANDLED;
+import static berlin.yuna.nano.helper.event.model.EventType.EVENT_HTTP_REQUEST;
 import static berlin.yuna.nano.model.TestService.TEST_EVENT;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,6 +58,8 @@ class NanoTest {
         assertThat(nano.rootContext.get(String.class, "resource_key1")).isEqualTo("AA");
         assertThat(nano.rootContext.get(String.class, "resource_key2")).isEqualTo("CC");
         assertThat(nano.rootContext).doesNotContainKey("test_placeholder_fallback_empty");
+        assertThat(nano.startupTrace().isFinished()).isTrue();
+        assertThat(nano.startupTrace().phases()).extracting(StartupTrace.Phase::name).startsWith("config files", "config profiles", "config environment", "logger init");
         nano.stop(this.getClass());
     }
 
@@ -306,4 +322,62 @@ class NanoTest {
         assertThat(service.stopCount()).isEqualTo(1);
 //        assertThat(service.events()).hasSizeBetween(1, 3);
     }
+
+    @Test
+    void cdsTraining_shouldCallServicesAndStop() {
+        final TestService lazy = new TestService() {
+            @Override
+            public List<Integer> activationEvents() {
+                return List.of(TEST_EVENT);
+            }
+        };
+        lazy.lazy(true);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_CDS_TRAINING, true, CONFIG_CDS_TRAINING_PATHS, "/training, health"), lazy, new HttpService());
+        assertThat(nano.isReady()).isFalse();
+        assertThat(nano.lazyServices()).isEmpty();
+        assertThat(lazy.startCount()).isEqualTo(1);
+        assertThat(lazy.stopCount()).isEqualTo(1);
+        assertThat(lazy.events(EVENT_HTTP_REQUEST)).extracting(event -> event.payload(HttpObject.class).path()).contains("/training", "/health");
+    }
+
+    @Test
+    void cdsTraining_shouldWriteArchiveWhichIsUsedOnNextStart(@TempDir final Path dir) throws Exception {
+        // AppCDS only archives classes from jar files
+        final Path jar = dir.resolve("app.jar");
+        final Path classes = Path.of(Nano.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Path testClasses = Path.of(CdsTraining.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final String app = CdsTraining.class.getName().replace('.', '/') + ".class";
+        try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); final Stream<Path> files = Files.walk(classes)) {
+            for (final Path file : files.filter(Files::isRegularFile).toList())
+                addJarEntry(out, classes.relativize(file).toString().replace('\\', '/'), file);
+            addJarEntry(out, app, testClasses.resolve(app));
+        }
+        final String classPath = jar + File.pathSeparator + Path.of(TypeList.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Path archive = dir.resolve("app.jsa");
+
+        final String training = runJvm(classPath, "-XX:ArchiveClassesAtExit=" + archive);
+        assertThat(archive).isNotEmptyFile();
+        assertThat(training).contains("CDS training for archive");
+
+        final String run = runJvm(classPath, "-XX:SharedArchiveFile=" + archive, "-Xlog:class+load=info", "-Xlog:cds=warning");
+        assertThat(run).doesNotContain("[cds]").contains(Nano.class.getName() + " source: shared objects file");
+    }
+
+    private static void addJarEntry(final JarOutputStream out, final String name, final Path file) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        Files.copy(file, out);
+        out.closeEntry();
+    }
+
+    private static String runJvm(final String classPath, final String... vmOptions) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(vmOptions));
+        command.addAll(List.of("-cp", classPath, CdsTraining.class.getName(), "--app_cds_training=true", "--app_log_level=INFO"));
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final String output = new String(process.getInputStream().readAllBytes());
+        assertThat(process.waitFor(TEST_TIMEOUT, MILLISECONDS)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        return output;
+    }
 }
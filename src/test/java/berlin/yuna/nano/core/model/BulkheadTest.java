@@ -0,0 +1,130 @@
+package berlin.yuna.nano.core.model;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.core.config.TestConfig;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Execution(ExecutionMode.CONCURRENT)
+class BulkheadTest {
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void execute_shouldLimitConcurrentTasks() throws InterruptedException {
+        final Bulkhead bulkhead = new Bulkhead("db", 4, 1000, Bulkhead.RejectionPolicy.ABORT, null);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(100);
+        IntStream.range(0, 100).forEach(i -> bulkhead.execute(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            running.decrementAndGet();
+            done.countDown();
+        }));
+        assertThat(done.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(maxRunning.get()).isBetween(1, 4);
+        assertThat(bulkhead.maxActive()).isBetween(1, 4);
+        assertThat(waitForCondition(() -> bulkhead.completed() == 100, TEST_TIMEOUT)).isTrue();
+        assertThat(bulkhead.queued()).isZero();
+        assertThat(bulkhead.rejected()).isZero();
+    }
+
+    @Test
+    void execute_shouldApplyRejectionPolicy() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Bulkhead abort = new Bulkhead("abort", 1, 1, Bulkhead.RejectionPolicy.ABORT, null);
+        abort.execute(() -> awaitLatch(release));
+        abort.execute(() -> {});
+        assertThat(abort.saturation()).isEqualTo(1d);
+        assertThatThrownBy(() -> abort.execute(() -> {})).isInstanceOf(RejectedExecutionException.class).hasMessageContaining("abort");
+
+        final Bulkhead callerRuns = new Bulkhead("caller", 1, 0, Bulkhead.RejectionPolicy.CALLER_RUNS, null);
+        callerRuns.execute(() -> awaitLatch(release));
+        final AtomicInteger callerThread = new AtomicInteger();
+        callerRuns.execute(() -> callerThread.set(Thread.currentThread().hashCode()));
+        assertThat(callerThread.get()).isEqualTo(Thread.currentThread().hashCode());
+
+        final Bulkhead discard = new Bulkhead("discard", 1, 0, Bulkhead.RejectionPolicy.DISCARD, null);
+        discard.execute(() -> awaitLatch(release));
+        discard.execute(() -> {});
+        assertThat(abort.rejected() + callerRuns.rejected() + discard.rejected()).isEqualTo(3);
+
+        release.countDown();
+        abort.shutdown();
+        assertThat(abort.awaitTermination(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(abort.completed()).isEqualTo(2);
+        assertThatThrownBy(() -> abort.execute(() -> {})).isInstanceOf(RejectedExecutionException.class).hasMessageContaining("shut down");
+    }
+
+    @Test
+    void discard_shouldCancelNanoThread() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Bulkhead bulkhead = new Bulkhead("discard", 1, 0, Bulkhead.RejectionPolicy.DISCARD, null);
+        bulkhead.execute(() -> awaitLatch(release));
+        final NanoThread<Void> thread = new NanoThread<Void>().run(bulkhead, null, () -> {});
+        assertThat(thread.isCancelled()).isTrue();
+        assertThat(thread.await().isDone()).isTrue();
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+        release.countDown();
+
+        final Bulkhead callerRuns = new Bulkhead("caller", 1, 0, Bulkhead.RejectionPolicy.CALLER_RUNS, null);
+        callerRuns.shutdown();
+        assertThatThrownBy(() -> callerRuns.execute(() -> {})).isInstanceOf(RejectedExecutionException.class).hasMessageContaining("shut down");
+    }
+
+    @Test
+    void drain_shouldCancelTaskWhenDelegateIsShutDown() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService delegate = Executors.newSingleThreadExecutor();
+        final Bulkhead bulkhead = new Bulkhead("drain", 1, 1, Bulkhead.RejectionPolicy.ABORT, delegate);
+        bulkhead.execute(() -> awaitLatch(release));
+        final NanoThread<Void> queued = new NanoThread<Void>().run(bulkhead, null, () -> {});
+        assertThat(bulkhead.queued()).isEqualTo(1);
+
+        delegate.shutdown();
+        release.countDown();
+        assertThat(delegate.awaitTermination(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(queued.isCancelled()).isTrue();
+        assertThat(bulkhead.queued()).isZero();
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+        assertThat(bulkhead.completed()).isEqualTo(1);
+    }
+
+    @Test
+    void executor_shouldBeNamedPerNano() throws Exception {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL));
+        final Context context = nano.newContext(BulkheadTest.class);
+        final Bulkhead bulkhead = context.executor("db", 2);
+        assertThat(context.executor("db", 64)).isSameAs(bulkhead);
+        assertThat(bulkhead.maxConcurrent()).isEqualTo(2);
+        assertThat(bulkhead.submit(() -> 42).get(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isEqualTo(42);
+        assertThat(nano.executors()).containsEntry("db", bulkhead);
+        assertThat(nano.stop(BulkheadTest.class).waitForStop().isReady()).isFalse();
+        assertThat(bulkhead.isShutdown()).isTrue();
+        assertThat(nano.executors()).isEmpty();
+    }
+
+    private static void awaitLatch(final CountDownLatch latch) {
+        try {
+            latch.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
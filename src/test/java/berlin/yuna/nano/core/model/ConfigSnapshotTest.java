@@ -0,0 +1,70 @@
+package berlin.yuna.nano.core.model;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.core.config.TestConfig;
+import berlin.yuna.nano.helper.event.model.EventType;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Map;
+
+import static berlin.yuna.nano.core.model.Config.CONFIG_EXECUTOR_MAX_QUEUE;
+import static berlin.yuna.nano.core.model.Config.CONFIG_HTTP_CLIENT_MAX_RETRIES;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_THREAD_POOL_TIMEOUT_MS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Execution(ExecutionMode.CONCURRENT)
+class ConfigSnapshotTest {
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void getOpt_shouldConvertOncePerType() {
+        final ConfigSnapshot config = ConfigSnapshot.of(Map.of(CONFIG_THREAD_POOL_TIMEOUT_MS.id(), "250", "App.Custom-Key", "42"));
+        assertThat(config.size()).isEqualTo(2);
+        assertThat(config.has(CONFIG_THREAD_POOL_TIMEOUT_MS)).isTrue();
+        assertThat(config.has(CONFIG_EXECUTOR_MAX_QUEUE)).isFalse();
+
+        final Long timeout = config.get(Long.class, CONFIG_THREAD_POOL_TIMEOUT_MS);
+        assertThat(timeout).isEqualTo(250L);
+        assertThat(config.getOpt(Long.class, CONFIG_THREAD_POOL_TIMEOUT_MS)).containsSame(timeout);
+        assertThat(config.getOpt(String.class, CONFIG_THREAD_POOL_TIMEOUT_MS)).contains("250");
+        assertThat(config.getOpt(Integer.class, CONFIG_EXECUTOR_MAX_QUEUE)).isEmpty();
+
+        assertThat(config.getOpt(Integer.class, "app_custom_key")).contains(42);
+        assertThat(config.getOpt(Integer.class, "app.custom.key")).containsSame(config.getOpt(Integer.class, "app_custom_key").orElseThrow());
+        assertThat(config.getOpt(Integer.class, "app_unknown")).isEmpty();
+        // both types stay memoized, missing keys are not memoized
+        assertThat(config.getOpt(String.class, "app_custom_key")).contains("42");
+        assertThat(config.getOpt(Integer.class, "app_custom_key")).containsSame(config.getOpt(Integer.class, "app.custom.key").orElseThrow());
+        assertThat(config.getOpt(String.class, CONFIG_THREAD_POOL_TIMEOUT_MS)).containsSame(config.getOpt(String.class, CONFIG_THREAD_POOL_TIMEOUT_MS).orElseThrow());
+        assertThat(config.getOpt(Long.class, CONFIG_THREAD_POOL_TIMEOUT_MS)).containsSame(timeout);
+        assertThat(config.memo).containsOnlyKeys(CONFIG_THREAD_POOL_TIMEOUT_MS.id(), "app_custom_key");
+        assertThat(config.memo.get("app_custom_key")).containsOnlyKeys(Integer.class, String.class);
+        assertThat(config.values()).containsOnlyKeys(CONFIG_THREAD_POOL_TIMEOUT_MS.id(), "app_custom_key");
+        assertThatThrownBy(() -> config.values().put("app_other", "1")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void configOpt_shouldPreferContextOverrides() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL, CONFIG_HTTP_CLIENT_MAX_RETRIES, "5"));
+        final Context context = nano.newContext(ConfigSnapshotTest.class);
+        assertThat(nano.config().getOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).contains(5);
+        assertThat(context.configOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).containsSame(nano.config().get(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES));
+
+        context.put(CONFIG_HTTP_CLIENT_MAX_RETRIES.id(), "7");
+        assertThat(context.configOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).contains(7);
+        assertThat(nano.config().getOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).contains(5);
+        context.remove(CONFIG_HTTP_CLIENT_MAX_RETRIES.id());
+        assertThat(context.configOpt(Integer.class, CONFIG_HTTP_CLIENT_MAX_RETRIES)).isEmpty();
+
+        final ConfigSnapshot before = nano.config();
+        context.sendEvent(EventType.EVENT_APP_LOG_LEVEL, LogLevel.WARN);
+        assertThat(nano.config()).isNotSameAs(before);
+        assertThat(nano.config().getOpt(LogLevel.class, CONFIG_LOG_LEVEL)).contains(LogLevel.WARN);
+        assertThat(nano.stop(ConfigSnapshotTest.class).waitForStop().isReady()).isFalse();
+    }
+}
@@ -3,14 +3,19 @@ package berlin.yuna.nano.core.model;
 import berlin.yuna.nano.core.Nano;
 import berlin.yuna.nano.core.config.TestConfig;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.logger.model.LogContext;
 import berlin.yuna.nano.model.TestService;
 import berlin.yuna.typemap.model.TypeList;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -19,6 +24,7 @@ import static berlin.yuna.nano.core.model.Context.CONTEXT_LOGGER_KEY;
 import static berlin.yuna.nano.core.model.Context.CONTEXT_TRACE_ID_KEY;
 import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_HEARTBEAT;
+import static java.util.Arrays.stream;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +43,12 @@ class ContextTest {
         // Verify logger
         assertThat(context.logger().logger().getName()).isEqualTo(Context.class.getCanonicalName());
         assertThat(context.loggerReturn(Nano.class).logger().getName()).isEqualTo(Nano.class.getCanonicalName());
+        assertThat(context.logger().logContext().traceId()).isEqualTo(context.traceId());
+        final Context serviceContext = context.newContext(TestService.class);
+        assertThat(serviceContext.logger().logContext().service()).isEqualTo(TestService.class.getSimpleName());
+        final Context childContext = serviceContext.newContext(ContextTest.class);
+        assertThat(childContext.logger().logContext()).isEqualTo(new LogContext(childContext.traceId(), TestService.class.getSimpleName()));
+        assertThat(childContext.loggerReturn(Nano.class).logContext()).isSameAs(childContext.logger().logContext());
 
         // Verify event listener
         assertThat(nano.listeners().get(EVENT_APP_HEARTBEAT)).hasSize(1);
@@ -141,6 +153,33 @@ class ContextTest {
         //TODO: create an unhandled element and check if the error was unhandled
     }
 
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testRunAwait_withDeadline() {
+        final Context context = Context.createRootContext();
+        final AtomicInteger done = new AtomicInteger();
+        assertThat(context.runAwait(Duration.ofSeconds(10), done::incrementAndGet, done::incrementAndGet)).isEqualTo(context);
+        assertThat(done.get()).isEqualTo(2);
+        assertThatThrownBy(() -> context.runAwait(Duration.ofSeconds(10), done::incrementAndGet, () -> {
+            throw new IllegalStateException("Nothing to see here, just a test exception");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(context.runAwaitAnyReturn(Duration.ofSeconds(10), done::incrementAndGet)).hasSize(1).allMatch(NanoThread::isComplete);
+        assertThatThrownBy(() -> context.runAwait(Duration.ofMillis(10), () -> Thread.sleep(10_000))).isInstanceOf(CompletionException.class).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testRunReturn_withCallable() {
+        final Context context = Context.createRootContext();
+        final NanoThread<Integer>[] threads = context.runReturn(() -> 1, () -> 2, () -> 3);
+        assertThat(NanoThread.allOf(threads).thenApply(ignored -> stream(threads).mapToInt(NanoThread::join).sum()).join()).isEqualTo(6);
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testParallel() {
+        final Context context = Context.createRootContext();
+        assertThat(context.parallel(List.of("a", "b", "c"), String::toUpperCase)).containsExactly("A", "B", "C");
+        assertThat(context.parallel(List.of(1, 2, 3), i -> Thread.currentThread().isVirtual(), 2)).containsOnly(false);
+    }
+
     private void assertContextBehaviour(final Context context) {
         assertThat(context)
             .hasSize(1)
@@ -5,15 +5,25 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 
 import static berlin.yuna.nano.core.model.NanoThread.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Execution(ExecutionMode.CONCURRENT)
 class NanoThreadTest {
@@ -23,7 +33,7 @@ class NanoThreadTest {
     @RepeatedTest(TestConfig.TEST_REPEAT)
     void waitForAll_shouldBlockAndWait() {
         final AtomicInteger doneThreads = new AtomicInteger(0);
-        final NanoThread[] threads = startConcurrentThreads(doneThreads);
+        final NanoThread<?>[] threads = startConcurrentThreads(doneThreads);
 
         NanoThread.waitFor(threads);
         assertThat(doneThreads.get()).isEqualTo(TestConfig.TEST_REPEAT);
@@ -43,7 +53,7 @@ class NanoThreadTest {
     @RepeatedTest(TestConfig.TEST_REPEAT)
     void waitFor_shouldBlockAndWait() {
         final AtomicInteger doneThreads = new AtomicInteger(0);
-        final NanoThread[] threads = startConcurrentThreads(doneThreads);
+        final NanoThread<?>[] threads = startConcurrentThreads(doneThreads);
 
         Arrays.stream(threads).forEach(NanoThread::await);
         assertThat(doneThreads.get()).isEqualTo(TestConfig.TEST_REPEAT);
@@ -55,7 +65,7 @@ class NanoThreadTest {
     void waitFor_shouldNotBlockWait() throws InterruptedException {
         final CountDownLatch latch = new CountDownLatch(TestConfig.TEST_REPEAT);
         final AtomicInteger doneThreads = new AtomicInteger(0);
-        final NanoThread[] threads = startConcurrentThreads(doneThreads);
+        final NanoThread<?>[] threads = startConcurrentThreads(doneThreads);
 
         Arrays.stream(threads).forEach(thread -> thread.await(latch::countDown));
         assertThat(doneThreads.get()).isLessThan(TestConfig.TEST_REPEAT);
@@ -69,12 +79,180 @@ class NanoThreadTest {
     void activeNanoThreadCount() {
         new NanoThread().run(null, null, () -> {
             assertThat(activeNanoThreads()).isPositive();
+            assertThat(activeVirtualThreads()).isPositive();
             assertThat(activeCarrierThreads()).isPositive();
         });
     }
 
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void runScope_shouldCancelSiblingsAndThrowFirstFailure() {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        assertThatThrownBy(() -> runScope(null, null, null, Duration.ofSeconds(10), false,
+            () -> sleepUntilInterrupted(started, cancelled),
+            () -> {
+                awaitLatch(started);
+                throw new IllegalStateException("boom");
+            }
+        )).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(awaitLatch(cancelled)).isTrue();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void runScope_shouldWrapCheckedFailure() {
+        assertThatThrownBy(() -> runScope(null, null, null, Duration.ofSeconds(10), false, () -> {
+            throw new IOException("io");
+        })).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IOException.class);
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void runScope_shouldCancelOthersOnFirstSuccess() {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final NanoThread<?>[] threads = runScope(null, null, null, Duration.ofSeconds(10), true,
+            () -> sleepUntilInterrupted(started, cancelled),
+            () -> {
+                throw new IllegalStateException("ignored");
+            },
+            () -> awaitLatch(started)
+        );
+        assertThat(threads).allMatch(NanoThread::isComplete);
+        assertThat(threads[0].error()).isInstanceOf(CancellationException.class);
+        assertThat(awaitLatch(cancelled)).isTrue();
+        assertThatThrownBy(() -> runScope(null, null, null, Duration.ofSeconds(10), true, () -> {
+            throw new IllegalStateException("all failed");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("all failed");
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void runScope_shouldCancelOnDeadlineAndPropagateIt() {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicReference<Duration> nested = new AtomicReference<>();
+        assertThatThrownBy(() -> runScope(null, null, null, Duration.ofMillis(100), false, () -> {
+            nested.set(remaining());
+            runScope(null, null, null, Duration.ofSeconds(60), false, () -> sleepUntilInterrupted(started, cancelled));
+        })).isInstanceOf(CompletionException.class).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(nested.get()).isNotNull().isLessThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(remaining()).isNull();
+        if (started.getCount() == 0)
+            assertThat(awaitLatch(cancelled)).isTrue();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void interrupt_shouldPropagateSeparatelyFromTimeout() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicReference<Throwable> scopeError = new AtomicReference<>();
+        final AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        final Thread waiting = Thread.ofVirtual().start(() -> {
+            try {
+                runScope(null, null, null, Duration.ofSeconds(60), false, () -> sleepUntilInterrupted(started, cancelled));
+            } catch (final CompletionException e) {
+                scopeError.set(e.getCause());
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        assertThat(awaitLatch(started)).isTrue();
+        waiting.interrupt();
+        waiting.join(TestConfig.TEST_TIMEOUT);
+        assertThat(scopeError.get()).isInstanceOf(InterruptedException.class);
+        assertThat(interrupted.get()).isTrue();
+        assertThat(awaitLatch(cancelled)).isTrue();
+
+        // waitFor keeps the flag and doesn't cancel the threads
+        final CountDownLatch startedWait = new CountDownLatch(1);
+        final NanoThread thread = new NanoThread().run(null, null, () -> sleepUntilInterrupted(startedWait, new CountDownLatch(1)));
+        assertThat(awaitLatch(startedWait)).isTrue();
+        final Thread waitingFor = Thread.ofVirtual().start(() -> {
+            Thread.currentThread().interrupt();
+            waitFor(thread);
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        waitingFor.join(TestConfig.TEST_TIMEOUT);
+        assertThat(interrupted.get()).isTrue();
+        assertThat(thread.isComplete()).isFalse();
+        thread.cancel();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void cancel_shouldCompleteOnce() {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicInteger callbacks = new AtomicInteger();
+        final NanoThread thread = new NanoThread().onComplete((nt, error) -> callbacks.incrementAndGet()).run(null, null, () -> sleepUntilInterrupted(started, cancelled));
+        assertThat(awaitLatch(started)).isTrue();
+        assertThat(thread.cancel()).isTrue();
+        assertThat(thread.cancel()).isFalse();
+        assertThat(awaitLatch(cancelled)).isTrue();
+        assertThat(thread.isComplete()).isTrue();
+        assertThat(thread.error()).isInstanceOf(CancellationException.class);
+        assertThat(callbacks.get()).isEqualTo(1);
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void compose_shouldCarryResults() {
+        final NanoThread<Integer> first = new NanoThread<Integer>().run(null, null, () -> 20);
+        final NanoThread<Integer> second = new NanoThread<Integer>().run(null, null, () -> 22);
+        final NanoThread<String> combined = first.thenCombine(second, Integer::sum).thenApply(String::valueOf);
+        assertThat(combined.join()).isEqualTo("42");
+        assertThat(first.thenCompose(value -> new NanoThread<Integer>().run(null, null, () -> value * 2)).join()).isEqualTo(40);
+        assertThat(allOf(first, second).thenApply(ignored -> first.join() + second.join()).join()).isEqualTo(42);
+        assertThat(anyOf(first, new NanoThread<Integer>()).join()).isEqualTo(20);
+        assertThat(first.thenApplyAsync(value -> Thread.currentThread().isVirtual()).join()).isTrue();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void compose_shouldPropagateErrors() {
+        final NanoThread<Integer> failing = new NanoThread<Integer>().run(null, null, () -> {
+            throw new IllegalStateException("boom");
+        });
+        final NanoThread<Integer> success = new NanoThread<Integer>().run(null, null, () -> 1);
+        assertThatThrownBy(() -> allOf(failing, success).join()).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThat(failing.handle((value, error) -> error == null ? -1 : 1).join()).isEqualTo(1);
+        assertThat(failing.exceptionally(error -> 2).join()).isEqualTo(2);
+        assertThat(failing.error()).isInstanceOf(IllegalStateException.class);
+        assertThat(success.error()).isNull();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void parallel_shouldTransformInChunks() {
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final List<Integer> items = IntStream.range(0, 1000).boxed().toList();
+        assertThat(parallel(pool, items, i -> i * 2, 4, true)).isEqualTo(items.stream().map(i -> i * 2).toList());
+        assertThat(parallel(pool, Set.copyOf(items), i -> i * 2, 0, false)).containsExactlyInAnyOrderElementsOf(items.stream().map(i -> i * 2).toList());
+        assertThat(parallel(pool, List.<Integer>of(), i -> i, 4, true)).isEmpty();
+        // null results are kept in both modes
+        assertThat(parallel(pool, items, i -> i % 2 == 0 ? null : i, 4, false)).hasSize(items.size()).containsNull().hasSameClassAs(parallel(pool, items, i -> i, 4, true));
+        assertThatThrownBy(() -> parallel(pool, items, i -> {
+            if (i == 500)
+                throw new IllegalStateException("boom");
+            return i;
+        }, 4, true)).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @SuppressWarnings("java:S2925")
+    private static void sleepUntilInterrupted(final CountDownLatch started, final CountDownLatch cancelled) {
+        started.countDown();
+        try {
+            Thread.sleep(60_000);
+        } catch (final InterruptedException e) {
+            cancelled.countDown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean awaitLatch(final CountDownLatch latch) {
+        try {
+            return latch.await(TestConfig.TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @SuppressWarnings("java:S2925")
-    private static NanoThread[] startConcurrentThreads(final AtomicInteger doneThreads) {
+    private static NanoThread<?>[] startConcurrentThreads(final AtomicInteger doneThreads) {
         return IntStream.range(0, TestConfig.TEST_REPEAT).parallel().mapToObj(i -> {
             final NanoThread thread = new NanoThread();
             thread.run(null, null, () -> {
@@ -86,6 +264,6 @@ class NanoThreadTest {
                 }
             });
             return thread;
-        }).toArray(NanoThread[]::new);
+        }).toArray(NanoThread<?>[]::new);
     }
 }
@@ -0,0 +1,112 @@
+package berlin.yuna.nano.core.model;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.core.config.TestConfig;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_ORDERED_MAX_DEPTH;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Execution(ExecutionMode.CONCURRENT)
+class OrderedExecutorTest {
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void execute_shouldKeepOrderPerKey() throws InterruptedException {
+        final OrderedExecutor ordered = new OrderedExecutor(null, 1024);
+        final Map<Integer, List<Integer>> results = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(400);
+        IntStream.range(0, 100).forEach(i -> IntStream.range(0, 4).forEach(key -> ordered.execute(key, () -> {
+            results.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(i);
+            done.countDown();
+        })));
+        assertThat(done.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(results).hasSize(4);
+        results.values().forEach(result -> assertThat(result).isSorted().hasSize(100));
+        assertThat(waitForCondition(() -> ordered.activeKeys() == 0, TEST_TIMEOUT)).isTrue();
+        assertThat(ordered.submitted()).isEqualTo(400);
+        assertThat(ordered.completed()).isEqualTo(400);
+        assertThat(ordered.queued()).isZero();
+    }
+
+    @Test
+    void execute_shouldRejectOnMaxDepthAndContinueAfterErrors() throws InterruptedException {
+        final OrderedExecutor ordered = new OrderedExecutor(null, 2);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        ordered.execute("account", () -> {
+            started.countDown();
+            awaitLatch(release);
+            throw new IllegalStateException("Nothing to see here, just a test exception");
+        });
+        ordered.execute("account", done::countDown);
+        assertThat(started.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(ordered.depth("account")).isEqualTo(2);
+        assertThat(ordered.hotKeys(5)).containsExactly(Map.entry("account", 2));
+        assertThat(ordered.maxKeyDepth()).isEqualTo(2);
+        assertThatThrownBy(() -> ordered.execute("account", () -> {})).isInstanceOf(RejectedExecutionException.class).hasMessageContaining("account");
+        assertThat(ordered.rejected()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(done.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(waitForCondition(() -> ordered.depth("account") == 0 && ordered.activeKeys() == 0, TEST_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void runOrdered_shouldUseNanoExecutor() throws Exception {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL, CONFIG_ORDERED_MAX_DEPTH, 8));
+        final Context context = nano.newContext(OrderedExecutorTest.class);
+        final List<Integer> result = new CopyOnWriteArrayList<>();
+        final NanoThread<?>[] threads = IntStream.range(0, 8).mapToObj(i -> context.runOrdered("key", () -> result.add(i))).toArray(NanoThread<?>[]::new);
+        NanoThread.allOf(threads).get(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertThat(result).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(nano.ordered().maxDepth()).isEqualTo(8);
+        assertThat(waitForCondition(() -> nano.ordered().completed() == 8, TEST_TIMEOUT)).isTrue();
+        assertThat(nano.stop(OrderedExecutorTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void cancel_shouldNotInterruptTheNextTaskOfTheKey() throws InterruptedException {
+        final OrderedExecutor ordered = new OrderedExecutor(null, 8);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch next = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean(true);
+        final NanoThread<Void> first = new NanoThread<Void>().run(ordered.executorOf("key"), () -> null, () -> {
+            started.countDown();
+            awaitLatch(new CountDownLatch(1));
+        });
+        ordered.execute("key", () -> {
+            interrupted.set(Thread.currentThread().isInterrupted());
+            next.countDown();
+        });
+        assertThat(started.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(first.cancel()).isTrue();
+        assertThat(next.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(interrupted.get()).isFalse();
+    }
+
+    private static void awaitLatch(final CountDownLatch latch) {
+        try {
+            latch.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
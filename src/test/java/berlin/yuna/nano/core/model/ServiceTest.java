@@ -3,17 +3,30 @@ package berlin.yuna.nano.core.model;
 import berlin.yuna.nano.core.Nano;
 import berlin.yuna.nano.core.config.TestConfig;
 import berlin.yuna.nano.helper.event.model.Event;
+import berlin.yuna.nano.helper.logger.LogHandlerRegister;
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
 import berlin.yuna.nano.model.TestService;
 import org.assertj.core.api.Condition;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.stream.IntStream;
 
 import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
 import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
 import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_UNHANDLED;
+import static berlin.yuna.nano.model.TestService.TEST_EVENT;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @Execution(ExecutionMode.CONCURRENT)
@@ -58,4 +71,222 @@ class ServiceTest {
 
         assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
     }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testServiceDependencies() {
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final Service db = new DbService().doOnStart(context -> order.add("start db")).doOnStop(context -> order.add("stop db"));
+        final Service cache = new CacheService().doOnStart(context -> order.add("start cache")).doOnStop(context -> order.add("stop cache"));
+        final Service api = new ApiService().doOnStart(context -> order.add("start api")).doOnStop(context -> order.add("stop api"));
+        final Service other = new TestService();
+
+        assertThat(api.dependsOn(cache)).isTrue();
+        assertThat(api.dependsOn(api)).isFalse();
+        assertThat(db.dependsOn(api)).isFalse();
+        assertThat(Service.wavesOf(List.of(api, other, cache, db))).containsExactly(List.of(other, db), List.of(cache), List.of(api));
+        assertThat(Service.wavesOf(List.of(new CycleService(), new CycleService()))).hasSize(1);
+
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), api, cache, db);
+        assertThat(order).containsExactly("start db", "start cache", "start api");
+        assertThat(db.readyTimeMs()).isNotNegative();
+        assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+        assertThat(order).containsExactly("start db", "start cache", "start api", "stop api", "stop cache", "stop db");
+    }
+
+    @Test
+    void testServiceDependencies_shouldWarnOnlyAboutCycleMembers() {
+        final Service a = new CycleAService();
+        final Service b = new CycleBService();
+        final Service c = new CycleDependentService();
+        assertThat(Service.wavesOf(List.of(c, a, b))).containsExactly(List.of(a, b), List.of(c));
+
+        final List<String> warnings = new CopyOnWriteArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord logRecord) {
+                if (logRecord.getMessage() != null && logRecord.getMessage().startsWith("Dependency cycle"))
+                    warnings.add(String.valueOf(logRecord.getParameters()[0]));
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        LogHandlerRegister.registerLogHandler("service_test_cycle", handler);
+        try {
+            final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), c, a, b);
+            assertThat(warnings).contains(a.name() + ", " + b.name()).noneMatch(warning -> warning.contains(c.name()));
+            assertThat(c.isReady()).isTrue();
+            assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+        } finally {
+            LogHandlerRegister.removeLogHandler("service_test_cycle");
+            NanoLogger.removeHandler(handler);
+        }
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testServiceDependencies_shouldSkipDependentsOfFailedServices() {
+        final Service db = new FailingDbService();
+        final TestService cache = new CacheService();
+        final TestService api = new ApiService();
+        final TestService other = new TestService();
+
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), api, cache, db, other);
+        assertThat(db.isReady()).isFalse();
+        assertThat(cache.startCount()).isZero();
+        assertThat(api.startCount()).isZero();
+        assertThat(other.startCount()).isEqualTo(1);
+        assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testLazyService() throws InterruptedException {
+        final LazyService lazy = new LazyService();
+        lazy.lazy(true);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), lazy);
+        final Context context = nano.newContext(this.getClass());
+        assertThat(lazy.lazy()).isTrue();
+        assertThat(lazy.startCount()).isZero();
+        assertThat(nano.services()).doesNotContain(lazy);
+        assertThat(nano.lazyServices()).containsExactly(lazy);
+
+        final CountDownLatch done = new CountDownLatch(4);
+        IntStream.range(0, 4).forEach(i -> context.run(() -> {
+            context.sendEvent(TEST_EVENT, "payload " + i);
+            done.countDown();
+        }));
+        assertThat(done.await(TestConfig.TEST_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        // the dispatching threads don't wait for the start, the service gets the events once it's ready
+        assertThat(waitForCondition(() -> lazy.events().stream().filter(event -> event.id() == TEST_EVENT).count() == 4, TestConfig.TEST_TIMEOUT)).isTrue();
+        assertThat(lazy.startCount()).isEqualTo(1);
+        assertThat(lazy.events(TEST_EVENT)).hasSize(4);
+        assertThat(nano.services()).containsExactly(lazy);
+        assertThat(nano.lazyServices()).isEmpty();
+        assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+        assertThat(lazy.stopCount()).isEqualTo(1);
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testLazyService_shouldRetryFailedActivation() {
+        final FailingOnceLazyService lazy = new FailingOnceLazyService();
+        lazy.lazy(true);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), lazy);
+        final Context context = nano.newContext(this.getClass());
+
+        context.sendEvent(TEST_EVENT, "first");
+        assertThat(waitForCondition(() -> lazy.attempts.get() == 1 && !nano.isActivating(lazy), TestConfig.TEST_TIMEOUT)).isTrue();
+        assertThat(lazy.isReady()).isFalse();
+        assertThat(lazy.events()).isEmpty();
+        assertThat(nano.lazyServices()).containsExactly(lazy);
+
+        context.sendEvent(TEST_EVENT, "second");
+        assertThat(waitForCondition(() -> lazy.events().stream().filter(event -> event.id() == TEST_EVENT).count() == 1, TestConfig.TEST_TIMEOUT)).isTrue();
+        assertThat(lazy.attempts.get()).isEqualTo(2);
+        assertThat(lazy.startCount()).isEqualTo(1);
+        assertThat(lazy.events(TEST_EVENT)).extracting(Event::payload).containsExactly("second");
+        assertThat(nano.lazyServices()).isEmpty();
+        assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+    }
+
+    @RepeatedTest(TestConfig.TEST_REPEAT)
+    void testLazyService_shouldNotBlockDispatchWhileStarting() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final LazyService lazy = new LazyService() {
+            @Override
+            public void start(final Supplier<Context> contextSub) {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.start(contextSub);
+            }
+        };
+        lazy.lazy(true);
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TestConfig.TEST_LOG_LEVEL), lazy);
+        final Context context = nano.newContext(this.getClass());
+
+        context.sendEvent(TEST_EVENT, "while starting");
+        assertThat(nano.isActivating(lazy)).isTrue();
+        assertThat(lazy.events()).isEmpty();
+        release.countDown();
+        assertThat(waitForCondition(() -> lazy.events().stream().filter(event -> event.id() == TEST_EVENT).count() == 1, TestConfig.TEST_TIMEOUT)).isTrue();
+        assertThat(nano.isActivating(lazy)).isFalse();
+        assertThat(nano.lazyServices()).isEmpty();
+        assertThat(nano.stop(this.getClass()).waitForStop().isReady()).isFalse();
+    }
+
+    static class FailingOnceLazyService extends LazyService {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public void start(final Supplier<Context> contextSub) {
+            if (attempts.incrementAndGet() == 1)
+                throw new IllegalStateException("Nothing to see here, just a test exception");
+            super.start(contextSub);
+        }
+    }
+
+    static class LazyService extends TestService {
+        @Override
+        public List<Integer> activationEvents() {
+            return List.of(TEST_EVENT);
+        }
+    }
+
+    static class DbService extends TestService {
+    }
+
+    static class FailingDbService extends DbService {
+        @Override
+        public void start(final Supplier<Context> contextSub) {
+            throw new IllegalStateException("Nothing to see here, just a test exception");
+        }
+    }
+
+    static class CacheService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(DbService.class);
+        }
+    }
+
+    static class ApiService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(CacheService.class, DbService.class);
+        }
+    }
+
+    static class CycleAService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(CycleBService.class);
+        }
+    }
+
+    static class CycleBService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(CycleAService.class);
+        }
+    }
+
+    static class CycleDependentService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(CycleAService.class);
+        }
+    }
+
+    static class CycleService extends TestService {
+        @Override
+        public List<Class<? extends Service>> dependsOn() {
+            return List.of(CycleService.class);
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package berlin.yuna.nano.examples;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.services.http.HttpService;
+
+import java.util.List;
+
+/**
+ * Minimal app for the class data sharing runs of the NanoTest, started with <code>--app_cds_training=true</code>.
+ */
+public class CdsTraining {
+
+    public static void main(final String[] args) {
+        new Nano(context -> List.of(new HttpService()), args);
+    }
+}
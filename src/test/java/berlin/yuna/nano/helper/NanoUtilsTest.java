@@ -0,0 +1,34 @@
+package berlin.yuna.nano.helper;
+
+import berlin.yuna.nano.core.NanoThreads;
+import org.junit.jupiter.api.Test;
+
+import static berlin.yuna.nano.helper.NanoUtils.callerInfo;
+import static berlin.yuna.nano.helper.NanoUtils.callerInfoStr;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NanoUtilsTest {
+
+    @Test
+    void callerInfo_shouldReturnFirstFrameOutsideOfNano() {
+        final StackTraceElement element = callerInfo(NanoThreads.class);
+        assertThat(element).isNotNull();
+        assertThat(element.getClassName()).isEqualTo(NanoUtilsTest.class.getName());
+        assertThat(element.getMethodName()).isEqualTo("callerInfo_shouldReturnFirstFrameOutsideOfNano");
+
+        // skips the source class as well
+        assertThat(callerInfo(NanoUtilsTest.class).getClassName()).isNotEqualTo(NanoUtilsTest.class.getName());
+    }
+
+    @Test
+    void callerInfoStr_shouldCachePerCallSite() {
+        final String[] results = new String[3];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = callerInfoStr(NanoThreads.class);
+        }
+        assertThat(results[0]).startsWith(NanoUtilsTest.class.getName() + ":").endsWith("_at_callerInfoStr_shouldCachePerCallSite");
+        assertThat(results[1]).isSameAs(results[0]);
+        assertThat(results[2]).isSameAs(results[0]);
+        assertThat(callerInfoStr(NanoThreads.class)).isNotEqualTo(results[0]);
+    }
+}
@@ -0,0 +1,27 @@
+package berlin.yuna.nano.helper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Execution(ExecutionMode.CONCURRENT)
+class StartupTraceTest {
+
+    @Test
+    void record_shouldReportPhasesUntilFinished() {
+        final StartupTrace trace = new StartupTrace();
+        final long startNs = System.nanoTime();
+        assertThat(trace.trace("config", () -> "value")).isEqualTo("value");
+        trace.record("service", startNs, 2_000_000);
+        assertThat(trace.isFinished()).isFalse();
+
+        assertThat(trace.finish().isFinished()).isTrue();
+        trace.record("late", System.nanoTime());
+        assertThat(trace.phases()).extracting(StartupTrace.Phase::name).containsExactly("service", "config");
+        assertThat(trace.phases().getFirst().durationNs()).isEqualTo(2_000_000);
+        assertThat(trace.totalNs()).isEqualTo(trace.totalNs()).isPositive();
+        assertThat(trace.report()).startsWith("Startup [").contains("service", "2.0ms").doesNotContain("late");
+    }
+}
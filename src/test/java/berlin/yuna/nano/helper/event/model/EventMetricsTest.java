@@ -0,0 +1,60 @@
+package berlin.yuna.nano.helper.event.model;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.core.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.core.model.Config.CONFIG_EVENT_METRICS;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static berlin.yuna.nano.helper.event.EventTypeRegister.registerEventType;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventMetricsTest {
+
+    @Test
+    void recordsDispatchesPerEventType() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        final Context context = nano.newContext(EventMetricsTest.class);
+        final int eventType = registerEventType("EVENT_METRICS_TEST");
+        context.subscribeEvent(eventType, event -> event.payloadOpt(String.class).filter("ack"::equals).ifPresent(payload -> event.acknowledge()));
+
+        context.sendEvent(eventType, "ack");
+        context.sendEvent(eventType, "ignore");
+        context.sendEvent(eventType, "ack", response -> {});
+
+        assertThat(waitForCondition(() -> nano.eventMetrics().snapshot().get("EVENT_METRICS_TEST").dispatched() == 3, TEST_TIMEOUT)).isTrue();
+        final EventMetrics.Snapshot snapshot = nano.eventMetrics().snapshot().get("EVENT_METRICS_TEST");
+        assertThat(snapshot.name()).isEqualTo("EVENT_METRICS_TEST");
+        assertThat(snapshot.acknowledged()).isEqualTo(2);
+        assertThat(snapshot.unhandled()).isEqualTo(1);
+        assertThat(snapshot.latency().count()).isEqualTo(3);
+        assertThat(snapshot.queueWait().count()).isEqualTo(1);
+        assertThat(snapshot.listeners()).containsOnlyKeys(EventMetricsTest.class.getSimpleName());
+        assertThat(snapshot.listeners().get(EventMetricsTest.class.getSimpleName()).count()).isEqualTo(3);
+        assertThat(snapshot.percentileMs(0.99)).isPositive().isGreaterThanOrEqualTo(snapshot.percentileMs(0.5));
+        assertThat(nano.stop(EventMetricsTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void disabledMetrics_shouldNotRecord() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_EVENT_METRICS, false));
+        nano.newContext(EventMetricsTest.class).sendEvent(registerEventType("EVENT_METRICS_DISABLED_TEST"), "AA");
+        assertThat(nano.eventMetrics().enabled()).isFalse();
+        assertThat(nano.eventMetrics().snapshot()).isEmpty();
+        assertThat(nano.stop(EventMetricsTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void histogramBuckets() {
+        assertThat(EventMetrics.TypeMetrics.bucketOf(0)).isZero();
+        assertThat(EventMetrics.TypeMetrics.bucketOf(999)).isZero();
+        assertThat(EventMetrics.TypeMetrics.bucketOf(1_000)).isEqualTo(1);
+        assertThat(EventMetrics.TypeMetrics.bucketOf(3_000)).isEqualTo(2);
+        assertThat(EventMetrics.TypeMetrics.bucketOf(Long.MAX_VALUE)).isEqualTo(EventMetrics.HISTOGRAM_BUCKETS - 1);
+    }
+}
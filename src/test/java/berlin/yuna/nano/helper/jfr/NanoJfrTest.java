@@ -0,0 +1,57 @@
+package berlin.yuna.nano.helper.jfr;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.core.model.Context;
+import berlin.yuna.nano.helper.jfr.model.JfrEventDispatch;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.helper.event.EventTypeRegister.registerEventType;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NanoJfrTest {
+
+    @Test
+    void recordsEventDispatch() throws Exception {
+        final Path file = Files.createTempFile("nano_jfr_", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable(JfrEventDispatch.class);
+            recording.start();
+            assertThat(NanoJfr.recording()).isTrue();
+
+            final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+            final Context context = nano.newContext(NanoJfrTest.class);
+            final int eventType = registerEventType("EVENT_JFR_TEST");
+            context.subscribeEvent(eventType, event -> event.acknowledge());
+            context.sendEventReturn(eventType, "AA");
+            assertThat(nano.stop(NanoJfrTest.class).waitForStop().isReady()).isFalse();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(event -> "berlin.yuna.nano.EventDispatch".equals(event.getEventType().getName()))
+            .filter(event -> "EVENT_JFR_TEST".equals(event.getString("type")))
+            .toList();
+        Files.deleteIfExists(file);
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().getBoolean("acknowledged")).isTrue();
+        assertThat(events.getFirst().getBoolean("broadcast")).isFalse();
+        assertThat(events.getFirst().getString("handler")).startsWith(NanoJfrTest.class.getName());
+    }
+
+    @Test
+    void withoutEvent_shouldNotCommit() {
+        assertThat(NanoJfr.shouldCommit(null)).isFalse();
+    }
+}
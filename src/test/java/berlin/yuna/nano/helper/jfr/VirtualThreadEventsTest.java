@@ -0,0 +1,55 @@
+package berlin.yuna.nano.helper.jfr;
+
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadEventsTest {
+
+    @Test
+    void countsPinnedVirtualThreads() {
+        try (final VirtualThreadEvents events = new VirtualThreadEvents(Duration.ofMillis(10)).start()) {
+            assertThat(events.isRunning()).isTrue();
+            // pins once, the stream can lag behind on a busy machine - the site is recorded last
+            pinCarrier();
+            assertThat(waitForCondition(() -> events.sites().stream().anyMatch(site -> site.count() > 0), TEST_TIMEOUT * 5L)).isTrue();
+            assertThat(events.pinnedMaxNs()).isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+            assertThat(events.pinnedNs()).isGreaterThanOrEqualTo(events.pinnedMaxNs());
+            assertThat(events.submitFailed()).isZero();
+            assertThat(events.sites()).isNotEmpty();
+            assertThat(events.sites().getFirst().site()).startsWith(VirtualThreadEventsTest.class.getName());
+            assertThat(events.sites().getFirst().count()).isPositive();
+
+            final NanoLogger logger = new NanoLogger(this);
+            final long summarized = events.logSummary(logger);
+            assertThat(summarized).isPositive();
+            events.close();
+            // events of other tests can still arrive until the stream is closed, but none is summarized twice
+            assertThat(summarized + events.logSummary(logger)).isLessThanOrEqualTo(events.pinned());
+            assertThat(events.isRunning()).isFalse();
+        }
+    }
+
+    private static void pinCarrier() {
+        final Object lock = new Object();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        // sleeping inside a monitor pins the virtual thread to its carrier
+                        Thread.sleep(50);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package berlin.yuna.nano.helper.logger;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.helper.logger.logic.NanoLogger;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.LoggerLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.helper.event.model.EventType.EVENT_APP_LOGGER_LEVEL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogLevelRegisterTest {
+
+    @Test
+    void logLevelOf_shouldResolveMostSpecificPackage() {
+        LogLevelRegister.registerLogLevels(Map.of(
+            "app_log_level_test.register.hierarchy", "ERROR",
+            "app_log_level_test_register_hierarchy_http", "TRACE"
+        ));
+        assertThat(LogLevelRegister.logLevelOf("test.register.hierarchy.http.HttpService")).isEqualTo(LogLevel.TRACE);
+        assertThat(LogLevelRegister.logLevelOf("test.register.hierarchy.db.DbService")).isEqualTo(LogLevel.ERROR);
+        assertThat(LogLevelRegister.logLevelOf("test.register.hierarchy")).isEqualTo(LogLevel.ERROR);
+        assertThat(LogLevelRegister.logLevelOf("test.register.other.Service")).isNull();
+
+        LogLevelRegister.registerLogLevel("test.register.hierarchy.http", null);
+        assertThat(LogLevelRegister.logLevelOf("test.register.hierarchy.http.HttpService")).isEqualTo(LogLevel.ERROR);
+        LogLevelRegister.registerLogLevel("test.register.hierarchy", null);
+        assertThat(LogLevelRegister.logLevelOf("test.register.hierarchy.http.HttpService")).isNull();
+    }
+
+    @Test
+    void registerLogLevel_shouldRefreshExistingLoggers() {
+        final NanoLogger logger = new NanoLogger(this).level(LogLevel.INFO);
+        assertThat(logger.effectiveLevel()).isEqualTo(LogLevel.INFO);
+
+        LogLevelRegister.registerLogLevel(LogLevelRegisterTest.class.getName(), LogLevel.TRACE);
+        assertThat(logger.level()).isEqualTo(LogLevel.INFO);
+        assertThat(logger.effectiveLevel()).isEqualTo(LogLevel.TRACE);
+        assertThat(new NanoLogger(this).effectiveLevel()).isEqualTo(LogLevel.TRACE);
+
+        // the base level doesn't override the registered level
+        logger.level(LogLevel.OFF);
+        assertThat(logger.effectiveLevel()).isEqualTo(LogLevel.TRACE);
+
+        LogLevelRegister.registerLogLevel(LogLevelRegisterTest.class.getName(), null);
+        assertThat(logger.effectiveLevel()).isEqualTo(LogLevel.OFF);
+    }
+
+    @Test
+    void logLevelEvent_shouldRegisterLoggerLevel() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, "app_log_level_test.register.event", "WARN"));
+        assertThat(LogLevelRegister.logLevelOf("test.register.event.Service")).isEqualTo(LogLevel.WARN);
+
+        assertThat(nano.newContext(LogLevelRegisterTest.class).sendEventReturn(EVENT_APP_LOGGER_LEVEL, new LoggerLevel("test.register.event", LogLevel.FATAL)).isAcknowledged()).isTrue();
+        assertThat(LogLevelRegister.logLevelOf("test.register.event.Service")).isEqualTo(LogLevel.FATAL);
+
+        assertThat(nano.newContext(LogLevelRegisterTest.class).sendEventReturn(EVENT_APP_LOGGER_LEVEL, new LoggerLevel("test.register.event", null)).isAcknowledged()).isTrue();
+        assertThat(LogLevelRegister.logLevelOf("test.register.event.Service")).isNull();
+        assertThat(nano.stop(LogLevelRegisterTest.class).waitForStop().isReady()).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.helper.logger.model.LogContext;
+import berlin.yuna.nano.helper.logger.model.NanoLogRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.IntStream;
+
+import static berlin.yuna.nano.helper.NanoUtils.LINE_SEPARATOR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogFormatterJsonTest {
+
+    private final LogFormatterJson formatter = new LogFormatterJson();
+
+    @Test
+    void format_shouldWriteFieldsAndKeyValues() {
+        final LogRecord logRecord = new LogRecord(Level.INFO, "Processed user [{}] count: [{}] \"quoted\"");
+        logRecord.setParameters(new Object[]{"yuna", 42, Map.of("requestId", "a/b")});
+        logRecord.setLoggerName("berlin.yuna.nano.Example");
+        logRecord.setInstant(Instant.ofEpochMilli(1000));
+        final String timestamp = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault()).format(Instant.ofEpochMilli(1000));
+
+        assertThat(formatter.format(logRecord)).isEqualTo("{"
+            + "\"message\":\"Processed user [yuna] count: [42] \\\"quoted\\\"\","
+            + "\"timestamp\":\"" + timestamp + "\","
+            + "\"level\":\"INFO\","
+            + "\"package\":\"berlin.yuna.nano\","
+            + "\"logger\":\"Example\","
+            + "\"requestId\":\"a\\/b\","
+            + "\"user\":\"yuna\","
+            + "\"count\":\"42\""
+            + "}" + LINE_SEPARATOR);
+    }
+
+    @Test
+    void format_shouldPreferFixedFieldsAndEscapeErrors() {
+        final LogRecord logRecord = new LogRecord(Level.SEVERE, "level [{}] %s");
+        logRecord.setParameters(new Object[]{"fake", "printf"});
+        logRecord.setLoggerName("Example");
+        logRecord.setThrown(new IllegalStateException("line1\nline2"));
+
+        final String json = formatter.format(logRecord);
+        assertThat(json)
+            .contains("\"message\":\"level [fake] printf\"", "\"level\":\"FATAL\"", "\"package\":\"\"", "\"logger\":\"Example\"", "IllegalStateException: line1\\nline2")
+            .doesNotContain("\"level\":\"fake\"")
+            .doesNotContain("line1\nline2");
+    }
+
+    @Test
+    void format_shouldWriteLogContext() {
+        final LogRecord logRecord = new NanoLogRecord(Level.INFO, "service [{}]", new LogContext("trace/1", "HttpService"));
+        logRecord.setParameters(new Object[]{"fake", Map.of("service", "fake")});
+        logRecord.setLoggerName("berlin.yuna.nano.Example");
+
+        assertThat(formatter.format(logRecord))
+            .contains("\"logger\":\"Example\",\"traceId\":\"trace\\/1\",\"service\":\"HttpService\"")
+            .doesNotContain("\"service\":\"fake\"");
+        assertThat(formatter.format(new NanoLogRecord(Level.INFO, "message", new LogContext("trace/2", null)))).contains("\"traceId\":\"trace\\/2\"").doesNotContain("service");
+        final LogRecord consoleRecord = new NanoLogRecord(Level.INFO, "message", new LogContext("trace/3", null));
+        consoleRecord.setLoggerName("Example");
+        assertThat(new LogFormatterConsole().format(consoleRecord)).contains("] [trace/3] - message");
+    }
+
+    @Test
+    void template_shouldParsePlaceholdersOnce() {
+        final LogFormatterJson formatter = new LogFormatterJson();
+        final LogFormatterJson.Template template = formatter.templateOf("user: [{}] id [{}] other {} [%s] %% %n");
+        assertThat(template.keys()).containsExactly("user", "id", null, null);
+        assertThat(template.simple()).isFalse();
+        assertThat(formatter.templateOf("user: [{}] id [{}] other {} [%s] %% %n")).isSameAs(template);
+        assertThat(formatter.templateOf("missing [{}] [{}]").format("missing [{}] [{}]", new Object[]{"AA"})).isEqualTo("missing [AA] [{}]");
+    }
+
+    @Test
+    void template_shouldEvictWhenFull() {
+        final LogFormatterJson formatter = new LogFormatterJson();
+        IntStream.range(0, LogFormatterJson.MAX_TEMPLATES + 10).forEach(i -> formatter.templateOf("message " + i + " [{}]"));
+        assertThat(formatter.templates).hasSize(LogFormatterJson.MAX_TEMPLATES);
+        final LogFormatterJson.Template late = formatter.templateOf("late [{}]");
+        assertThat(formatter.templateOf("late [{}]")).isSameAs(late);
+    }
+
+    @Test
+    void format_shouldBeThreadSafe() {
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            final LogRecord logRecord = new LogRecord(Level.INFO, "id [{}]");
+            logRecord.setParameters(new Object[]{i});
+            logRecord.setLoggerName("Example");
+            logRecord.setInstant(Instant.ofEpochMilli(i));
+            assertThat(formatter.format(logRecord)).contains("\"message\":\"id [" + i + "]\"", "\"id\":\"" + i + "\"", "\"timestamp\":\"" + formatter.timestamp(i) + "\"");
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.helper.logger.model.LogLevel;
+import berlin.yuna.nano.helper.logger.model.LogQueuePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_QUEUE_POLICY;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_QUEUE_SIZE;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogQueueTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LogQueueTest.class.getName());
+
+    @Test
+    void ringBuffer_shouldKeepOrderAndWrapAround() {
+        final LogRingBuffer buffer = new LogRingBuffer(3);
+        final List<String> messages = new ArrayList<>();
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        for (int round = 0; round < 3; round++) {
+            IntStream.range(0, 4).forEach(i -> assertThat(buffer.offer(LOGGER, new LogRecord(Level.INFO, "message " + i))).isTrue());
+            assertThat(buffer.offer(LOGGER, new LogRecord(Level.INFO, "full"))).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+            assertThat(buffer.drain((logger, logRecord) -> messages.add(logRecord.getMessage()), 3)).isEqualTo(3);
+            assertThat(buffer.drain((logger, logRecord) -> messages.add(logRecord.getMessage()), 3)).isEqualTo(1);
+            assertThat(buffer.isEmpty()).isTrue();
+        }
+        assertThat(messages).hasSize(12).startsWith("message 0", "message 1", "message 2", "message 3", "message 0");
+    }
+
+    @Test
+    void ringBuffer_shouldCreateRecordOnConsumer() {
+        final LogRingBuffer buffer = new LogRingBuffer(2);
+        final RuntimeException error = new RuntimeException("AA");
+        final List<LogRecord> records = new ArrayList<>();
+        assertThat(buffer.offer(LOGGER, Level.WARNING, "message [{}]", new Object[]{"BB"}, error, 1234L, 42L)).isTrue();
+        assertThat(buffer.drain((logger, logRecord) -> records.add(logRecord), 1)).isEqualTo(1);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.getFirst().getLevel()).isEqualTo(Level.WARNING);
+        assertThat(records.getFirst().getMessage()).isEqualTo("message [{}]");
+        assertThat(records.getFirst().getParameters()).containsExactly("BB");
+        assertThat(records.getFirst().getThrown()).isSameAs(error);
+        assertThat(records.getFirst().getMillis()).isEqualTo(1234L);
+        assertThat(records.getFirst().getLongThreadID()).isEqualTo(42L);
+        assertThat(records.getFirst().getLoggerName()).isEqualTo(LOGGER.getName());
+    }
+
+    @Test
+    void ringBuffer_shouldAcceptConcurrentProducers() {
+        final LogRingBuffer buffer = new LogRingBuffer(1024);
+        IntStream.range(0, 1000).parallel().forEach(i -> buffer.offer(LOGGER, new LogRecord(Level.INFO, String.valueOf(i))));
+        final AtomicInteger count = new AtomicInteger();
+        buffer.drain((logger, logRecord) -> count.incrementAndGet(), Integer.MAX_VALUE);
+        assertThat(count.get()).isEqualTo(1000);
+    }
+
+    @Test
+    void fullQueue_shouldApplyPolicy() {
+        final LogQueue logQueue = new LogQueue();
+        final LogRingBuffer buffer = new LogRingBuffer(2);
+        final LogRecord debug = new LogRecord(Level.FINE, "debug");
+        final LogRecord error = new LogRecord(Level.SEVERE, "error");
+        assertThat(buffer.offer(LOGGER, debug) && buffer.offer(LOGGER, debug)).isTrue();
+
+        logQueue.policy = LogQueuePolicy.DROP_NEWEST;
+        assertThat(logQueue.onFull(buffer, error.getLevel(), () -> buffer.offer(LOGGER, error))).isTrue();
+        assertThat(logQueue.dropped()).isEqualTo(1);
+
+        logQueue.policy = LogQueuePolicy.CALLER_RUNS;
+        assertThat(logQueue.onFull(buffer, error.getLevel(), () -> buffer.offer(LOGGER, error))).isFalse();
+        assertThat(logQueue.callerRuns()).isEqualTo(1);
+
+        logQueue.policy = LogQueuePolicy.DROP_BELOW_LEVEL;
+        logQueue.dropLevel = LogLevel.WARN;
+        assertThat(logQueue.onFull(buffer, debug.getLevel(), () -> buffer.offer(LOGGER, debug))).isTrue();
+        assertThat(logQueue.dropped()).isEqualTo(2);
+        // queue is not ready - the caller has to write the message
+        assertThat(logQueue.onFull(buffer, error.getLevel(), () -> buffer.offer(LOGGER, error))).isFalse();
+        assertThat(logQueue.dropped()).isEqualTo(2);
+    }
+
+    @Test
+    void policyOf() {
+        assertThat(LogQueuePolicy.logQueuePolicyOf("drop-newest")).isEqualTo(LogQueuePolicy.DROP_NEWEST);
+        assertThat(LogQueuePolicy.logQueuePolicyOf("DROP_BELOW_LEVEL")).isEqualTo(LogQueuePolicy.DROP_BELOW_LEVEL);
+        assertThat(LogQueuePolicy.logQueuePolicyOf("callerRuns")).isEqualTo(LogQueuePolicy.CALLER_RUNS);
+        assertThat(LogQueuePolicy.logQueuePolicyOf("unknown")).isEqualTo(LogQueuePolicy.BLOCK);
+    }
+
+    @Test
+    void startWithPolicy() {
+        final LogQueue logQueue = new LogQueue();
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_LOG_QUEUE_SIZE, 100, CONFIG_LOG_QUEUE_POLICY, "drop_newest"), logQueue);
+        // the log queue starts asynchronously
+        assertThat(waitForCondition(logQueue::isReady, TEST_TIMEOUT)).isTrue();
+        assertThat(logQueue.policy()).isEqualTo(LogQueuePolicy.DROP_NEWEST);
+        assertThat(logQueue.capacity()).isEqualTo(128);
+        assertThat(logQueue.log(LOGGER, new LogRecord(Level.INFO, "message"))).isTrue();
+        assertThat(logQueue.toString()).startsWith("LogQueue{size=").endsWith(", max=128, policy=DROP_NEWEST, dropped=0}");
+        assertThat(nano.stop(LogQueueTest.class).waitForStop().isReady()).isFalse();
+        assertThat(logQueue.isReady()).isFalse();
+        assertThat(logQueue.log(LOGGER, new LogRecord(Level.INFO, "message"))).isFalse();
+    }
+}
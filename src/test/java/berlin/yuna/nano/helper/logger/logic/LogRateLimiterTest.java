@@ -0,0 +1,102 @@
+package berlin.yuna.nano.helper.logger.logic;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.helper.logger.model.LogRateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_RATE_LIMIT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogRateLimiterTest {
+
+    @Test
+    void disabled_shouldNotTrackCallSites() {
+        final LogRateLimiter limiter = new LogRateLimiter();
+        assertThat(limiter.site("logger", (Supplier<String>) () -> "message")).isNull();
+        assertThat(limiter.limit().enabled()).isFalse();
+    }
+
+    @Test
+    void sampling_shouldLogFirstNThenEveryMth() {
+        final LogRateLimiter limiter = new LogRateLimiter().limit(new LogRateLimit(0, 0, 0, 3, 5, 60_000));
+        final Supplier<String> message = () -> "message";
+        final long logged = IntStream.range(0, 23).filter(i -> limiter.site("logger", message).tryAcquire()).count();
+
+        // 1, 2, 3, 8, 13, 18, 23
+        assertThat(logged).isEqualTo(7);
+        assertThat(limiter.suppressed()).isEqualTo(16);
+        assertThat(limiter.site("logger", message).suppressed()).isEqualTo(16);
+        // other call sites have their own samples
+        assertThat(limiter.site("logger", (Supplier<String>) () -> "other").tryAcquire()).isTrue();
+    }
+
+    @Test
+    void rateLimit_shouldAllowBurstPerCallSite() {
+        final LogRateLimiter limiter = new LogRateLimiter().limit(new LogRateLimit(0.001, 5, 0, 0, 0, 60_000));
+        final Supplier<String> message = () -> "message";
+        final long logged = IntStream.range(0, 100).filter(i -> limiter.site("logger", message).tryAcquire()).count();
+        assertThat(logged).isEqualTo(5);
+        assertThat(limiter.suppressed()).isEqualTo(95);
+    }
+
+    @Test
+    void loggerRateLimit_shouldBeSharedBetweenCallSites() {
+        final LogRateLimiter limiter = new LogRateLimiter().limit(new LogRateLimit(0, 2, 0.001, 0, 0, 60_000));
+        assertThat(limiter.site("logger", (Supplier<String>) () -> "A").tryAcquire()).isTrue();
+        assertThat(limiter.site("logger", (Supplier<String>) () -> "B").tryAcquire()).isTrue();
+        assertThat(limiter.site("logger", (Supplier<String>) () -> "C").tryAcquire()).isFalse();
+        assertThat(limiter.site("other", (Supplier<String>) () -> "D").tryAcquire()).isTrue();
+    }
+
+    @Test
+    void report_shouldResetSuppressedCountAndSamples() throws InterruptedException {
+        final LogRateLimiter limiter = new LogRateLimiter().limit(new LogRateLimit(0, 0, 0, 1, 0, 1));
+        final Supplier<String> message = () -> "message";
+        final NanoLogger logger = new NanoLogger(LogRateLimiterTest.class);
+        assertThat(limiter.site("logger", message).template("template [{}]").tryAcquire()).isTrue();
+        assertThat(limiter.site("logger", message).tryAcquire()).isFalse();
+        assertThat(limiter.site("logger", message).template()).isEqualTo("template [{}]");
+
+        Thread.sleep(5);
+        limiter.report(logger);
+        assertThat(limiter.site("logger", message).suppressed()).isZero();
+        assertThat(limiter.site("logger", message).tryAcquire()).isTrue();
+        assertThat(limiter.suppressed()).isEqualTo(1);
+    }
+
+    @Test
+    void sharedSupplier_shouldHaveCallSitePerLogger() {
+        final LogRateLimiter limiter = new LogRateLimiter().limit(new LogRateLimit(0.001, 1, 0, 0, 0, 60_000));
+        final Supplier<String> message = () -> "shared";
+        final LogRateLimiter.Site siteA = limiter.site("loggerA", message);
+        final LogRateLimiter.Site siteB = limiter.site("loggerB", message);
+
+        assertThat(siteA).isNotSameAs(siteB);
+        assertThat(siteA.loggerName).isEqualTo("loggerA");
+        assertThat(siteB.loggerName).isEqualTo("loggerB");
+        // each logger has its own budget for the same supplier
+        assertThat(siteA.tryAcquire()).isTrue();
+        assertThat(siteA.tryAcquire()).isFalse();
+        assertThat(siteB.tryAcquire()).isTrue();
+        assertThat(siteB.suppressed()).isZero();
+        assertThat(limiter.site("loggerA", message)).isSameAs(siteA);
+    }
+
+    @Test
+    void limiter_shouldBePerNano() {
+        final Nano limited = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL, CONFIG_LOG_RATE_LIMIT, 5));
+        final Nano unlimited = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL));
+        assertThat(limited.logRateLimiter()).isNotSameAs(unlimited.logRateLimiter());
+        assertThat(limited.logRateLimiter().limit().rate()).isEqualTo(5);
+        assertThat(unlimited.logRateLimiter().limit().enabled()).isFalse();
+        assertThat(limited.newContext(LogRateLimiterTest.class).logger().rateLimiter()).isSameAs(limited.logRateLimiter());
+        assertThat(limited.stop(LogRateLimiterTest.class).waitForStop().isReady()).isFalse();
+        assertThat(unlimited.stop(LogRateLimiterTest.class).waitForStop().isReady()).isFalse();
+    }
+}
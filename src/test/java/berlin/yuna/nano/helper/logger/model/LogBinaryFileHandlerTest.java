@@ -0,0 +1,152 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import berlin.yuna.nano.helper.logger.logic.LogBinaryDecoder;
+import berlin.yuna.nano.helper.logger.logic.LogBinaryEncoder;
+import berlin.yuna.nano.helper.logger.logic.LogFormatterJson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogBinaryFileHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void publish_shouldDecodeTypedParameters() throws IOException {
+        final Path file = tempDir.resolve("app.nlog");
+        final LogFileHandler handler = new LogBinaryFileHandler(file).flushIntervalMs(60_000);
+        final LogRecord original = record(Level.WARNING, "user [{}] count [{}] ratio [{}] ok [{}]", "yuna", 42, -7L, 0.5d, true, Map.of("region", "eu"));
+        original.setThrown(new IllegalStateException("boom"));
+        handler.publish(original);
+        final LogRecord second = record(Level.INFO, "user [{}] count [{}] ratio [{}] ok [{}]", "nano", 43, null, 1.5f, false);
+        handler.publish(second);
+        handler.close();
+
+        final List<LogRecord> records = decode(file);
+        assertThat(records).hasSize(2);
+        final LogRecord first = records.getFirst();
+        assertThat(first.getLevel()).isEqualTo(Level.WARNING);
+        assertThat(first.getMessage()).isEqualTo(original.getMessage());
+        assertThat(first.getLoggerName()).isEqualTo(original.getLoggerName());
+        assertThat(first.getMillis()).isEqualTo(original.getMillis());
+        assertThat(first.getLongThreadID()).isEqualTo(original.getLongThreadID());
+        assertThat(first.getParameters()).containsExactly("yuna", 42, -7L, 0.5d, true, Map.of("region", "eu"));
+        assertThat(first.getThrown().getMessage()).contains("boom");
+        assertThat(records.get(1).getParameters()).containsExactly("nano", 43, null, 1.5f, false);
+        assertThat(records.get(1).getThrown()).isNull();
+
+        final LogFormatterJson json = new LogFormatterJson();
+        assertThat(json.format(records.get(1))).isEqualTo(json.format(second));
+        assertThat(json.format(first)).contains("\"error\":\"", "boom", "\"region\":\"eu\"", "\"user\":\"yuna\"");
+    }
+
+    @Test
+    void publish_shouldBeSmallerThanJson() throws IOException {
+        final Path file = tempDir.resolve("app.nlog");
+        final LogFileHandler handler = new LogBinaryFileHandler(file).flushIntervalMs(60_000);
+        final LogFormatterJson json = new LogFormatterJson();
+        long jsonSize = 0;
+        for (int i = 0; i < 1000; i++) {
+            final LogRecord logRecord = record(Level.INFO, "Processed request [{}] status [{}] bytes [{}]", "/users/" + i, 200, i * 10L);
+            jsonSize += json.format(logRecord).getBytes(StandardCharsets.UTF_8).length;
+            handler.publish(logRecord);
+        }
+        handler.close();
+        assertThat(Files.size(file)).isLessThan(jsonSize / 4);
+        assertThat(decode(file)).hasSize(1000);
+    }
+
+    @Test
+    void rotate_shouldStartEveryFileWithItsOwnDefinitions() throws IOException {
+        final Path file = tempDir.resolve("app.nlog");
+        final LogFileHandler handler = new LogBinaryFileHandler(file).flushIntervalMs(60_000).maxSize(128).maxHistory(100);
+        IntStream.range(0, 100).forEach(i -> handler.publish(record(Level.INFO, "message [{}]", i)));
+        handler.close();
+
+        assertThat(waitForCondition(() -> gzFiles().size() > 1, TEST_TIMEOUT)).isTrue();
+        final List<Integer> decoded = new ArrayList<>();
+        for (final Path path : Stream.concat(gzFiles().stream(), Stream.of(file)).toList()) {
+            decode(path).forEach(logRecord -> decoded.add((Integer) logRecord.getParameters()[0]));
+        }
+        assertThat(decoded).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 100).boxed().toList());
+    }
+
+    @Test
+    void decode_shouldPrintWithFormatter() throws IOException {
+        final Path file = tempDir.resolve("app.nlog");
+        final LogBinaryFileHandler handler = new LogBinaryFileHandler(file);
+        handler.publish(record(Level.INFO, "hello [{}]", "world"));
+        handler.close();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(LogBinaryDecoder.decode(file, new LogFormatterJson(), new PrintStream(out, true, StandardCharsets.UTF_8))).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("\"message\":\"hello [world]\"", "\"logger\":\"LogBinaryFileHandlerTest\"");
+    }
+
+    @Test
+    void decode_shouldRejectUnknownVersionsAndLevels() throws IOException {
+        final Path file = tempDir.resolve("app.nlog");
+        final LogBinaryFileHandler handler = new LogBinaryFileHandler(file);
+        handler.publish(record(Level.INFO, "hello [{}]", "world"));
+        handler.close();
+        final byte[] bytes = Files.readAllBytes(file);
+
+        final byte[] version = bytes.clone();
+        version[4] = 1;
+        assertThatThrownBy(() -> new LogBinaryDecoder(new ByteArrayInputStream(version)).decode(logRecord -> {}))
+            .isInstanceOf(IOException.class).hasMessage("Unsupported binary log version [1]");
+
+        // header, record tag, level
+        final byte[] level = Arrays.copyOf(LogBinaryEncoder.HEADER, LogBinaryEncoder.HEADER.length + 2);
+        level[level.length - 2] = 2;
+        level[level.length - 1] = 99;
+        assertThatThrownBy(() -> new LogBinaryDecoder(new ByteArrayInputStream(level)).decode(logRecord -> {}))
+            .isInstanceOf(IOException.class).hasMessage("Invalid binary log level [99]");
+    }
+
+    private List<Path> gzFiles() {
+        try (final Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.toString().endsWith(".gz")).toList();
+        } catch (final IOException e) {
+            return List.of();
+        }
+    }
+
+    private static List<LogRecord> decode(final Path file) throws IOException {
+        final List<LogRecord> result = new ArrayList<>();
+        try (final InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            new LogBinaryDecoder(in).decode(result::add);
+        }
+        return result;
+    }
+
+    private static LogRecord record(final Level level, final String message, final Object... params) {
+        final LogRecord result = new LogRecord(level, message);
+        result.setLoggerName(LogBinaryFileHandlerTest.class.getName());
+        result.setParameters(params);
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+package berlin.yuna.nano.helper.logger.model;
+
+import berlin.yuna.nano.core.Nano;
+import berlin.yuna.nano.helper.logger.LogHandlerRegister;
+import berlin.yuna.nano.helper.logger.logic.LogFormatterConsole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_FILE;
+import static berlin.yuna.nano.core.model.Config.CONFIG_LOG_LEVEL;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogFileHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void publish_shouldBufferUntilFlush() throws IOException {
+        final Path file = tempDir.resolve("logs/app.log");
+        final LogFileHandler handler = new LogFileHandler(file, new LogFormatterConsole()).flushIntervalMs(60_000);
+        handler.publish(record("message 1"));
+        handler.publish(record("message 2"));
+
+        assertThat(file).doesNotExist();
+        assertThat(handler.size()).isPositive();
+        handler.flush();
+        assertThat(Files.readString(file)).contains("message 1", "message 2");
+
+        handler.publish(record("message 3"));
+        handler.close();
+        assertThat(Files.readString(file)).contains("message 3");
+        handler.publish(record("ignored after close"));
+        assertThat(Files.readString(file)).doesNotContain("ignored after close");
+    }
+
+    @Test
+    void publish_shouldWriteWhenBufferIsFull() throws IOException {
+        final Path file = tempDir.resolve("app.log");
+        final LogFileHandler handler = new LogFileHandler(file, new LogFormatterConsole()).flushIntervalMs(60_000).bufferSize(1024).maxSize(0);
+        IntStream.range(0, 100).forEach(i -> handler.publish(record("message " + i)));
+        assertThat(Files.size(file)).isPositive().isLessThan(handler.size());
+        handler.close();
+        assertThat(Files.readAllLines(file)).hasSize(100);
+    }
+
+    @Test
+    void rotate_shouldCompressAndKeepHistory() throws IOException {
+        final Path file = tempDir.resolve("app.log");
+        final LogFileHandler handler = new LogFileHandler(file, new LogFormatterConsole()).flushIntervalMs(60_000).maxSize(512).maxHistory(2);
+        IntStream.range(0, 100).forEach(i -> handler.publish(record("message " + i)));
+
+        assertThat(waitForCondition(() -> rotatedFiles().size() == 2 && rotatedFiles().stream().allMatch(path -> path.toString().endsWith(".gz")), TEST_TIMEOUT)).isTrue();
+        handler.close();
+        assertThat(Files.size(file)).isLessThanOrEqualTo(512);
+        try (final InputStream in = new GZIPInputStream(Files.newInputStream(rotatedFiles().getLast()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains("message").hasSizeLessThanOrEqualTo(512);
+        }
+    }
+
+    @Test
+    void nano_shouldOwnAndCloseItsLogFile() throws IOException {
+        final Path file = tempDir.resolve("nano.log");
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, LogLevel.INFO, CONFIG_LOG_FILE, file.toString()));
+        final Nano other = new Nano(Map.of(CONFIG_LOG_LEVEL, LogLevel.INFO, CONFIG_LOG_FILE, tempDir.resolve("other.log").toString()));
+        final LogFileHandler handler = nano.logFile();
+        assertThat(handler).isNotNull().isNotSameAs(other.logFile());
+        assertThat(handler.file()).isEqualTo(file.toAbsolutePath());
+        assertThat(LogHandlerRegister.LOG_HANDLERS).containsValues(handler, other.logFile());
+
+        assertThat(nano.stop(LogFileHandlerTest.class).waitForStop().isReady()).isFalse();
+        assertThat(other.stop(LogFileHandlerTest.class).waitForStop().isReady()).isFalse();
+        assertThat(LogHandlerRegister.LOG_HANDLERS).doesNotContainValue(handler);
+        assertThat(nano.logger().logger().getHandlers()).doesNotContain(handler);
+        assertThat(Files.readString(file)).contains("Started", "Stopped");
+        handler.publish(record("ignored after close"));
+        assertThat(Files.readString(file)).doesNotContain("ignored after close");
+    }
+
+    @Test
+    void removeHistory_shouldCompareTheRotationIndexAsNumber() {
+        final List<Path> rotated = List.of("app.20240101-120000-000-9.log.gz", "app.20240101-120000-000-10.log.gz", "app.20240101-120000-000.log.gz", "app.20231231-235959-999-11.log.gz").stream()
+            .map(tempDir::resolve)
+            .sorted(Comparator.comparing((Path path) -> LogFileHandler.rotationOf(path, "app.")).reversed())
+            .toList();
+        assertThat(rotated).extracting(path -> path.getFileName().toString()).containsExactly(
+            "app.20240101-120000-000-10.log.gz",
+            "app.20240101-120000-000-9.log.gz",
+            "app.20240101-120000-000.log.gz",
+            "app.20231231-235959-999-11.log.gz"
+        );
+    }
+
+    private List<Path> rotatedFiles() {
+        try (final Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> !path.getFileName().toString().equals("app.log")).sorted().toList();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LogRecord record(final String message) {
+        final LogRecord logRecord = new LogRecord(Level.INFO, message);
+        logRecord.setLoggerName(LogFileHandlerTest.class.getName());
+        return logRecord;
+    }
+}
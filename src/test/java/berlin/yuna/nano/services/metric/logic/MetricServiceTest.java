@@ -4,12 +4,16 @@ import berlin.yuna.nano.core.Nano;
 import berlin.yuna.nano.services.http.HttpService;
 import berlin.yuna.nano.services.http.model.HttpMethod;
 import berlin.yuna.nano.services.http.model.HttpObject;
+import berlin.yuna.nano.services.metric.model.MetricCollector;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
 
 import static berlin.yuna.nano.core.config.TestConfig.TEST_LOG_LEVEL;
+import static berlin.yuna.nano.core.config.TestConfig.TEST_TIMEOUT;
 import static berlin.yuna.nano.core.model.Config.*;
+import static berlin.yuna.nano.helper.NanoUtils.waitForCondition;
+import static berlin.yuna.nano.helper.event.model.EventType.EVENT_METRIC_COLLECTOR;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class MetricServiceTest {
@@ -89,4 +93,17 @@ class MetricServiceTest {
         assertThat(nano.stop(MetricServiceTest.class).waitForStop().isReady()).isFalse();
 
     }
+
+    @Test
+    void registerCustomCollector() {
+        final Nano nano = new Nano(Map.of(CONFIG_LOG_LEVEL, TEST_LOG_LEVEL), new MetricService());
+        final MetricService service = nano.service(MetricService.class);
+        assertThat(service.collectors()).containsKeys("cpu", "memory", "threads", "disk");
+
+        nano.newContext(MetricServiceTest.class).sendEvent(EVENT_METRIC_COLLECTOR, new MetricCollector("custom", 64, metrics -> metrics.gaugeSet("custom.value", 42)));
+        assertThat(service.collectors()).containsKey("custom");
+        assertThat(waitForCondition(() -> service.metrics().gauge("custom.value") == 42, TEST_TIMEOUT)).isTrue();
+        assertThat(service.collect(true).metrics().gauge("service.metrics.gauges")).isPositive();
+        assertThat(nano.stop(MetricServiceTest.class).waitForStop().isReady()).isFalse();
+    }
 }
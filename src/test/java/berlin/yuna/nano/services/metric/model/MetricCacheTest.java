@@ -5,6 +5,7 @@ import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static berlin.yuna.nano.core.config.TestConfig.TEST_REPEAT;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -65,4 +66,70 @@ class MetricCacheTest {
         assertThat(metricCache.wavefront()).isEqualTo("my.counter 2 source=nano aa=bb cc=dd\nmy.gauge 9.99 source=nano aa=bb cc=dd\nmy.timer " + timer + " source=nano aa=bb cc=dd\n");
         assertThat(metricCache).hasToString(MetricCache.class.getSimpleName() + "{counters=1, gauges=1, timers=1}");
     }
+
+    @RepeatedTest(TEST_REPEAT)
+    void maxSeries_shouldRedirectToOverflowSeries() {
+        final MetricCache metricCache = new MetricCache().maxSeries(2);
+        for (int i = 0; i < 5; i++) {
+            metricCache.counterIncrement("my_counter", Map.of("user", "user_" + i));
+            metricCache.gaugeSet("my_gauge", i, Map.of("user", "user_" + i));
+        }
+        metricCache.counterIncrement("my_counter", Map.of("user", "user_0"));
+
+        assertThat(metricCache.counters()).hasSize(3);
+        assertThat(metricCache.gauges()).hasSize(3);
+        assertThat(metricCache.counter("my_counter", Map.of("user", "user_0"))).isEqualTo(2);
+        assertThat(metricCache.counter("my_counter", Map.of("user", "user_4"))).isEqualTo(-1);
+        assertThat(metricCache.counter("my_counter", MetricCache.OVERFLOW_TAGS)).isEqualTo(3);
+        assertThat(metricCache.gauge("my_gauge", MetricCache.OVERFLOW_TAGS)).isEqualTo(4);
+        assertThat(metricCache.overflows()).isEqualTo(6);
+        assertThat(metricCache.prometheus()).contains("my_counter{overflow=\"true\"} 3\n");
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void maxSeries_shouldHoldForConcurrentWriters() {
+        final MetricCache metricCache = new MetricCache().maxSeries(8);
+        IntStream.range(0, 1000).parallel().forEach(i -> metricCache.counterIncrement("my_counter", Map.of("user", "user_" + i)));
+
+        assertThat(metricCache.counters()).hasSize(9);
+        assertThat(metricCache.counters().values().stream().mapToLong(metric -> metric.value().get()).sum()).isEqualTo(1000);
+        assertThat(metricCache.overflows()).isEqualTo(992);
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void counterIncrement_shouldUpdateTheSeriesInPlace() {
+        final MetricCache metricCache = new MetricCache().counterIncrement("my_counter");
+        final MetricCache.Metric<?> metric = metricCache.counters().get("my_counter");
+        metricCache.counterIncrement("my_counter").counterIncrement("my_counter");
+        assertThat(metricCache.counters().get("my_counter")).isSameAs(metric);
+        assertThat(metricCache.counter("my_counter")).isEqualTo(3);
+    }
+
+    @RepeatedTest(TEST_REPEAT)
+    void evictStale_shouldRemoveSeriesAndFreeAccountedBytes() throws InterruptedException {
+        final MetricCache metricCache = new MetricCache().maxSeries(1);
+        final long emptyBytes = metricCache.estimatedBytes();
+        assertThat(metricCache.evictStale()).isZero();
+
+        metricCache.seriesTtlMs(10)
+            .counterIncrement("my_counter", Map.of("aa", "bb"))
+            .gaugeSet("my_gauge", 1)
+            .timerStart("my_timer");
+        final long usedBytes = metricCache.estimatedBytes();
+        assertThat(usedBytes).isGreaterThan(emptyBytes);
+
+        Thread.sleep(15);
+        metricCache.gaugeSet("my_gauge", 2);
+        assertThat(metricCache.evictStale()).isEqualTo(2);
+        assertThat(metricCache.counters()).isEmpty();
+        assertThat(metricCache.timers()).isEmpty();
+        assertThat(metricCache.gauge("my_gauge")).isEqualTo(2);
+        assertThat(metricCache.estimatedBytes()).isGreaterThan(emptyBytes).isLessThan(usedBytes);
+
+        // evicted series are available again for the cardinality limit
+        metricCache.counterIncrement("my_counter", Map.of("cc", "dd"));
+        assertThat(metricCache.counter("my_counter", Map.of("cc", "dd"))).isEqualTo(1);
+        assertThat(metricCache.overflows()).isZero();
+        assertThat(metricCache.clear().estimatedBytes()).isEqualTo(emptyBytes);
+    }
 }